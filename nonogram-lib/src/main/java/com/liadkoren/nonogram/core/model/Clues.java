@@ -0,0 +1,177 @@
+package com.liadkoren.nonogram.core.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The row and column clues of a puzzle, packed into one array: every block of every row, then of every
+ * column, with one offset per line into it. Immutable, compared and hashed by content; the hash, the
+ * filled cells and the minimum length of every line are computed once, when the clues are packed.
+ * {@link #rows()} and {@link #cols()} are {@code List<int[]>} views that read the blocks of a line in place.
+ */
+public final class Clues {
+
+	private final int rowCount, colCount;
+	private final int[] blocks;  // line i is blocks [offsets[i], offsets[i + 1]); rows are lines 0..rowCount-1, then columns
+	private final int[] offsets; // rowCount + colCount + 1 entries
+	private final long[] sums;   // filled cells per line
+	private final int hash;
+
+	private final Lines rows, cols;
+
+	private Clues(int rowCount, int colCount, int[] blocks, int[] offsets) {
+		this.rowCount = rowCount;
+		this.colCount = colCount;
+		this.blocks = blocks;
+		this.offsets = offsets;
+		this.sums = new long[rowCount + colCount];
+		for (int line = 0; line < sums.length; line++) {
+			for (int i = offsets[line]; i < offsets[line + 1]; i++) sums[line] += blocks[i];
+		}
+		this.hash = 31 * (31 * (31 * rowCount + colCount) + Arrays.hashCode(offsets)) + Arrays.hashCode(blocks);
+		this.rows = new Lines(0, rowCount);
+		this.cols = new Lines(rowCount, colCount);
+	}
+
+	/**
+	 * @param rows row clues, top to bottom, each the block sizes left to right; copied
+	 * @param cols column clues, left to right, each the block sizes top to bottom; copied
+	 */
+	public static Clues of(List<int[]> rows, List<int[]> cols) {
+		if (rows == null || cols == null) throw new IllegalArgumentException("rows and cols are required");
+		if (rows instanceof Lines r && cols instanceof Lines c && r.owner() == c.owner() && r == r.owner().rows && c == c.owner().cols) {
+			return r.owner(); // already packed
+		}
+
+		int[] offsets = new int[rows.size() + cols.size() + 1];
+		int line = 0;
+		for (List<int[]> axis : List.of(rows, cols)) {
+			for (int i = 0; i < axis.size(); i++, line++) offsets[line + 1] = offsets[line] + blockCount(axis, i, line);
+		}
+
+		// lines of other Clues (a puzzle transposed, say) are copied from their packed blocks
+		int[] blocks = new int[offsets[line]];
+		line = 0;
+		for (List<int[]> axis : List.of(rows, cols)) {
+			for (int i = 0; i < axis.size(); i++, line++) {
+				if (axis instanceof Lines lines) {
+					System.arraycopy(lines.owner().blocks, lines.owner().offsets[lines.first + i], blocks, offsets[line], offsets[line + 1] - offsets[line]);
+				} else {
+					System.arraycopy(axis.get(i), 0, blocks, offsets[line], offsets[line + 1] - offsets[line]);
+				}
+			}
+		}
+		return new Clues(rows.size(), cols.size(), blocks, offsets);
+	}
+
+	private static int blockCount(List<int[]> axis, int i, int line) {
+		if (axis instanceof Lines lines) return lines.blockCount(i);
+		int[] clue = axis.get(i);
+		if (clue == null) throw new IllegalArgumentException("clue of line " + line + " is null");
+		return clue.length;
+	}
+
+	public Lines rows() {
+		return rows;
+	}
+
+	public Lines cols() {
+		return cols;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof Clues other && hash == other.hash && rowCount == other.rowCount && colCount == other.colCount
+				&& Arrays.equals(offsets, other.offsets) && Arrays.equals(blocks, other.blocks);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return "Clues[" + rowCount + "x" + colCount + "]";
+	}
+
+	/**
+	 * The clues of one axis, one {@code int[]} of block sizes per line. {@link #get} returns a copy;
+	 * {@link #blockCount}, {@link #block}, {@link #sum} and {@link #minLength} read the packed clues in place.
+	 * Equal to another {@code Lines} with the same clues, block by block.
+	 */
+	public final class Lines extends AbstractList<int[]> implements RandomAccess {
+		private final int first, size;
+
+		private Lines(int first, int size) {
+			this.first = first;
+			this.size = size;
+		}
+
+		/** The clues this is an axis of */
+		public Clues owner() {
+			return Clues.this;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public int[] get(int line) {
+			int from = offsets[index(line)];
+			return Arrays.copyOfRange(blocks, from, offsets[first + line + 1]);
+		}
+
+		public int blockCount(int line) {
+			int i = index(line);
+			return offsets[i + 1] - offsets[i];
+		}
+
+		public int block(int line, int block) {
+			if (block < 0 || block >= blockCount(line)) throw new IndexOutOfBoundsException(block);
+			return blocks[offsets[first + line] + block];
+		}
+
+		/** Filled cells of the line */
+		public long sum(int line) {
+			return sums[index(line)];
+		}
+
+		/** Shortest line the blocks fit in: their sum plus one gap between each two */
+		public long minLength(int line) {
+			int count = blockCount(line);
+			return count == 0 ? 0 : sum(line) + count - 1;
+		}
+
+		private int index(int line) {
+			if (line < 0 || line >= size) throw new IndexOutOfBoundsException(line);
+			return first + line;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) return true;
+			if (!(o instanceof Lines other) || other.size != size) return false;
+			for (int line = 0; line < size; line++) {
+				int from = offsets[first + line], to = offsets[first + line + 1];
+				int otherFrom = other.owner().offsets[other.first + line], otherTo = other.owner().offsets[other.first + line + 1];
+				if (!Arrays.equals(blocks, from, to, other.owner().blocks, otherFrom, otherTo)) return false;
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			int h = size;
+			for (int line = 0; line < size; line++) {
+				for (int i = offsets[first + line]; i < offsets[first + line + 1]; i++) h = 31 * h + blocks[i];
+				h = 31 * h - 1; // line separator, so [1][2] and [1, 2][] differ
+			}
+			return h;
+		}
+	}
+}
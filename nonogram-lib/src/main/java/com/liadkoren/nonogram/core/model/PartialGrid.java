@@ -0,0 +1,110 @@
+package com.liadkoren.nonogram.core.model;
+
+import java.util.Arrays;
+
+/**
+ * What a solver has deduced about the grid so far: per cell 1 = filled, -1 = empty, 0 = unknown.
+ * Only deduced cells are known, never cells the search merely guessed.
+ * <p>
+ * Packed like {@link SolvedGrid}, in two planes, filled and empty cells, one bit per cell with each row
+ * starting on a new {@code long}: the layout the solvers deduce into, so a snapshot is two array copies.
+ * Immutable.
+ */
+public final class PartialGrid {
+
+	private final int rows, cols, rowWords;
+	private final long[] filled, empty; // row r is words [r * rowWords, (r + 1) * rowWords), cell c is bit c of its row
+
+	private PartialGrid(int rows, int cols, long[] filled, long[] empty) {
+		this.rows = rows;
+		this.cols = cols;
+		this.rowWords = SolvedGrid.wordsPerRow(cols);
+		this.filled = filled;
+		this.empty = empty;
+	}
+
+	/**
+	 * @param cells per cell 1 = filled, -1 = empty, 0 = unknown; rows of the same length
+	 */
+	public PartialGrid(int[][] cells) {
+		this(cells == null ? 0 : cells.length, cells == null || cells.length == 0 ? 0 : cells[0].length, pack(cells, 1), pack(cells, -1));
+	}
+
+	/**
+	 * @param filled row-major filled cells, each row padded to {@link SolvedGrid#wordsPerRow} longs; copied
+	 * @param empty  row-major empty cells, the same way; copied
+	 */
+	public static PartialGrid ofRows(int rows, int cols, long[] filled, long[] empty) {
+		if (rows < 0 || cols < 0) throw new IllegalArgumentException("dimensions must be >= 0");
+		int words = rows * SolvedGrid.wordsPerRow(cols);
+		if (filled.length != words || empty.length != words) throw new IllegalArgumentException("planes do not match " + rows + "x" + cols);
+		return new PartialGrid(rows, cols, filled.clone(), empty.clone());
+	}
+
+	private static long[] pack(int[][] cells, int state) {
+		if (cells == null) throw new IllegalArgumentException("cells required");
+		int cols = cells.length == 0 ? 0 : cells[0].length, rowWords = SolvedGrid.wordsPerRow(cols);
+		long[] plane = new long[cells.length * rowWords];
+		for (int r = 0; r < cells.length; r++) {
+			if (cells[r].length != cols) throw new IllegalArgumentException("rows must have the same length");
+			for (int c = 0; c < cols; c++) {
+				if (cells[r][c] == state) plane[r * rowWords + (c >>> 6)] |= 1L << c;
+			}
+		}
+		return plane;
+	}
+
+	public int rows() {
+		return rows;
+	}
+
+	public int cols() {
+		return cols;
+	}
+
+	/** 1 filled, -1 empty, 0 unknown */
+	public int get(int row, int col) {
+		if (row < 0 || row >= rows || col < 0 || col >= cols) throw new IndexOutOfBoundsException(row + "," + col);
+		int word = row * rowWords + (col >>> 6);
+		long bit = 1L << col;
+		if ((filled[word] & bit) != 0) return 1;
+		return (empty[word] & bit) != 0 ? -1 : 0;
+	}
+
+	/** Unpacked copy, see {@link #get} */
+	public int[][] cells() {
+		int[][] cells = new int[rows][cols];
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) cells[r][c] = get(r, c);
+		}
+		return cells;
+	}
+
+	public int knownCells() {
+		int known = 0;
+		for (int w = 0; w < filled.length; w++) known += Long.bitCount(filled[w] | empty[w]);
+		return known;
+	}
+
+	/** Known cells as a percentage of all cells, 100 for an empty grid */
+	public double solvedPercent() {
+		int total = rows * cols;
+		return total == 0 ? 100 : 100.0 * knownCells() / total;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof PartialGrid other && rows == other.rows && cols == other.cols
+				&& Arrays.equals(filled, other.filled) && Arrays.equals(empty, other.empty);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * (31 * rows + cols) + Arrays.hashCode(filled)) + Arrays.hashCode(empty);
+	}
+
+	@Override
+	public String toString() {
+		return "PartialGrid[" + rows + "x" + cols + ", " + knownCells() + " known]";
+	}
+}
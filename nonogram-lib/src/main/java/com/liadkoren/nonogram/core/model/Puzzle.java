@@ -2,6 +2,38 @@ package com.liadkoren.nonogram.core.model;
 
 import java.util.List;
 
-public record Puzzle(List<int[]> rows, List<int[]> cols) {}
+/**
+ * Row and column clues of a nonogram. The clues are packed into {@link Clues} when the puzzle is made,
+ * {@link #rows()} and {@link #cols()} are its views; puzzles with the same clues are equal.
+ */
+public record Puzzle(List<int[]> rows, List<int[]> cols) {
 
+	public Puzzle {
+		Clues clues = Clues.of(rows, cols);
+		rows = clues.rows();
+		cols = clues.cols();
+	}
 
+	public Puzzle(Clues clues) {
+		this(clues.rows(), clues.cols());
+	}
+
+	public Clues clues() {
+		return ((Clues.Lines) rows).owner();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof Puzzle other && clues().equals(other.clues());
+	}
+
+	@Override
+	public int hashCode() {
+		return clues().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "Puzzle[" + rows.size() + "x" + cols.size() + "]";
+	}
+}
@@ -5,37 +5,50 @@ import java.util.Optional;
 
 /**
  * The result of a solve attempt.
+ * A SUCCESS carries the solution packed one bit per cell, a TIMEOUT may carry the cells deduced
+ * before the budget ran out.
  * Immutable.
  */
 public record SolveResult(SolveStatus status,
-						  boolean[][] grid,
+						  SolvedGrid solution,
 						  Duration duration,
-						  String reason) {
+						  String reason,
+						  PartialGrid partial) {
+
+	public SolveResult(SolveStatus status, boolean[][] grid, Duration duration, String reason) {
+		this(status, grid == null ? null : SolvedGrid.of(grid), duration, reason, null);
+	}
 
 	public SolveResult {
 		if (status == null || duration == null) throw new IllegalArgumentException("status/duration required");
-		if (status == SolveStatus.SUCCESS && grid == null) throw new IllegalArgumentException("SUCCESS needs grid");
-		if (status != SolveStatus.SUCCESS && grid != null) throw new IllegalArgumentException("grid only on SUCCESS");
+		if (status == SolveStatus.SUCCESS && solution == null) throw new IllegalArgumentException("SUCCESS needs grid");
+		if (status != SolveStatus.SUCCESS && solution != null) throw new IllegalArgumentException("grid only on SUCCESS");
 		if (status == SolveStatus.SUCCESS && reason != null) throw new IllegalArgumentException("no reason on SUCCESS");
 		if (status != SolveStatus.SUCCESS && (reason == null || reason.isBlank())) throw new IllegalArgumentException("reason required on failure");
+		if (status != SolveStatus.TIMEOUT && partial != null) throw new IllegalArgumentException("partial grid only on TIMEOUT");
 	}
 
-	public static SolveResult success(int[][] grid, Duration duration) {
-		boolean[][] boolGrid = new boolean[grid.length][];
-		for (int i = 0; i < grid.length; i++) {
-			boolGrid[i] = new boolean[grid[i].length];
-			for (int j = 0; j < grid[i].length; j++) {
-				boolGrid[i][j] = (grid[i][j] == 1);
-			}
-		}
+	/** Unpacked copy of the solution, null unless SUCCESS; prefer {@link #solution()} to avoid the allocation */
+	public boolean[][] grid() {
+		return solution == null ? null : solution.toArray();
+	}
 
-		return new SolveResult(SolveStatus.SUCCESS, boolGrid, duration, null);
+	public static SolveResult success(SolvedGrid solution, Duration duration) {
+		return new SolveResult(SolveStatus.SUCCESS, solution, duration, null, null);
 	}
 
 	public static SolveResult timeout(Duration d) {
 		return new SolveResult(SolveStatus.TIMEOUT, null, d, "TIMEOUT");
 	}
 
+	public static SolveResult timeout(PartialGrid partial, Duration d) {
+		return new SolveResult(SolveStatus.TIMEOUT, null, d, "TIMEOUT", partial);
+	}
+
+	public static SolveResult cancelled(Duration d) {
+		return new SolveResult(SolveStatus.CANCELLED, null, d, "CANCELLED");
+	}
+
 	public static SolveResult unsolvable(String why, Duration d) {
 		return new SolveResult(SolveStatus.UNSOLVABLE, null, d, why);
 	}
@@ -44,5 +57,5 @@ public record SolveResult(SolveStatus status,
 		return new SolveResult(SolveStatus.ERROR, null, d, why);
 	}
 
-	public enum SolveStatus {SUCCESS, TIMEOUT, ERROR, UNSOLVABLE}
+	public enum SolveStatus {SUCCESS, TIMEOUT, ERROR, UNSOLVABLE, CANCELLED}
 }
@@ -0,0 +1,96 @@
+package com.liadkoren.nonogram.core.model;
+
+import java.util.Arrays;
+
+/**
+ * A solved grid, packed one bit per filled cell in row-major order; each row starts on a new
+ * {@code long}, the layout the solvers deduce into, so a solution is taken over with a single array copy.
+ * Immutable; read it cell by cell with {@link #isFilled}, or unpack it with {@link #toArray()}.
+ */
+public final class SolvedGrid {
+
+	@FunctionalInterface
+	public interface Cells {
+		boolean isFilled(int row, int col);
+	}
+
+	private final int rows, cols, rowWords;
+	private final long[] filled; // row r is words [r * rowWords, (r + 1) * rowWords), cell c is bit c of its row
+
+	private SolvedGrid(int rows, int cols, long[] filled) {
+		this.rows = rows;
+		this.cols = cols;
+		this.rowWords = wordsPerRow(cols);
+		this.filled = filled;
+	}
+
+	public static int wordsPerRow(int cols) {
+		return (cols + 63) >>> 6;
+	}
+
+	/**
+	 * @param filled row-major filled cells, each row padded to {@link #wordsPerRow} longs; copied
+	 */
+	public static SolvedGrid ofRows(int rows, int cols, long[] filled) {
+		if (rows < 0 || cols < 0) throw new IllegalArgumentException("dimensions must be >= 0");
+		if (filled.length != rows * wordsPerRow(cols)) throw new IllegalArgumentException("filled does not match " + rows + "x" + cols);
+		return new SolvedGrid(rows, cols, filled.clone());
+	}
+
+	public static SolvedGrid of(int rows, int cols, Cells cells) {
+		if (rows < 0 || cols < 0) throw new IllegalArgumentException("dimensions must be >= 0");
+		int rowWords = wordsPerRow(cols);
+		long[] filled = new long[rows * rowWords];
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) {
+				if (cells.isFilled(r, c)) filled[r * rowWords + (c >>> 6)] |= 1L << c;
+			}
+		}
+		return new SolvedGrid(rows, cols, filled);
+	}
+
+	public static SolvedGrid of(boolean[][] grid) {
+		int rows = grid.length, cols = rows == 0 ? 0 : grid[0].length;
+		for (boolean[] row : grid) {
+			if (row.length != cols) throw new IllegalArgumentException("grid rows must have the same length");
+		}
+		return of(rows, cols, (r, c) -> grid[r][c]);
+	}
+
+	public int rows() {
+		return rows;
+	}
+
+	public int cols() {
+		return cols;
+	}
+
+	public boolean isFilled(int row, int col) {
+		if (row < 0 || row >= rows || col < 0 || col >= cols) throw new IndexOutOfBoundsException(row + "," + col);
+		return (filled[row * rowWords + (col >>> 6)] & (1L << col)) != 0;
+	}
+
+	/** Unpacked copy, one boolean per cell */
+	public boolean[][] toArray() {
+		boolean[][] grid = new boolean[rows][cols];
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) grid[r][c] = isFilled(r, c);
+		}
+		return grid;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof SolvedGrid other && rows == other.rows && cols == other.cols && Arrays.equals(filled, other.filled);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * rows + cols) + Arrays.hashCode(filled);
+	}
+
+	@Override
+	public String toString() {
+		return "SolvedGrid[" + rows + "x" + cols + "]";
+	}
+}
@@ -0,0 +1,18 @@
+package com.liadkoren.nonogram.core.ports;
+
+/**
+ * Lets the owner of a solve stop it before its budget runs out.
+ * Solvers check it between line deductions and return CANCELLED once they see it.
+ * Thread-safe; a token can't be reset.
+ */
+public final class CancellationToken {
+	private volatile boolean cancelled;
+
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
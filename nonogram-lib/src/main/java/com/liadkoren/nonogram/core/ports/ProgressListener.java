@@ -0,0 +1,12 @@
+package com.liadkoren.nonogram.core.ports;
+
+import com.liadkoren.nonogram.core.model.PartialGrid;
+
+/**
+ * Receives snapshots of the cells a running solve has deduced so far.
+ * Called on a solver thread, so it should return quickly.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+	void onProgress(PartialGrid partial);
+}
@@ -8,4 +8,14 @@ import java.util.function.Supplier;
 
 public interface SolverFactory {
 	Solver create(Puzzle puzzle, Duration budget);
+
+	// factories whose solvers can't report progress ignore the listener
+	default Solver create(Puzzle puzzle, Duration budget, ProgressListener progress) {
+		return create(puzzle, budget);
+	}
+
+	// factories whose solvers can't be cancelled run until the budget is over
+	default Solver create(Puzzle puzzle, Duration budget, ProgressListener progress, CancellationToken cancellation) {
+		return create(puzzle, budget, progress);
+	}
 }
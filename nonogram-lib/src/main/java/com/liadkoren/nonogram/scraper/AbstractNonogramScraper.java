@@ -2,16 +2,35 @@ package com.liadkoren.nonogram.scraper;
 
 import com.liadkoren.nonogram.core.model.Puzzle;
 import com.liadkoren.nonogram.core.ports.Scraper;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
 
+import java.io.IOException;
 import java.net.URI;
+import java.util.Iterator;
 import java.util.List;
 
 public abstract class AbstractNonogramScraper implements Scraper {
+	private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/94.0.4606.81 Safari/537.36";
+
 	NonogramCluesExtractor nonogramCluesExtractor = new NonogramCluesExtractor();
 
+	private final ScrapeCache cache; // null: fetch on every apply
+
+	protected AbstractNonogramScraper() {
+		this(null);
+	}
+
+	protected AbstractNonogramScraper(ScrapeCache cache) {
+		this.cache = cache;
+	}
+
 	@Override
 	public Puzzle apply(URI uri) {
 
@@ -22,17 +41,31 @@ public abstract class AbstractNonogramScraper implements Scraper {
 			);
 		}
 
-		Document doc;
+		if (cache != null) return cache.get(uri, this::fetch);
+
 		try {
-			// 1. Connect and fetch the HTML document
-			doc = Jsoup.connect(uri.toString())
-					.userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/94.0.4606.81 Safari/537.36")
-					.get();
+			return fetch(uri, null, null).puzzle();
 		} catch (Exception e) {
 			throw new RuntimeException("Failed to fetch html puzzle from URI: " + uri, e);
 		}
+	}
 
-		return parseDocument(doc);
+	// Conditional GET when validators are given; a 304 Not Modified comes back without a puzzle
+	ScrapeCache.Fetch fetch(URI uri, String etag, String lastModified) throws IOException {
+		Connection connection = Jsoup.connect(uri.toString())
+				.userAgent(USER_AGENT)
+				.ignoreHttpErrors(true)
+				.ignoreContentType(true); // a 304 usually has no Content-Type
+		if (etag != null) connection.header("If-None-Match", etag);
+		if (lastModified != null) connection.header("If-Modified-Since", lastModified);
+
+		Connection.Response response = connection.execute();
+		if (response.statusCode() == 304 && (etag != null || lastModified != null)) return ScrapeCache.Fetch.notModified();
+		if (response.statusCode() < 200 || response.statusCode() >= 300) {
+			throw new HttpStatusException("HTTP error fetching URL", response.statusCode(), uri.toString());
+		}
+
+		return new ScrapeCache.Fetch(parseStream(response.streamParser()), response.header("ETag"), response.header("Last-Modified"));
 	}
 
 
@@ -48,6 +81,31 @@ public abstract class AbstractNonogramScraper implements Scraper {
 		return new Puzzle(rowClues, colClues);
 	}
 
+	// Same result as parseDocument, without keeping the page in memory: elements are dropped as soon as
+	// they are parsed unless they belong to a clue table, and parsing stops once both tables were seen.
+	Puzzle parseStream(StreamParser streamer) throws IOException {
+		Evaluator rowTable = QueryParser.parse(getRowCluesSelector());
+		Evaluator colTable = QueryParser.parse(getColCluesSelector());
+		Evaluator anyTable = QueryParser.parse(getRowCluesSelector() + ", " + getColCluesSelector());
+
+		Element rowCluesTable = null, colCluesTable = null;
+		try (streamer) {
+			// elements are emitted once complete, children before their parents
+			for (Iterator<Element> it = streamer.iterator(); it.hasNext(); ) {
+				Element element = it.next();
+				if (rowCluesTable == null && element.is(rowTable)) rowCluesTable = element;
+				else if (colCluesTable == null && element.is(colTable)) colCluesTable = element;
+				else if (element.closest(anyTable) == null) element.remove();
+
+				if (rowCluesTable != null && colCluesTable != null) break;
+			}
+		}
+
+		List<int[]> rowClues = nonogramCluesExtractor.extractAllRows(rowCluesTable, this::parseCell);
+		List<int[]> colClues = nonogramCluesExtractor.extractAllCols(colCluesTable, this::parseCell);
+		return new Puzzle(rowClues, colClues);
+	}
+
 	public boolean canScrape(URI uri) {
 		String host = uri.getHost();
 		return host != null && host.endsWith(getAcceptedDomain());
@@ -4,6 +4,13 @@ import org.jsoup.nodes.Element;
 
 public class JapaneseNonogramScraper extends AbstractNonogramScraper {
 
+	public JapaneseNonogramScraper() {
+	}
+
+	public JapaneseNonogramScraper(ScrapeCache cache) {
+		super(cache);
+	}
+
 	@Override
 	public String getAcceptedDomain() {
 		return "nonograms.org";
@@ -5,11 +5,11 @@ import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.Function;
-import java.util.stream.Stream;
 
+// Clues are parsed straight into int[]: one pass over the rows of a table, no boxing.
 public class NonogramCluesExtractor {
 	List<int[]> extractAllRows(Element table, Function<Element, String> cellParser) {
 		if (table == null) {
@@ -17,19 +17,22 @@ public class NonogramCluesExtractor {
 			return new ArrayList<>();
 		}
 
-		return table.select("tr").stream()
-				.map(row -> row.select("td")) // For each row, get all its cells
-				.map(cells -> extractRowClues(cells, cellParser)) // Transform the list of cells into an int[]
-				.toList();
-
+		Elements rows = table.getElementsByTag("tr");
+		List<int[]> rowClues = new ArrayList<>(rows.size());
+		for (Element row : rows) {
+			rowClues.add(extractRowClues(row.getElementsByTag("td"), cellParser));
+		}
+		return rowClues;
 	}
 
 	int[] extractRowClues(Elements cells, Function<Element, String> cellParser) {
-		return cells.stream()
-				.map(cellParser)
-				.filter(s -> !s.isBlank())
-				.mapToInt(Integer::parseInt)
-				.toArray();
+		int[] clues = new int[cells.size()];
+		int count = 0;
+		for (Element cell : cells) {
+			String text = cellParser.apply(cell);
+			if (!text.isBlank()) clues[count++] = Integer.parseInt(text);
+		}
+		return count == clues.length ? clues : Arrays.copyOf(clues, count);
 	}
 
 	List<int[]> extractAllCols(Element table, Function<Element, String> cellParser) {
@@ -38,25 +41,27 @@ public class NonogramCluesExtractor {
 			return new ArrayList<>();
 		}
 
-		Element firstRow = table.select("tr").first();
-		int colCount = (firstRow != null) ? firstRow.select("td").size() : 0;
+		Elements rows = table.getElementsByTag("tr");
+		int colCount = rows.isEmpty() ? 0 : rows.first().getElementsByTag("td").size();
 		if (colCount == 0)
 			return new ArrayList<>();
 
-		List<ArrayList<Integer>> cols = Stream.generate(ArrayList<Integer>::new).limit(colCount).toList();
+		// a column has at most one clue per row
+		int[][] cols = new int[colCount][rows.size()];
+		int[] counts = new int[colCount];
 
-		table.select("tr").forEach(row -> {
-			Elements cells = row.select("td");
+		for (Element row : rows) {
+			Elements cells = row.getElementsByTag("td");
 			for (int i = 0; i < colCount; i++) {
 				String cellText = cellParser.apply(cells.get(i));
 				if (!cellText.isBlank()) {
-					cols.get(i).add(Integer.parseInt(cellText));
+					cols[i][counts[i]++] = Integer.parseInt(cellText);
 				}
 			}
-		});
+		}
 
-		return cols.stream()
-				.map(colList -> colList.stream().mapToInt(Integer::intValue).toArray())
-				.toList();
+		List<int[]> colClues = new ArrayList<>(colCount);
+		for (int i = 0; i < colCount; i++) colClues.add(Arrays.copyOf(cols[i], counts[i]));
+		return colClues;
 	}
 }
@@ -4,6 +4,13 @@ import org.jsoup.nodes.Element;
 
 public class OnlineNonogramScraper extends AbstractNonogramScraper {
 
+	public OnlineNonogramScraper() {
+	}
+
+	public OnlineNonogramScraper(ScrapeCache cache) {
+		super(cache);
+	}
+
 	@Override
 	public String getAcceptedDomain() {
 		return "onlinenonograms.com";
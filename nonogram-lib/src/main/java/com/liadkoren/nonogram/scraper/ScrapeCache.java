@@ -0,0 +1,165 @@
+package com.liadkoren.nonogram.scraper;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe cache of scraped puzzles, keyed by normalized URI, shared by the scrapers.
+ * <p>
+ * An entry is served as is for {@code ttl}; after that the page is fetched again with the
+ * ETag / Last-Modified validators of the entry, and a 304 Not Modified keeps the cached puzzle.
+ * At most {@code maxEntries} entries are kept, least recently used are evicted first.
+ * Concurrent scrapes of the same URI share a single fetch.
+ */
+public final class ScrapeCache {
+
+	/** Fetches and parses a page, sending the validators (may be null) as a conditional request. */
+	@FunctionalInterface
+	public interface Fetcher {
+		Fetch fetch(URI uri, String etag, String lastModified) throws IOException;
+	}
+
+	/**
+	 * @param puzzle       the parsed page, or null if the server answered 304 Not Modified
+	 * @param etag         ETag response header, may be null
+	 * @param lastModified Last-Modified response header, may be null
+	 */
+	public record Fetch(Puzzle puzzle, String etag, String lastModified) {
+		public static Fetch notModified() {
+			return new Fetch(null, null, null);
+		}
+	}
+
+	/**
+	 * @param hits          scrapes served from a fresh entry, or from a fetch running at the same time
+	 * @param revalidations expired entries the server confirmed with 304 Not Modified
+	 * @param fetches       full page downloads
+	 * @param evictions     entries dropped to stay within maxEntries
+	 */
+	public record Stats(long hits, long revalidations, long fetches, long evictions) {
+	}
+
+	private record Entry(Puzzle puzzle, String etag, String lastModified, long fetchedAt) {
+	}
+
+	private final long ttlNanos;
+	private final int maxEntries;
+
+	// access-ordered: the eldest entry is the least recently used
+	private final Map<URI, Entry> entries;
+	private final ConcurrentHashMap<URI, CompletableFuture<Puzzle>> inFlight = new ConcurrentHashMap<>();
+
+	private final LongAdder hits = new LongAdder(), revalidations = new LongAdder(), fetches = new LongAdder(), evictions = new LongAdder();
+
+	public ScrapeCache(Duration ttl, int maxEntries) {
+		if (ttl == null || ttl.isNegative()) throw new IllegalArgumentException("ttl must be >= 0");
+		if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be > 0");
+		this.ttlNanos = ttl.toNanos();
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<URI, Entry> eldest) {
+				if (size() <= ScrapeCache.this.maxEntries) return false;
+				evictions.increment();
+				return true;
+			}
+		};
+	}
+
+	public Puzzle get(URI uri, Fetcher fetcher) {
+		URI key = normalize(uri);
+
+		Entry entry = entry(key);
+		if (entry != null && System.nanoTime() - entry.fetchedAt < ttlNanos) {
+			hits.increment();
+			return entry.puzzle;
+		}
+
+		CompletableFuture<Puzzle> ours = new CompletableFuture<>();
+		CompletableFuture<Puzzle> running = inFlight.putIfAbsent(key, ours);
+		if (running != null) {
+			hits.increment();
+			try {
+				return running.join();
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException re ? re : e;
+			}
+		}
+
+		try {
+			Puzzle puzzle = refresh(key, entry(key), fetcher);
+			ours.complete(puzzle);
+			return puzzle;
+		} catch (RuntimeException e) {
+			ours.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, ours);
+		}
+	}
+
+	public Stats stats() {
+		return new Stats(hits.sum(), revalidations.sum(), fetches.sum(), evictions.sum());
+	}
+
+	private Puzzle refresh(URI key, Entry stale, Fetcher fetcher) {
+		Fetch fetch;
+		try {
+			fetch = stale == null
+					? fetcher.fetch(key, null, null)
+					: fetcher.fetch(key, stale.etag, stale.lastModified);
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to fetch html puzzle from URI: " + key, e);
+		}
+
+		Entry fresh;
+		if (fetch.puzzle() == null) {
+			if (stale == null) throw new IllegalStateException("Not Modified without a cached page for " + key);
+			revalidations.increment();
+			fresh = new Entry(stale.puzzle, stale.etag, stale.lastModified, System.nanoTime());
+		} else {
+			fetches.increment();
+			fresh = new Entry(fetch.puzzle(), fetch.etag(), fetch.lastModified(), System.nanoTime());
+		}
+
+		synchronized (entries) {
+			entries.put(key, fresh);
+		}
+		return fresh.puzzle;
+	}
+
+	private Entry entry(URI key) {
+		synchronized (entries) {
+			return entries.get(key);
+		}
+	}
+
+	// lower-case scheme and host, no default port, no fragment, "/" for an empty path
+	static URI normalize(URI uri) {
+		URI normalized = uri.normalize();
+		String scheme = normalized.getScheme() == null ? null : normalized.getScheme().toLowerCase(Locale.ROOT);
+		String host = normalized.getHost() == null ? null : normalized.getHost().toLowerCase(Locale.ROOT);
+		int port = normalized.getPort();
+		if (("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443)) port = -1;
+		String path = normalized.getRawPath() == null || normalized.getRawPath().isEmpty() ? "/" : normalized.getRawPath();
+
+		StringBuilder out = new StringBuilder();
+		if (scheme != null) out.append(scheme).append("://");
+		if (normalized.getRawUserInfo() != null) out.append(normalized.getRawUserInfo()).append('@');
+		if (host != null) out.append(host);
+		if (port != -1) out.append(':').append(port);
+		out.append(path);
+		if (normalized.getRawQuery() != null) out.append('?').append(normalized.getRawQuery());
+		return URI.create(out.toString());
+	}
+}
@@ -0,0 +1,70 @@
+package com.liadkoren.nonogram.solver;
+
+// Not thread-safe for writes to the same cell
+// CellGrid backed by the solvers' int[rows][cols] grid
+
+final class ArrayCellGrid implements CellGrid {
+	private final int[][] grid;
+	private final int rows, cols;
+	private final CellTrail trail;
+
+	ArrayCellGrid(int[][] grid) {
+		this.grid = grid;
+		this.rows = grid.length;
+		this.cols = rows == 0 ? 0 : grid[0].length;
+		this.trail = new CellTrail(rows * cols);
+	}
+
+	@Override
+	public int rows() {
+		return rows;
+	}
+
+	@Override
+	public int cols() {
+		return cols;
+	}
+
+	@Override
+	public int get(int row, int col) {
+		return grid[row][col];
+	}
+
+	@Override
+	public boolean set(int row, int col, int state) {
+		int existing = grid[row][col];
+		if (existing == state) return false;
+		if (existing != 0) throw CellGrid.conflict(row, col);
+
+		grid[row][col] = state;
+		trail.add(row * cols + col);
+		return true;
+	}
+
+	@Override
+	public int mark() {
+		return trail.mark();
+	}
+
+	@Override
+	public void undo(int mark) {
+		trail.undo(mark, cell -> grid[cell / cols][cell % cols] = 0);
+	}
+
+	@Override
+	public CellGrid copy() {
+		int[][] copy = new int[rows][];
+		for (int r = 0; r < rows; r++) {
+			copy[r] = grid[r].clone();
+		}
+		return new ArrayCellGrid(copy);
+	}
+
+	@Override
+	public void restore(CellGrid snapshot) {
+		int[][] source = ((ArrayCellGrid) snapshot).grid;
+		for (int r = 0; r < rows; r++) {
+			System.arraycopy(source[r], 0, grid[r], 0, cols);
+		}
+	}
+}
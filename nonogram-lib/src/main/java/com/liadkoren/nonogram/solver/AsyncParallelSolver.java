@@ -0,0 +1,243 @@
+package com.liadkoren.nonogram.solver;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.core.model.SolveResult;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
+import com.liadkoren.nonogram.core.ports.ProgressListener;
+import com.liadkoren.nonogram.core.ports.Solver;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A stateful solver instance that deduces rows and columns at the same time, without phase barriers.
+ * Cells live in an {@link AtomicCellGrid} and are published with compare-and-set; every changed cell
+ * reschedules the line crossing it as a new fork-join task, until no line is dirty.
+ * <p>
+ * Line deductions are monotone, so propagation reaches the same fixpoint in any order; the
+ * {@link BacktrackingSearch} on top only branches on that fixpoint, which keeps the result deterministic.
+ * Not thread-safe: one instance may only be used for a single solve at a time.
+ * For multiple concurrent solves, create separate instances.
+ */
+public final class AsyncParallelSolver implements Solver {
+
+	// one line solver scratch per worker thread, reused across tasks and solves
+	private static final ThreadLocal<BitsetLineSolver> WORKER_LINE_SOLVER = ThreadLocal.withInitial(BitsetLineSolver::new);
+
+	private final AtomicCellGrid grid;
+	int rows, cols;
+
+	private final ForkJoinPool pool;
+
+	private final GridLine[] rowLines, colLines;
+
+	// 1 while a task owns the line (queued or running), so a line is never deduced by two threads at once.
+	// index: row r -> r, column c -> rows + c
+	private final AtomicIntegerArray claimed;
+
+	private final LongAdder performedDeductions = new LongAdder();
+
+	// first exception thrown by a line during propagation (IllegalStateException = contradiction)
+	private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+	private volatile boolean timedOut;
+
+	private Duration budget;
+	private long solveStartTime, solveDeadline;
+
+	private ProgressReporter progress = ProgressReporter.NONE;
+	private CancellationToken cancellation = new CancellationToken();
+	private LineCache lineCache;
+	private BacktrackingSearch search;
+
+	public static SolveResult solve(Puzzle puzzle, Duration budget) {
+		return new AsyncParallelSolver(puzzle, budget).get();
+	}
+
+	public AsyncParallelSolver(Puzzle puzzle, Duration budget) {
+		this(puzzle, budget, ForkJoinPool.commonPool());
+	}
+
+	public AsyncParallelSolver(Puzzle puzzle, Duration budget, ForkJoinPool pool) {
+		if (pool == null) throw new IllegalArgumentException("pool cannot be null");
+
+		this.rows = puzzle.rows().size();
+		this.cols = puzzle.cols().size();
+		this.grid = new AtomicCellGrid(rows, cols);
+		this.pool = pool;
+
+		ArrayDeque<GridLine> lines = new ArrayDeque<>(rows + cols);
+		GridLine.populateWithLines(puzzle, grid, lines);
+		GridLine[] allLines = lines.toArray(new GridLine[0]);
+		this.rowLines = Arrays.copyOfRange(allLines, 0, rows);
+		this.colLines = Arrays.copyOfRange(allLines, rows, rows + cols);
+		this.claimed = new AtomicIntegerArray(rows + cols);
+		this.lineCache = LineCache.forLines(allLines.length);
+
+		this.budget = budget;
+	}
+
+	/**
+	 * Publishes the deduced cells to {@code listener} at most once per {@code interval} while solving,
+	 * from whichever worker thread finishes a line when the interval is up.
+	 */
+	public AsyncParallelSolver withProgress(ProgressListener listener, Duration interval) {
+		this.progress = new ProgressReporter(listener, interval);
+		return this;
+	}
+
+	/**
+	 * Stops the solve, with a CANCELLED result, once {@code cancellation} is cancelled.
+	 * Line tasks already forked finish without deducing or forking anything more.
+	 */
+	public AsyncParallelSolver withCancellation(CancellationToken cancellation) {
+		if (cancellation == null) throw new IllegalArgumentException("cancellation cannot be null");
+		this.cancellation = cancellation;
+		return this;
+	}
+
+	/**
+	 * Looks line deductions up in {@code cache}, e.g. one shared with other solves, instead of a cache of its own.
+	 */
+	public AsyncParallelSolver withLineCache(LineCache cache) {
+		if (cache == null) throw new IllegalArgumentException("cache cannot be null");
+		this.lineCache = cache;
+		return this;
+	}
+
+	public SolveResult get() {
+		this.solveStartTime = System.nanoTime();
+		this.solveDeadline = solveStartTime + budget.toNanos();
+
+		try {
+			search = new BacktrackingSearch(grid, new AsyncPropagation(), progress);
+			BacktrackingSearch.Outcome outcome = search.solve();
+
+			if (outcome == BacktrackingSearch.Outcome.SOLVED) return SolveResult.success(grid.toSolvedGrid(), elapsedSinceStart()); // solved
+			if (outcome == BacktrackingSearch.Outcome.CANCELLED) return SolveResult.cancelled(elapsedSinceStart());
+			return SolveResult.timeout(search.known(), elapsedSinceStart()); // budget exceeded
+		} catch (IllegalStateException ise) {
+			return SolveResult.unsolvable("Puzzle is unsolvable: " + ise.getMessage(), elapsedSinceStart());
+		} catch (RuntimeException e) {
+			return SolveResult.error("Execution error: " + e, elapsedSinceStart());
+		}
+	}
+
+	public long performedDeductions() {
+		return performedDeductions.sum();
+	}
+
+	public LineCache.Stats lineCacheStats() {
+		return lineCache.stats();
+	}
+
+	private final class AsyncPropagation implements BacktrackingSearch.Propagation {
+		@Override
+		public BacktrackingSearch.Outcome propagate() {
+			pool.invoke(new PropagationRoot());
+
+			// rethrown only once every task finished, so no worker writes to the grid after the search restores it
+			RuntimeException error = failure.getAndSet(null);
+			if (error != null) throw error;
+			if (cancellation.isCancelled()) return BacktrackingSearch.Outcome.CANCELLED;
+			if (timedOut) return BacktrackingSearch.Outcome.TIMED_OUT;
+
+			return grid.isComplete() ? BacktrackingSearch.Outcome.SOLVED : BacktrackingSearch.Outcome.STALLED;
+		}
+
+		@Override
+		public void cellGuessed(int row, int col) {
+			// lines may still be marked dirty by an abandoned branch; the grid itself was at a fixpoint before the guess
+			for (GridLine line : rowLines) line.markClean();
+			for (GridLine line : colLines) line.markClean();
+
+			rowLines[row].markDirty();
+			colLines[col].markDirty();
+		}
+	}
+
+	// Forks a task for every dirty line and completes once all tasks (and the tasks they fork) are done
+	private final class PropagationRoot extends CountedCompleter<Void> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void compute() {
+			for (GridLine line : rowLines) forkIfDirty(this, line);
+			for (GridLine line : colLines) forkIfDirty(this, line);
+			tryComplete();
+		}
+	}
+
+	private final class LineTask extends CountedCompleter<Void> {
+		private static final long serialVersionUID = 1L;
+
+		private final GridLine line;
+
+		LineTask(CountedCompleter<?> parent, GridLine line) {
+			super(parent);
+			this.line = line;
+		}
+
+		@Override
+		public void compute() {
+			// the task owns the line; a change that arrives meanwhile marks it dirty again and we go around once more
+			do {
+				deduce();
+				claimed.set(claimIndex(line), 0);
+			} while (!aborted() && line.isDirty() && tryClaim(line));
+
+			tryComplete();
+		}
+
+		private void deduce() {
+			if (aborted()) return;
+			if (System.nanoTime() >= solveDeadline) {
+				timedOut = true;
+				return;
+			}
+
+			// clean before reading the grid, so every change made after the read reschedules this line
+			line.markClean();
+			try {
+				line.deduce(WORKER_LINE_SOLVER.get(), lineCache);
+				performedDeductions.increment();
+
+				for (int i = line.nextChangedCell(0); i >= 0; i = line.nextChangedCell(i + 1)) {
+					GridLine crossing = line.getIsRow() ? colLines[i] : rowLines[i];
+					if (crossing.markDirty()) forkIfDirty(this, crossing);
+				}
+				search.reportProgress();
+			} catch (RuntimeException e) {
+				failure.compareAndSet(null, e);
+			}
+		}
+	}
+
+	private boolean aborted() {
+		return failure.get() != null || timedOut || cancellation.isCancelled();
+	}
+
+	private void forkIfDirty(CountedCompleter<?> parent, GridLine line) {
+		if (!line.isDirty() || !tryClaim(line)) return; // not dirty, or the owning task will pick it up
+
+		parent.addToPendingCount(1);
+		new LineTask(parent, line).fork();
+	}
+
+	private boolean tryClaim(GridLine line) {
+		return claimed.compareAndSet(claimIndex(line), 0, 1);
+	}
+
+	private int claimIndex(GridLine line) {
+		return line.getIsRow() ? line.getLineIndex() : rows + line.getLineIndex();
+	}
+
+	private Duration elapsedSinceStart() {
+		return Duration.ofNanos(System.nanoTime() - solveStartTime);
+	}
+}
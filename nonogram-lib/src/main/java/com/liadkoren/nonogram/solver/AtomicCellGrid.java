@@ -0,0 +1,112 @@
+package com.liadkoren.nonogram.solver;
+
+import com.liadkoren.nonogram.core.model.SolvedGrid;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Thread-safe, lock-free
+// CellGrid packed into 2 bits per cell (00 unknown, 01 filled, 10 empty), 32 cells per long, row-major.
+// Cells are published with compare-and-set, so rows and columns can be deduced at the same time.
+
+final class AtomicCellGrid implements CellGrid {
+	private static final int CELLS_PER_WORD = 32;
+	private static final long FILLED = 0b01, EMPTY = 0b10;
+
+	private final AtomicLongArray cells;
+	private final int rows, cols;
+	private final CellTrail trail;
+
+	AtomicCellGrid(int rows, int cols) {
+		this.rows = rows;
+		this.cols = cols;
+		this.trail = new CellTrail(rows * cols);
+		this.cells = new AtomicLongArray((rows * cols + CELLS_PER_WORD - 1) / CELLS_PER_WORD);
+	}
+
+	@Override
+	public int rows() {
+		return rows;
+	}
+
+	@Override
+	public int cols() {
+		return cols;
+	}
+
+	@Override
+	public int get(int row, int col) {
+		int index = row * cols + col;
+		long bits = (cells.get(index / CELLS_PER_WORD) >>> shiftOf(index)) & 0b11;
+		return bits == FILLED ? 1 : bits == EMPTY ? -1 : 0;
+	}
+
+	@Override
+	public boolean set(int row, int col, int state) {
+		int index = row * cols + col, word = index / CELLS_PER_WORD, shift = shiftOf(index);
+		long bits = state == 1 ? FILLED : EMPTY;
+
+		while (true) {
+			long current = cells.get(word);
+			long existing = (current >>> shift) & 0b11;
+			if (existing == bits) return false;
+			if (existing != 0) throw CellGrid.conflict(row, col);
+
+			if (cells.compareAndSet(word, current, current | (bits << shift))) {
+				trail.add(index);
+				return true;
+			}
+		}
+	}
+
+	@Override
+	public int mark() {
+		return trail.mark();
+	}
+
+	@Override
+	public void undo(int mark) {
+		trail.undo(mark, index -> {
+			int word = index / CELLS_PER_WORD;
+			cells.set(word, cells.get(word) & ~(0b11L << shiftOf(index)));
+		});
+	}
+
+	// Returns true if no cell is unknown
+	boolean isComplete() {
+		int total = rows * cols, words = cells.length();
+		for (int w = 0; w < words; w++) {
+			long word = cells.get(w);
+			// one bit per cell, set where both bits of the cell are 0
+			long unknown = ~(word | (word >>> 1)) & 0x5555555555555555L;
+
+			int cellsInWord = Math.min(CELLS_PER_WORD, total - w * CELLS_PER_WORD);
+			if (cellsInWord < CELLS_PER_WORD) unknown &= (1L << (cellsInWord * 2)) - 1;
+			if (unknown != 0) return false;
+		}
+		return true;
+	}
+
+	// only meaningful once every cell is known
+	SolvedGrid toSolvedGrid() {
+		return SolvedGrid.of(rows, cols, (row, col) -> get(row, col) == 1);
+	}
+
+	@Override
+	public CellGrid copy() {
+		AtomicCellGrid copy = new AtomicCellGrid(rows, cols);
+		copy.restore(this);
+		return copy;
+	}
+
+	@Override
+	public void restore(CellGrid snapshot) {
+		AtomicLongArray source = ((AtomicCellGrid) snapshot).cells;
+		for (int w = 0; w < cells.length(); w++) {
+			cells.set(w, source.get(w));
+		}
+	}
+
+	private static int shiftOf(int index) {
+		return (index % CELLS_PER_WORD) * 2;
+	}
+}
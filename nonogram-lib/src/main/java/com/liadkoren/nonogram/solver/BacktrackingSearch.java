@@ -0,0 +1,169 @@
+package com.liadkoren.nonogram.solver;
+
+import com.liadkoren.nonogram.core.model.PartialGrid;
+
+import java.util.Arrays;
+
+// Not thread-safe
+// Depth-first search on top of line propagation.
+// Propagation runs until it solves the grid or stalls; on a stall the search guesses a cell,
+// propagates again, and undoes the guess when propagation hits a contradiction.
+// The search is a loop over an explicit stack of open guesses, not a recursion, so its depth is not
+// bounded by the thread's stack; a guess is undone through the grid's trail (CellGrid.mark / undo),
+// so an open guess costs two ints instead of a copy of the grid.
+// Cells set while no guess is open are certain; known() and the progress reports only show those.
+
+final class BacktrackingSearch {
+
+	enum Outcome {SOLVED, STALLED, TIMED_OUT, CANCELLED}
+
+	interface Propagation {
+		/**
+		 * Deduces lines until the grid is complete, nothing changes anymore, the budget runs out,
+		 * or the solve is cancelled.
+		 *
+		 * @throws IllegalStateException if a line has no valid fill (contradiction)
+		 */
+		Outcome propagate();
+
+		/**
+		 * Called after the search rewrote the grid (undid a guess and/or guessed a cell),
+		 * so the propagation can reschedule the lines affected by the guessed cell.
+		 */
+		void cellGuessed(int row, int col);
+	}
+
+	private final CellGrid grid;
+	private final int rows, cols;
+	private final Propagation propagation;
+	private final ProgressReporter progress;
+
+	// open guesses; the grid only holds certain cells while this is 0. Changes between propagations only.
+	private volatile int depth;
+	// the grid before the outermost open guess
+	private CellGrid certainBeforeGuess;
+
+	BacktrackingSearch(CellGrid grid, Propagation propagation) {
+		this(grid, propagation, ProgressReporter.NONE);
+	}
+
+	BacktrackingSearch(CellGrid grid, Propagation propagation, ProgressReporter progress) {
+		this.grid = grid;
+		this.rows = grid.rows();
+		this.cols = grid.cols();
+		this.propagation = propagation;
+		this.progress = progress;
+	}
+
+	/**
+	 * Solves the grid in place.
+	 *
+	 * @return SOLVED, TIMED_OUT or CANCELLED
+	 * @throws IllegalStateException if the puzzle has no solution
+	 */
+	Outcome solve() {
+		// open guesses, innermost last: the trail mark before the guess, then the cell guessed filled
+		IntStack guesses = new IntStack();
+
+		while (true) {
+			Outcome outcome;
+			int cell;
+			try {
+				outcome = propagation.propagate();
+				if (outcome != Outcome.STALLED) return outcome;
+				cell = pickBranchCell();
+			} catch (IllegalStateException contradiction) {
+				if (guesses.isEmpty()) throw contradiction;
+
+				// the innermost guess led to a contradiction: undo it, filled was wrong so the cell must be empty.
+				// A guess that never fails stays open, so known() skips it.
+				int guessed = guesses.pop(), mark = guesses.pop();
+				grid.undo(mark);
+				depth = guesses.size() / 2;
+				setAndReschedule(guessed, -1);
+				continue;
+			}
+
+			if (guesses.isEmpty()) certainBeforeGuess = grid.copy();
+			guesses.push(grid.mark());
+			guesses.push(cell);
+			depth = guesses.size() / 2;
+			setAndReschedule(cell, 1);
+		}
+	}
+
+	private void setAndReschedule(int cell, int state) {
+		int row = cell / cols, col = cell % cols;
+		grid.set(row, col, state);
+		propagation.cellGuessed(row, col);
+	}
+
+	/**
+	 * Lets the progress reporter publish the grid if it is due; called by the propagation as it goes.
+	 * Safe to call from propagation threads.
+	 */
+	void reportProgress() {
+		if (depth == 0) progress.offer(grid);
+	}
+
+	// The certain cells: the grid itself, or the grid before the outermost open guess
+	PartialGrid known() {
+		return (depth == 0 ? grid : certainBeforeGuess).toPartialGrid();
+	}
+
+	// Most-constrained line first: the row or column with the fewest (but at least one) unknown cells.
+	// Returns the first unknown cell of that line as row * cols + col.
+	private int pickBranchCell() {
+		int bestUnknowns = Integer.MAX_VALUE, bestCell = -1;
+
+		for (int r = 0; r < rows; r++) {
+			int unknowns = 0, first = -1;
+			for (int c = 0; c < cols; c++) {
+				if (grid.get(r, c) != 0) continue;
+				if (unknowns++ == 0) first = r * cols + c;
+			}
+			if (unknowns > 0 && unknowns < bestUnknowns) {
+				bestUnknowns = unknowns;
+				bestCell = first;
+			}
+		}
+
+		for (int c = 0; c < cols; c++) {
+			int unknowns = 0, first = -1;
+			for (int r = 0; r < rows; r++) {
+				if (grid.get(r, c) != 0) continue;
+				if (unknowns++ == 0) first = r * cols + c;
+			}
+			if (unknowns > 0 && unknowns < bestUnknowns) {
+				bestUnknowns = unknowns;
+				bestCell = first;
+			}
+		}
+
+		if (bestCell < 0) throw new IllegalStateException("Propagation stalled on a complete grid");
+		return bestCell;
+	}
+
+	// growable int stack, so an open guess is two ints rather than an object
+	private static final class IntStack {
+		private int[] values = new int[16];
+		private int size;
+
+		void push(int value) {
+			if (size == values.length) values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+
+		int pop() {
+			return values[--size];
+		}
+
+		int size() {
+			return size;
+		}
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package com.liadkoren.nonogram.solver;
+
+import java.util.Arrays;
+
+// Not thread-safe, but reusable across lines of any length.
+// Deduces the certain cells of a single line in O(lineLength * blocks) instead of
+// enumerating every placement like LineFillIterator does.
+//
+// A line is passed in as two bitmasks (bit i set = cell i is known filled / known empty).
+// The solver runs a DP over (block, cell) in both directions to find, for every cell,
+// whether some valid fill has it filled and whether some valid fill has it empty.
+// Cells that can only be one of the two are added to the masks in place.
+
+public final class BitsetLineSolver {
+
+	// prefixEmpty[j][i]: cells [0, i) hold exactly blocks 0..j-1, and cell i-1 is empty (or i == 0)
+	// suffixEmpty[j][i]: cells [i, n) hold exactly blocks j..k-1, and cell i is empty (or i == n)
+	// both flattened as [j * (n + 1) + i]
+	private boolean[] prefixEmpty = new boolean[0], suffixEmpty = new boolean[0];
+
+	// knownEmptyCount[i]: number of known empty cells in [0, i)
+	private int[] knownEmptyCount = new int[0];
+
+	// difference array used to mark the ranges covered by valid block placements
+	private int[] fillCoverage = new int[0];
+
+	private long[] canFill = new long[0], canEmpty = new long[0];
+
+	public static int wordsFor(int lineLength) {
+		return (lineLength + 63) >>> 6;
+	}
+
+	public static boolean isSet(long[] mask, int i) {
+		return (mask[i >>> 6] & (1L << i)) != 0;
+	}
+
+	public static void set(long[] mask, int i) {
+		mask[i >>> 6] |= 1L << i;
+	}
+
+	/**
+	 * Deduces as many cells as possible for a line, given the cells already known.
+	 *
+	 * @param blockSizes the clue of the line
+	 * @param lineLength number of cells in the line
+	 * @param filled     known filled cells, updated in place with the newly deduced filled cells
+	 * @param empty      known empty cells, updated in place with the newly deduced empty cells
+	 * @return true if every cell of the line is known after deduction
+	 * @throws IllegalStateException if no fill of the line agrees with the known cells
+	 */
+	public boolean solve(int[] blockSizes, int lineLength, long[] filled, long[] empty) {
+		final int n = lineLength, k = blockSizes.length, stride = n + 1;
+		final int words = wordsFor(n);
+		ensureCapacity(n, k);
+
+		for (int i = 0; i < n; i++) {
+			knownEmptyCount[i + 1] = knownEmptyCount[i] + (isSet(empty, i) ? 1 : 0);
+		}
+
+		// forward pass
+		Arrays.fill(prefixEmpty, 0, (k + 1) * stride, false);
+		prefixEmpty[0] = true;
+		for (int i = 1; i <= n; i++) {
+			if (isSet(filled, i - 1)) continue; // cell i-1 cannot be empty
+			for (int j = 0; j <= k; j++) {
+				prefixEmpty[j * stride + i] = prefixEmpty[j * stride + i - 1]
+						|| (j > 0 && blockEndsAt(blockSizes, j - 1, i - 2, stride));
+			}
+		}
+
+		boolean lineIsValid = prefixEmpty[k * stride + n] || (k > 0 && blockEndsAt(blockSizes, k - 1, n - 1, stride));
+		if (!lineIsValid) {
+			throw new IllegalStateException("No valid fills for this line.");
+		}
+
+		// backward pass
+		Arrays.fill(suffixEmpty, 0, (k + 1) * stride, false);
+		suffixEmpty[k * stride + n] = true;
+		for (int i = n - 1; i >= 0; i--) {
+			if (isSet(filled, i)) continue; // cell i cannot be empty
+			for (int j = 0; j <= k; j++) {
+				suffixEmpty[j * stride + i] = suffixEmpty[j * stride + i + 1]
+						|| (j < k && blockStartsAt(blockSizes, j, i + 1, n, stride));
+			}
+		}
+
+		// cells that can be empty
+		Arrays.fill(canEmpty, 0, words, 0L);
+		for (int c = 0; c < n; c++) {
+			for (int j = 0; j <= k; j++) {
+				if (prefixEmpty[j * stride + c + 1] && suffixEmpty[j * stride + c]) {
+					set(canEmpty, c);
+					break;
+				}
+			}
+		}
+
+		// cells that can be filled: union of every valid placement of every block
+		Arrays.fill(fillCoverage, 0, n + 1, 0);
+		for (int j = 0; j < k; j++) {
+			final int size = blockSizes[j];
+			for (int start = 0; start + size <= n; start++) {
+				final int end = start + size; // exclusive
+				if (knownEmptyCount[end] != knownEmptyCount[start]) continue;
+				if (!prefixEmpty[j * stride + start]) continue;
+				if (!suffixEmpty[(j + 1) * stride + end]) continue;
+				fillCoverage[start]++;
+				fillCoverage[end]--;
+			}
+		}
+		Arrays.fill(canFill, 0, words, 0L);
+		int covered = 0;
+		for (int c = 0; c < n; c++) {
+			covered += fillCoverage[c];
+			if (covered > 0) set(canFill, c);
+		}
+
+		// merge into the known masks
+		boolean certain = true;
+		for (int w = 0; w < words; w++) {
+			filled[w] |= canFill[w] & ~canEmpty[w];
+			empty[w] |= canEmpty[w] & ~canFill[w];
+
+			long lineBits = (w == words - 1 && (n & 63) != 0) ? (1L << n) - 1 : -1L;
+			if (((filled[w] | empty[w]) & lineBits) != lineBits) certain = false;
+		}
+		return certain;
+	}
+
+	// block j occupies [end - size + 1, end], preceded by an empty cell (or the line start)
+	private boolean blockEndsAt(int[] blockSizes, int j, int end, int stride) {
+		final int start = end - blockSizes[j] + 1;
+		if (start < 0) return false;
+		if (knownEmptyCount[end + 1] != knownEmptyCount[start]) return false;
+		return prefixEmpty[j * stride + start];
+	}
+
+	// block j occupies [start, start + size - 1], followed by an empty cell (or the line end)
+	private boolean blockStartsAt(int[] blockSizes, int j, int start, int n, int stride) {
+		final int end = start + blockSizes[j]; // exclusive
+		if (end > n) return false;
+		if (knownEmptyCount[end] != knownEmptyCount[start]) return false;
+		return suffixEmpty[(j + 1) * stride + end];
+	}
+
+	private void ensureCapacity(int n, int k) {
+		int table = (n + 1) * (k + 1);
+		if (prefixEmpty.length < table) {
+			prefixEmpty = new boolean[table];
+			suffixEmpty = new boolean[table];
+		}
+		if (knownEmptyCount.length < n + 1) {
+			knownEmptyCount = new int[n + 1];
+			fillCoverage = new int[n + 1];
+		}
+		int words = wordsFor(n);
+		if (canFill.length < words) {
+			canFill = new long[words];
+			canEmpty = new long[words];
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.liadkoren.nonogram.solver;
+
+import com.liadkoren.nonogram.core.model.PartialGrid;
+import com.liadkoren.nonogram.core.model.SolvedGrid;
+
+// Storage of the cell states a solver deduces: 1 = filled, -1 = empty, 0 = unknown.
+// Cells only ever go from unknown to known, except when the search undoes a guess.
+
+interface CellGrid {
+
+	int rows();
+
+	int cols();
+
+	int get(int row, int col);
+
+	/**
+	 * Marks an unknown cell as filled (1) or empty (-1).
+	 *
+	 * @return true if the cell was unknown, false if it already held that state
+	 * @throws IllegalStateException if the cell already holds the other state
+	 */
+	boolean set(int row, int col, int state);
+
+	/**
+	 * Adds the known cells of a row (or column) to the masks, see {@link BitsetLineSolver#solve};
+	 * a grid overrides this when it can read the line faster than cell by cell.
+	 */
+	default void readLine(boolean isRow, int index, long[] filled, long[] empty) {
+		int length = isRow ? cols() : rows();
+		for (int i = 0; i < length; i++) {
+			int state = isRow ? get(index, i) : get(i, index);
+			if (state == 1) BitsetLineSolver.set(filled, i);
+			else if (state == -1) BitsetLineSolver.set(empty, i);
+		}
+	}
+
+	/**
+	 * The cells known right now, for progress reports and the result of a timed out solve;
+	 * a grid overrides this when it can copy its cells faster than cell by cell.
+	 */
+	default PartialGrid toPartialGrid() {
+		int rowWords = SolvedGrid.wordsPerRow(cols());
+		long[] filled = new long[rows() * rowWords], empty = new long[rows() * rowWords];
+		for (int r = 0; r < rows(); r++) {
+			for (int c = 0; c < cols(); c++) {
+				int state = get(r, c);
+				if (state == 1) filled[r * rowWords + (c >>> 6)] |= 1L << c;
+				else if (state == -1) empty[r * rowWords + (c >>> 6)] |= 1L << c;
+			}
+		}
+		return PartialGrid.ofRows(rows(), cols(), filled, empty);
+	}
+
+	/**
+	 * Starts recording the cells set from now on, if not yet, and returns the point to {@link #undo} to;
+	 * the search marks the grid before every guess. Not while cells are being set.
+	 */
+	int mark();
+
+	// Turns every cell set since mark back to unknown. Not while cells are being set.
+	void undo(int mark);
+
+	// Returns an independent copy
+	CellGrid copy();
+
+	// Overwrites every cell with the cells of a snapshot taken from this grid
+	void restore(CellGrid snapshot);
+
+	static IllegalStateException conflict(int row, int col) {
+		return new IllegalStateException("Conflicting deductions for cell (" + row + ", " + col + ")");
+	}
+}
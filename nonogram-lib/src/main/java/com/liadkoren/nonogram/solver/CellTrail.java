@@ -0,0 +1,35 @@
+package com.liadkoren.nonogram.solver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+// Thread-safe to add to; mark and undo only while no cell is being set
+// Undo trail of a CellGrid: the cells set since the search first took a mark, in order, as row * cols + col.
+// Nothing is recorded (or allocated) until then, cells known before the first guess are never undone.
+// A cell is in the trail at most once while it is known, so it never holds more than rows * cols cells.
+
+final class CellTrail {
+	private final int capacity;
+	private int[] cells; // null until the first mark; set between propagations, which start after it
+	private final AtomicInteger size = new AtomicInteger();
+
+	CellTrail(int capacity) {
+		this.capacity = capacity;
+	}
+
+	// Called by the grid for every cell a set() turned known
+	void add(int cell) {
+		if (cells != null) cells[size.getAndIncrement()] = cell;
+	}
+
+	int mark() {
+		if (cells == null) cells = new int[capacity];
+		return size.get();
+	}
+
+	// Hands the cells set since mark to clear, newest first, and forgets them
+	void undo(int mark, IntConsumer clear) {
+		for (int i = size.get() - 1; i >= mark; i--) clear.accept(cells[i]);
+		size.set(mark);
+	}
+}
@@ -0,0 +1,10 @@
+package com.liadkoren.nonogram.solver;
+
+/**
+ * Counts line deductions of a solve.
+ *
+ * @param performed line deductions that actually ran
+ * @param skipped   deductions a round-robin pass over the uncertain lines would have run,
+ *                  but were skipped because no crossing cell changed since the line's last deduction
+ */
+public record DeductionStats(long performed, long skipped) {}
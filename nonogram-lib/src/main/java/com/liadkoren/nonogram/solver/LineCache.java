@@ -0,0 +1,132 @@
+package com.liadkoren.nonogram.solver;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe, bounded cache of line deductions, keyed by the clue, the line length and the known cells.
+ * <p>
+ * A deduction depends on nothing else, so a line state seen before (after a backtrack, in another
+ * branch of the search) is copied from the cache instead of solved again. The cache is direct-mapped:
+ * each key has a single slot and a new entry replaces whatever was there, so lookups never lock and
+ * the cache never grows past its capacity.
+ * <p>
+ * Lines without known cells go to one process-wide tier shared by every cache, since the first
+ * pass of any puzzle with the same clue and length deduces exactly the same cells.
+ */
+public final class LineCache {
+
+	/**
+	 * @param hits   deductions copied from the cache
+	 * @param misses deductions solved and stored
+	 */
+	public record Stats(long hits, long misses) {
+		public double hitRate() {
+			long lookups = hits + misses;
+			return lookups == 0 ? 0 : (double) hits / lookups;
+		}
+	}
+
+	private static final int MAX_CAPACITY = 1 << 20;
+
+	private static final LineCache BLANK_LINES = new LineCache(1 << 14, null);
+
+	// key and result of one deduction; contradiction != null if no fill agreed with the known cells
+	private record Entry(int hash, int[] blockSizes, int lineLength, long[] knownFilled, long[] knownEmpty,
+	                     long[] filled, long[] empty, boolean certain, String contradiction) {
+	}
+
+	private final AtomicReferenceArray<Entry> slots;
+	private final int slotShift;
+	private final LineCache blankLines; // null for the blank tier itself
+
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+	/**
+	 * @param capacity number of slots, rounded up to a power of two
+	 */
+	public LineCache(int capacity) {
+		this(capacity, BLANK_LINES);
+	}
+
+	private LineCache(int capacity, LineCache blankLines) {
+		if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+		int slotCount = Integer.highestOneBit(Math.min(Math.max(capacity, 2), MAX_CAPACITY) * 2 - 1); // at least 2: a shift by 32 is no shift
+		this.slots = new AtomicReferenceArray<>(slotCount);
+		this.slotShift = 32 - Integer.numberOfTrailingZeros(slotCount);
+		this.blankLines = blankLines;
+	}
+
+	/** Sized for a puzzle with {@code lines} rows and columns: a few states per line */
+	public static LineCache forLines(int lines) {
+		return new LineCache(Math.max(16, 8 * lines));
+	}
+
+	/**
+	 * Same contract as {@link BitsetLineSolver#solve}; {@code lineSolver} runs on a miss.
+	 */
+	public boolean solve(BitsetLineSolver lineSolver, int[] blockSizes, int lineLength, long[] filled, long[] empty) {
+		final int words = BitsetLineSolver.wordsFor(lineLength);
+		if (blankLines != null && isBlank(filled, empty, words)) {
+			return blankLines.solve(lineSolver, blockSizes, lineLength, filled, empty);
+		}
+
+		final int hash = hash(blockSizes, lineLength, filled, empty, words);
+		final int slot = (hash * 0x9E3779B9) >>> slotShift; // Fibonacci hashing: the top bits depend on every bit of the hash
+		Entry entry = slots.get(slot);
+		if (entry != null && matches(entry, hash, blockSizes, lineLength, filled, empty, words)) {
+			hits.increment();
+			if (entry.contradiction != null) throw new IllegalStateException(entry.contradiction);
+			System.arraycopy(entry.filled, 0, filled, 0, words);
+			System.arraycopy(entry.empty, 0, empty, 0, words);
+			return entry.certain;
+		}
+
+		misses.increment();
+		int[] key = blockSizes.clone();
+		long[] knownFilled = Arrays.copyOf(filled, words), knownEmpty = Arrays.copyOf(empty, words);
+		try {
+			boolean certain = lineSolver.solve(blockSizes, lineLength, filled, empty);
+			slots.set(slot, new Entry(hash, key, lineLength, knownFilled, knownEmpty,
+					Arrays.copyOf(filled, words), Arrays.copyOf(empty, words), certain, null));
+			return certain;
+		} catch (IllegalStateException e) {
+			slots.set(slot, new Entry(hash, key, lineLength, knownFilled, knownEmpty, null, null, false, e.getMessage()));
+			throw e;
+		}
+	}
+
+	/** This cache only; lines without known cells are counted by {@link #blankLineStats()} */
+	public Stats stats() {
+		return new Stats(hits.sum(), misses.sum());
+	}
+
+	public static Stats blankLineStats() {
+		return BLANK_LINES.stats();
+	}
+
+	private static boolean isBlank(long[] filled, long[] empty, int words) {
+		for (int w = 0; w < words; w++) {
+			if ((filled[w] | empty[w]) != 0) return false;
+		}
+		return true;
+	}
+
+	private static int hash(int[] blockSizes, int lineLength, long[] filled, long[] empty, int words) {
+		int h = Arrays.hashCode(blockSizes) * 31 + lineLength;
+		for (int w = 0; w < words; w++) {
+			h = h * 31 + Long.hashCode(filled[w]);
+			h = h * 31 + Long.hashCode(empty[w]);
+		}
+		return h;
+	}
+
+	private static boolean matches(Entry entry, int hash, int[] blockSizes, int lineLength, long[] filled, long[] empty, int words) {
+		return entry.hash == hash
+				&& entry.lineLength == lineLength
+				&& Arrays.equals(entry.blockSizes, blockSizes)
+				&& Arrays.equals(entry.knownFilled, 0, words, filled, 0, words)
+				&& Arrays.equals(entry.knownEmpty, 0, words, empty, 0, words);
+	}
+}
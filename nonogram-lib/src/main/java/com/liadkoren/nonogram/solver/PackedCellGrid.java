@@ -0,0 +1,127 @@
+package com.liadkoren.nonogram.solver;
+
+import com.liadkoren.nonogram.core.model.PartialGrid;
+import com.liadkoren.nonogram.core.model.SolvedGrid;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// CellGrid packed into bit planes, known filled and known empty, in the same masks BitsetLineSolver
+// works on. The planes are kept twice, row-major and column-major, so reading any line is a copy of
+// whole words: 4 bits per cell, twice a single 2-bit layout, traded for contiguous column reads.
+// Every line starts on a new long. Writes go to both layouts: every deduction reads a whole line,
+// but a cell is only written once per branch.
+// Concurrent set() calls need a single writer per cell, as ParallelSolver's phases give (a cell is only
+// set by its row in a row phase, by its column in a column phase): two lines setting a cell at once would
+// go unnoticed if they disagreed. Bits are set with an atomic OR, because lines deduced at the same time
+// share the words of the crossing axis. mark, undo, copy and restore are for one thread with no set() running.
+
+final class PackedCellGrid implements CellGrid {
+	private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private final int rows, cols;
+	private final int rowWords, colWords;
+
+	// row r is words [r * rowWords, (r + 1) * rowWords); column c is words [c * colWords, (c + 1) * colWords)
+	private final long[] rowFilled, rowEmpty, colFilled, colEmpty;
+
+	private final CellTrail trail;
+
+	PackedCellGrid(int rows, int cols) {
+		this.rows = rows;
+		this.cols = cols;
+		this.rowWords = BitsetLineSolver.wordsFor(cols);
+		this.colWords = BitsetLineSolver.wordsFor(rows);
+		this.rowFilled = new long[rows * rowWords];
+		this.rowEmpty = new long[rows * rowWords];
+		this.colFilled = new long[cols * colWords];
+		this.colEmpty = new long[cols * colWords];
+		this.trail = new CellTrail(rows * cols);
+	}
+
+	@Override
+	public int rows() {
+		return rows;
+	}
+
+	@Override
+	public int cols() {
+		return cols;
+	}
+
+	@Override
+	public int get(int row, int col) {
+		int word = row * rowWords + (col >>> 6);
+		long bit = 1L << col;
+		if ((rowFilled[word] & bit) != 0) return 1;
+		if ((rowEmpty[word] & bit) != 0) return -1;
+		return 0;
+	}
+
+	@Override
+	public boolean set(int row, int col, int state) {
+		int existing = get(row, col);
+		if (existing == state) return false;
+		if (existing != 0) throw CellGrid.conflict(row, col);
+
+		long[] byRow = state == 1 ? rowFilled : rowEmpty, byCol = state == 1 ? colFilled : colEmpty;
+		long before = (long) WORDS.getAndBitwiseOr(byRow, row * rowWords + (col >>> 6), 1L << col);
+		WORDS.getAndBitwiseOr(byCol, col * colWords + (row >>> 6), 1L << row);
+		if ((before & (1L << col)) == 0) trail.add(row * cols + col); // once, if two lines set the cell at the same time
+		return true;
+	}
+
+	@Override
+	public int mark() {
+		return trail.mark();
+	}
+
+	@Override
+	public void undo(int mark) {
+		trail.undo(mark, cell -> {
+			int row = cell / cols, col = cell % cols;
+			long rowMask = ~(1L << col), colMask = ~(1L << row);
+			rowFilled[row * rowWords + (col >>> 6)] &= rowMask;
+			rowEmpty[row * rowWords + (col >>> 6)] &= rowMask;
+			colFilled[col * colWords + (row >>> 6)] &= colMask;
+			colEmpty[col * colWords + (row >>> 6)] &= colMask;
+		});
+	}
+
+	@Override
+	public void readLine(boolean isRow, int index, long[] filled, long[] empty) {
+		long[] filledPlane = isRow ? rowFilled : colFilled, emptyPlane = isRow ? rowEmpty : colEmpty;
+		int words = isRow ? rowWords : colWords, from = index * words;
+		for (int w = 0; w < words; w++) {
+			filled[w] |= filledPlane[from + w];
+			empty[w] |= emptyPlane[from + w];
+		}
+	}
+
+	// The row-major planes as they are: the same layout, so a snapshot is two array copies
+	@Override
+	public PartialGrid toPartialGrid() {
+		return PartialGrid.ofRows(rows, cols, rowFilled, rowEmpty);
+	}
+
+	// The filled plane as is; only meaningful once every cell is known
+	SolvedGrid toSolvedGrid() {
+		return SolvedGrid.ofRows(rows, cols, rowFilled);
+	}
+
+	@Override
+	public CellGrid copy() {
+		PackedCellGrid copy = new PackedCellGrid(rows, cols);
+		copy.restore(this);
+		return copy;
+	}
+
+	@Override
+	public void restore(CellGrid snapshot) {
+		PackedCellGrid source = (PackedCellGrid) snapshot;
+		System.arraycopy(source.rowFilled, 0, rowFilled, 0, rowFilled.length);
+		System.arraycopy(source.rowEmpty, 0, rowEmpty, 0, rowEmpty.length);
+		System.arraycopy(source.colFilled, 0, colFilled, 0, colFilled.length);
+		System.arraycopy(source.colEmpty, 0, colEmpty, 0, colEmpty.length);
+	}
+}
@@ -2,100 +2,260 @@ package com.liadkoren.nonogram.solver;
 
 import com.liadkoren.nonogram.core.model.Puzzle;
 import com.liadkoren.nonogram.core.model.SolveResult;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
+import com.liadkoren.nonogram.core.ports.ProgressListener;
 import com.liadkoren.nonogram.core.ports.Solver;
-import com.liadkoren.nonogram.solver.LineFillIterator.DeductionResult;
 
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A stateful solver instance that uses multiple threads to deduce lines in parallel.
+ * Rows and columns are deduced in alternating phases; each phase is split into chunks
+ * that run on a {@link ForkJoinPool}, so pass a dedicated pool to keep solver threads
+ * away from the common pool.
+ * Falls back to {@link BacktrackingSearch} when the phases stop making progress.
  * Not thread-safe: one instance may only be used for a single solve at a time.
  * For multiple concurrent solves, create separate instances.
  */
 public final class ParallelSolver implements Solver {
 
-	private final int[][] grid;
+	// one line solver scratch per worker thread, reused across phases and solves
+	private static final ThreadLocal<BitsetLineSolver> WORKER_LINE_SOLVER = ThreadLocal.withInitial(BitsetLineSolver::new);
+
+	// chunks per worker thread, so a slow line doesn't leave the other workers idle
+	private static final int CHUNKS_PER_WORKER = 4;
+
+	private final PackedCellGrid cellGrid;
 	int rows, cols;
 
-	private final ConcurrentLinkedDeque<LineFillIterator> lineIterators;
+	private final ForkJoinPool pool;
+
+	// only hold dirty lines: lines with a cell that changed since their last deduction
+	private final ConcurrentLinkedQueue<GridLine> dirtyRows = new ConcurrentLinkedQueue<>(), dirtyCols = new ConcurrentLinkedQueue<>();
+	private final GridLine[] rowLines, colLines;
+	private final GridLine[] phaseLines;
+
+	private final AtomicInteger uncertainRows = new AtomicInteger(), uncertainCols = new AtomicInteger();
+	private final LongAdder performedDeductions = new LongAdder();
+	private long skippedDeductions;
+
+	// first exception thrown by a line in the current phase (IllegalStateException = contradiction)
+	private final AtomicReference<RuntimeException> phaseFailure = new AtomicReference<>();
 
 	private Duration budget;
 	private long solveStartTime, solveDeadline;
 
+	private ProgressReporter progress = ProgressReporter.NONE;
+	private CancellationToken cancellation = new CancellationToken();
+	private LineCache lineCache;
+	private BacktrackingSearch search;
 
 	public static SolveResult solve(Puzzle puzzle, Duration budget) {
 		return new ParallelSolver(puzzle, budget).get();
 	}
 
 	public ParallelSolver(Puzzle puzzle, Duration budget) {
+		this(puzzle, budget, ForkJoinPool.commonPool());
+	}
+
+	public ParallelSolver(Puzzle puzzle, Duration budget, ForkJoinPool pool) {
+		if (pool == null) throw new IllegalArgumentException("pool cannot be null");
 
 		this.rows = puzzle.rows().size();
 		this.cols = puzzle.cols().size();
-		this.grid = new int[rows][cols];
-
-		this.lineIterators = new ConcurrentLinkedDeque<>();
-		LineFillIterator.populateWithLineIterators(puzzle, grid, lineIterators);
+		this.cellGrid = new PackedCellGrid(rows, cols);
+		this.pool = pool;
+
+		ArrayDeque<GridLine> lines = new ArrayDeque<>(rows + cols);
+		GridLine.populateWithLines(puzzle, cellGrid, lines);
+		GridLine[] allLines = lines.toArray(new GridLine[0]);
+		this.rowLines = Arrays.copyOfRange(allLines, 0, rows);
+		this.colLines = Arrays.copyOfRange(allLines, rows, rows + cols);
+		this.phaseLines = new GridLine[Math.max(rows, cols)];
+
+		dirtyRows.addAll(Arrays.asList(rowLines));
+		dirtyCols.addAll(Arrays.asList(colLines));
+		this.uncertainRows.set(rows);
+		this.uncertainCols.set(cols);
+		this.lineCache = LineCache.forLines(allLines.length);
 
 		this.budget = budget;
 	}
 
 
+	/**
+	 * Publishes the deduced cells to {@code listener} at most once per {@code interval} while solving,
+	 * between phases.
+	 */
+	public ParallelSolver withProgress(ProgressListener listener, Duration interval) {
+		this.progress = new ProgressReporter(listener, interval);
+		return this;
+	}
+
+	/**
+	 * Stops the solve, with a CANCELLED result, once {@code cancellation} is cancelled.
+	 * Chunks already running on the pool stop after the line they are deducing.
+	 */
+	public ParallelSolver withCancellation(CancellationToken cancellation) {
+		if (cancellation == null) throw new IllegalArgumentException("cancellation cannot be null");
+		this.cancellation = cancellation;
+		return this;
+	}
+
+	/**
+	 * Looks line deductions up in {@code cache}, e.g. one shared with other solves, instead of a cache of its own.
+	 */
+	public ParallelSolver withLineCache(LineCache cache) {
+		if (cache == null) throw new IllegalArgumentException("cache cannot be null");
+		this.lineCache = cache;
+		return this;
+	}
+
 	public SolveResult get() {
 		this.solveStartTime = System.nanoTime();
 		this.solveDeadline = solveStartTime + budget.toNanos();
 
-		boolean deducingRows = true;
+		try {
+			search = new BacktrackingSearch(cellGrid, new PhasePropagation(), progress);
+			BacktrackingSearch.Outcome outcome = search.solve();
+
+			if (outcome == BacktrackingSearch.Outcome.SOLVED) return SolveResult.success(cellGrid.toSolvedGrid(), elapsedSinceStart()); // solved
+			if (outcome == BacktrackingSearch.Outcome.CANCELLED) return SolveResult.cancelled(elapsedSinceStart());
+			return SolveResult.timeout(search.known(), elapsedSinceStart()); // budget exceeded
+		} catch (IllegalStateException ise) {
+			return SolveResult.unsolvable("Puzzle is unsolvable: " + ise.getMessage(), elapsedSinceStart());
+		} catch (RuntimeException e) {
+			return SolveResult.error("Execution error: " + e, elapsedSinceStart());
+		}
+	}
 
-		while (withinTimeBudget() && !lineIterators.isEmpty()) {
+	public DeductionStats stats() {
+		return new DeductionStats(performedDeductions.sum(), skippedDeductions);
+	}
 
-			List<CompletableFuture<Void>> futures = deduceAllLines(deducingRows);
+	public LineCache.Stats lineCacheStats() {
+		return lineCache.stats();
+	}
+
+	// Alternating row/column phases over the dirty lines until no line is dirty
+	private final class PhasePropagation implements BacktrackingSearch.Propagation {
+		@Override
+		public BacktrackingSearch.Outcome propagate() {
+			boolean deducingRows = true;
 
-			try {
-				CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-			} catch (CompletionException e) {
-				if (e.getCause() instanceof IllegalStateException ise)
-					return SolveResult.unsolvable("Puzzle is unsolvable: " + ise.getMessage(), elapsedSinceStart());
+			while (!dirtyRows.isEmpty() || !dirtyCols.isEmpty()) {
+				if (cancellation.isCancelled()) return BacktrackingSearch.Outcome.CANCELLED;
+				if (!withinTimeBudget()) return BacktrackingSearch.Outcome.TIMED_OUT;
+				search.reportProgress();
 
-				return SolveResult.error("Execution error: " + e.getCause(), elapsedSinceStart());
+				deducePhase(deducingRows); // throws IllegalStateException on contradiction
+				deducingRows = !deducingRows; // switch rows/cols for next iteration
 			}
+			// a cancelled phase drops the lines it didn't get to, so the queues being empty proves nothing
+			if (cancellation.isCancelled()) return BacktrackingSearch.Outcome.CANCELLED;
 
-			deducingRows = !deducingRows; // switch rows/cols for next iteration
+			boolean solved = uncertainRows.get() == 0 && uncertainCols.get() == 0;
+			return solved ? BacktrackingSearch.Outcome.SOLVED : BacktrackingSearch.Outcome.STALLED;
 		}
 
+		@Override
+		public void cellGuessed(int row, int col) {
+			// the queues may belong to an abandoned branch; the grid itself was at a fixpoint before the guess
+			dirtyRows.clear();
+			dirtyCols.clear();
+			for (GridLine line : rowLines) line.markClean();
+			for (GridLine line : colLines) line.markClean();
 
-		if (lineIterators.isEmpty()) return SolveResult.success(grid, elapsedSinceStart()); // solved
-		return SolveResult.timeout(elapsedSinceStart()); // budget exceeded
+			schedule(rowLines[row]);
+			schedule(colLines[col]);
+
+			uncertainRows.set(countUncertain(rowLines));
+			uncertainCols.set(countUncertain(colLines));
+		}
 
+		// a line stays uncertain until a deduction reports it certain, even if the guess completed it
+		private static int countUncertain(GridLine[] axis) {
+			int uncertain = 0;
+			for (GridLine line : axis) {
+				if (line.isDirty() || !line.isComplete()) uncertain++;
+			}
+			return uncertain;
+		}
 	}
 
+	private void deducePhase(boolean deducingRows) {
+		ConcurrentLinkedQueue<GridLine> dirty = deducingRows ? dirtyRows : dirtyCols;
+		int uncertainOnAxis = (deducingRows ? uncertainRows : uncertainCols).get();
+
+		// only this axis is drained; deductions below schedule lines of the other axis
+		int count = 0;
+		for (GridLine line; (line = dirty.poll()) != null; ) {
+			line.markClean();
+			phaseLines[count++] = line;
+		}
+		if (count == 0) return;
+
+		// a round-robin phase would deduce every uncertain line of this axis, we only deduce the dirty ones
+		skippedDeductions += uncertainOnAxis - count;
 
+		int chunkSize = Math.max(1, count / (pool.getParallelism() * CHUNKS_PER_WORKER));
+		pool.invoke(new DeduceChunk(0, count, chunkSize));
 
-	private List<CompletableFuture<Void>> deduceAllLines(boolean deducingRows) {
-		List<CompletableFuture<Void>> futures = new ArrayList<>(lineIterators.size());
+		// rethrown only once every chunk finished, so no worker writes to the grid after the search restores it
+		RuntimeException failure = phaseFailure.getAndSet(null);
+		if (failure != null) throw failure;
+	}
 
-		int n = lineIterators.size();
-		for (int i = 0; i < n; i++) {
-			var currentLine = lineIterators.removeFirst();
+	// Deduces phaseLines[from, to), splitting until a chunk is small enough to run on one worker
+	private final class DeduceChunk extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
 
-			if (deducingRows == currentLine.getIsRow())
-				futures.add(CompletableFuture.supplyAsync(currentLine::parallelDeduce).thenAccept(this::enqueueIfUncertain));
-			else
-				lineIterators.addLast(currentLine); // re-add
+		private final int from, to, chunkSize;
 
+		DeduceChunk(int from, int to, int chunkSize) {
+			this.from = from;
+			this.to = to;
+			this.chunkSize = chunkSize;
 		}
 
-		return futures;
+		@Override
+		protected void compute() {
+			if (to - from <= chunkSize) {
+				BitsetLineSolver lineSolver = WORKER_LINE_SOLVER.get();
+				for (int i = from; i < to && phaseFailure.get() == null && !cancellation.isCancelled(); i++) {
+					try {
+						deduceLine(phaseLines[i], lineSolver);
+					} catch (RuntimeException e) {
+						phaseFailure.compareAndSet(null, e);
+					}
+				}
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			invokeAll(new DeduceChunk(from, mid, chunkSize), new DeduceChunk(mid, to, chunkSize));
+		}
 	}
 
-	private void enqueueIfUncertain(DeductionResult result) {
-		if (!result.certain()) {
-			lineIterators.addLast(result.lineIterator());
+	private void deduceLine(GridLine line, BitsetLineSolver lineSolver) {
+		boolean certain = line.deduce(lineSolver, lineCache);
+		performedDeductions.increment();
+		if (certain) (line.getIsRow() ? uncertainRows : uncertainCols).decrementAndGet();
+
+		for (int i = line.nextChangedCell(0); i >= 0; i = line.nextChangedCell(i + 1)) {
+			schedule(line.getIsRow() ? colLines[i] : rowLines[i]);
 		}
 	}
 
+	private void schedule(GridLine line) {
+		if (line.markDirty()) (line.getIsRow() ? dirtyRows : dirtyCols).add(line);
+	}
+
 	private boolean withinTimeBudget() {
 		return System.nanoTime() < solveDeadline;
 	}
@@ -103,4 +263,4 @@ public final class ParallelSolver implements Solver {
 	private Duration elapsedSinceStart() {
 		return Duration.ofNanos(System.nanoTime() - solveStartTime);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package com.liadkoren.nonogram.solver;
+
+import com.liadkoren.nonogram.core.ports.ProgressListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Thread-safe
+// Hands snapshots of a grid to a ProgressListener at most once per interval.
+// Any solver thread may offer a snapshot; the one that claims the interval publishes it.
+
+final class ProgressReporter {
+	static final ProgressReporter NONE = new ProgressReporter(null, Duration.ZERO);
+
+	private final ProgressListener listener;
+	private final long intervalNanos;
+	private final AtomicLong nextAt;
+
+	ProgressReporter(ProgressListener listener, Duration interval) {
+		if (interval == null || interval.isNegative()) throw new IllegalArgumentException("interval must be >= 0");
+		this.listener = listener;
+		this.intervalNanos = interval.toNanos();
+		this.nextAt = new AtomicLong(System.nanoTime() + intervalNanos);
+	}
+
+	void offer(CellGrid grid) {
+		if (listener == null) return;
+
+		long now = System.nanoTime(), next = nextAt.get();
+		if (now - next < 0 || !nextAt.compareAndSet(next, now + intervalNanos)) return;
+		listener.onProgress(grid.toPartialGrid());
+	}
+}
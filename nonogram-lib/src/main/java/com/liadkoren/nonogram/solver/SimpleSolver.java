@@ -2,37 +2,83 @@ package com.liadkoren.nonogram.solver;
 
 import com.liadkoren.nonogram.core.model.Puzzle;
 import com.liadkoren.nonogram.core.model.SolveResult;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
+import com.liadkoren.nonogram.core.ports.ProgressListener;
 import com.liadkoren.nonogram.core.ports.Solver;
 
 import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.Arrays;
 
 
 /**
  * A stateful solver instance.
+ * Deduces lines whose crossing cells changed until nothing changes, then falls back to {@link BacktrackingSearch}.
  * Not thread-safe: one instance may only be used for a single solve at a time.
  * For multiple concurrent solves, create separate instances.
  */
 public final class SimpleSolver implements Solver {
-	private int[][] grid;
+	private final PackedCellGrid cellGrid;
 	int rows, cols;
 
-	private ArrayDeque<LineFillIterator> linesDeque;
+	// only holds dirty lines: lines with a cell that changed since their last deduction
+	private ArrayDeque<GridLine> linesDeque;
+	private final GridLine[] rowLines, colLines;
+	private final BitsetLineSolver lineSolver = new BitsetLineSolver();
+	private LineCache lineCache;
+
+	private int uncertainLines;
+	private long performedDeductions, skippedDeductions;
+
+	private ProgressReporter progress = ProgressReporter.NONE;
+	private CancellationToken cancellation = new CancellationToken();
+	private BacktrackingSearch search;
 
 	long startTime, deadline;
 
 	public SimpleSolver(Puzzle puzzle, Duration budget) {
 		this.rows = puzzle.rows().size();
 		this.cols = puzzle.cols().size();
-		this.grid = new int[rows][cols];
+		this.cellGrid = new PackedCellGrid(rows, cols);
 
 		linesDeque = new ArrayDeque<>(rows + cols);
-		LineFillIterator.populateWithLineIterators(puzzle, grid, linesDeque);
+		GridLine.populateWithLines(puzzle, cellGrid, linesDeque);
+		GridLine[] allLines = linesDeque.toArray(new GridLine[0]);
+		rowLines = Arrays.copyOfRange(allLines, 0, rows);
+		colLines = Arrays.copyOfRange(allLines, rows, rows + cols);
+		uncertainLines = allLines.length;
+		lineCache = LineCache.forLines(allLines.length);
 
 		startTime = System.nanoTime();
 		deadline = startTime + budget.toNanos();
 	}
 
+	/**
+	 * Publishes the deduced cells to {@code listener} at most once per {@code interval} while solving.
+	 */
+	public SimpleSolver withProgress(ProgressListener listener, Duration interval) {
+		this.progress = new ProgressReporter(listener, interval);
+		return this;
+	}
+
+	/**
+	 * Stops the solve, with a CANCELLED result, once {@code cancellation} is cancelled.
+	 */
+	public SimpleSolver withCancellation(CancellationToken cancellation) {
+		if (cancellation == null) throw new IllegalArgumentException("cancellation cannot be null");
+		this.cancellation = cancellation;
+		return this;
+	}
+
+	/**
+	 * Looks line deductions up in {@code cache}, e.g. one shared with other solves, instead of a cache of its own.
+	 */
+	public SimpleSolver withLineCache(LineCache cache) {
+		if (cache == null) throw new IllegalArgumentException("cache cannot be null");
+		this.lineCache = cache;
+		return this;
+	}
+
 	public SolveResult get() {
 		try {
 			return trySolve();
@@ -44,22 +90,82 @@ public final class SimpleSolver implements Solver {
 	}
 
 	public SolveResult trySolve() throws IllegalStateException {
+		search = new BacktrackingSearch(cellGrid, new DirtyLinePropagation(), progress);
+		BacktrackingSearch.Outcome outcome = search.solve();
 
-		while (withinTimeBudget() && !linesDeque.isEmpty()) {
-			LineFillIterator lineIt = linesDeque.removeFirst();
+		if (outcome == BacktrackingSearch.Outcome.SOLVED)
+			return SolveResult.success(cellGrid.toSolvedGrid(), elapsedSinceStart());
+		if (outcome == BacktrackingSearch.Outcome.CANCELLED)
+			return SolveResult.cancelled(elapsedSinceStart());
 
-			boolean certain = lineIt.deduce();
+		return SolveResult.timeout(search.known(), elapsedSinceStart()); // budget exceeded
+	}
 
-			if (!certain) {
-				linesDeque.addLast(lineIt);
+	public DeductionStats stats() {
+		return new DeductionStats(performedDeductions, skippedDeductions);
+	}
+
+	public LineCache.Stats lineCacheStats() {
+		return lineCache.stats();
+	}
+
+	// Deduces dirty lines until none are left; a changed cell schedules the line crossing it
+	private final class DirtyLinePropagation implements BacktrackingSearch.Propagation {
+		private int leftInRound = 0;
+
+		@Override
+		public BacktrackingSearch.Outcome propagate() {
+			while (!linesDeque.isEmpty()) {
+				if (cancellation.isCancelled()) return BacktrackingSearch.Outcome.CANCELLED;
+				if (!withinTimeBudget()) return BacktrackingSearch.Outcome.TIMED_OUT;
+				search.reportProgress();
+
+				if (leftInRound == 0) {
+					// a round-robin pass would deduce every uncertain line, we only deduce the dirty ones
+					skippedDeductions += uncertainLines - linesDeque.size();
+					leftInRound = linesDeque.size();
+				}
+				leftInRound--;
+
+				GridLine line = linesDeque.removeFirst();
+				line.markClean();
+
+				boolean certain = line.deduce(lineSolver, lineCache);
+				performedDeductions++;
+				if (certain) uncertainLines--;
+
+				for (int i = line.nextChangedCell(0); i >= 0; i = line.nextChangedCell(i + 1)) {
+					schedule(line.getIsRow() ? colLines[i] : rowLines[i]);
+				}
 			}
 
+			return uncertainLines == 0 ? BacktrackingSearch.Outcome.SOLVED : BacktrackingSearch.Outcome.STALLED;
 		}
 
-		if (linesDeque.isEmpty()) // solved
-			return SolveResult.success(grid, elapsedSinceStart());
+		@Override
+		public void cellGuessed(int row, int col) {
+			// the deque may belong to an abandoned branch; the grid itself was at a fixpoint before the guess
+			linesDeque.clear();
+			leftInRound = 0;
+			for (GridLine line : rowLines) line.markClean();
+			for (GridLine line : colLines) line.markClean();
+
+			schedule(rowLines[row]);
+			schedule(colLines[col]);
+
+			// a line stays uncertain until a deduction reports it certain, even if the guess completed it
+			uncertainLines = 0;
+			for (GridLine line : rowLines) {
+				if (line.isDirty() || !line.isComplete()) uncertainLines++;
+			}
+			for (GridLine line : colLines) {
+				if (line.isDirty() || !line.isComplete()) uncertainLines++;
+			}
+		}
 
-		return SolveResult.timeout(elapsedSinceStart()); // budget exceeded
+		private void schedule(GridLine line) {
+			if (line.markDirty()) linesDeque.addLast(line);
+		}
 	}
 
 	private boolean withinTimeBudget() {
@@ -0,0 +1,69 @@
+package com.liadkoren.nonogram.core.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleTest {
+
+	private static Puzzle puzzle() {
+		return new Puzzle(
+				List.of(new int[]{1, 1}, new int[]{}, new int[]{3}),
+				List.of(new int[]{1}, new int[]{2}, new int[]{1, 1}));
+	}
+
+	@Test
+	void puzzlesWithTheSameCluesAreEqual() {
+		Set<Puzzle> seen = new HashSet<>();
+		assertTrue(seen.add(puzzle()));
+		assertFalse(seen.add(puzzle()));
+
+		assertNotEquals(puzzle(), new Puzzle(puzzle().cols(), puzzle().rows()));
+		// same blocks, split into lines differently
+		assertNotEquals(new Puzzle(List.of(new int[]{1}, new int[]{2}), List.of()),
+				new Puzzle(List.of(new int[]{1, 2}, new int[]{}), List.of()));
+	}
+
+	@Test
+	void linesReadThePackedClues() {
+		Clues.Lines rows = puzzle().clues().rows();
+
+		assertEquals(3, rows.size());
+		assertArrayEquals(new int[]{1, 1}, rows.get(0));
+		assertArrayEquals(new int[]{}, rows.get(1));
+		assertEquals(1, rows.blockCount(2));
+		assertEquals(3, rows.block(2, 0));
+		assertEquals(2, rows.sum(0));
+		assertEquals(3, rows.minLength(0));
+		assertEquals(0, rows.minLength(1));
+		assertThrows(IndexOutOfBoundsException.class, () -> rows.block(1, 0));
+	}
+
+	@Test
+	void cluesAreCopiedIn() {
+		int[] clue = {2};
+		List<int[]> rows = new ArrayList<>(List.of(clue));
+		Puzzle puzzle = new Puzzle(rows, List.of(new int[]{1}, new int[]{1}));
+
+		clue[0] = 5;
+		rows.add(new int[]{1});
+		puzzle.rows().get(0)[0] = 7;
+
+		assertEquals(1, puzzle.rows().size());
+		assertArrayEquals(new int[]{2}, puzzle.rows().get(0));
+	}
+
+	@Test
+	void packedCluesAreNotPackedAgain() {
+		Puzzle puzzle = puzzle();
+		Puzzle transposed = new Puzzle(puzzle.cols(), puzzle.rows());
+
+		assertSame(puzzle.clues(), new Puzzle(puzzle.rows(), puzzle.cols()).clues());
+		assertEquals(puzzle, new Puzzle(transposed.cols(), transposed.rows()));
+	}
+}
@@ -3,6 +3,8 @@ package com.liadkoren.nonogram.scraper;
 import com.liadkoren.nonogram.core.model.Puzzle;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -42,4 +44,23 @@ public class OnlineNonogramScraperTest {
 
 
 	}
+
+	@Test
+	void parseStream_matchesParseDocument() throws IOException {
+		OnlineNonogramScraper scraper = new OnlineNonogramScraper();
+
+		String html;
+		try (InputStream is = OnlineNonogramScraperTest.class.getResourceAsStream("online-nonogram.html")) {
+			assertNotNull(is, "Test resource file not found!");
+			html = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+		}
+
+		Puzzle fromDocument = scraper.parseDocument(Jsoup.parse(html));
+		Puzzle fromStream = scraper.parseStream(new StreamParser(Parser.htmlParser()).parse(html, ""));
+
+		assertEquals(fromDocument.rows().size(), fromStream.rows().size());
+		assertEquals(fromDocument.cols().size(), fromStream.cols().size());
+		for (int i = 0; i < fromDocument.rows().size(); i++) assertArrayEquals(fromDocument.rows().get(i), fromStream.rows().get(i));
+		for (int i = 0; i < fromDocument.cols().size(); i++) assertArrayEquals(fromDocument.cols().get(i), fromStream.cols().get(i));
+	}
 }
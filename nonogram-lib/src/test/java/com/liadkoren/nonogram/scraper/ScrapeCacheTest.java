@@ -0,0 +1,165 @@
+package com.liadkoren.nonogram.scraper;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScrapeCacheTest {
+
+	private static final String ETAG = "\"v1\"";
+
+	private HttpServer server;
+	private byte[] page;
+	private final AtomicInteger fullResponses = new AtomicInteger(), notModifiedResponses = new AtomicInteger();
+	private volatile long responseDelayMs;
+
+	private final ExecutorService es = Executors.newCachedThreadPool();
+
+	@BeforeEach
+	void startServer() throws IOException {
+		try (InputStream is = ScrapeCacheTest.class.getResourceAsStream("japanese-nonogram.html")) {
+			assertNotNull(is, "Test resource file not found!");
+			page = is.readAllBytes();
+		}
+
+		// stub of a puzzle site: serves the same page under any path, honours If-None-Match
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/", this::handle);
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop(0);
+		es.shutdownNow();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			Thread.sleep(responseDelayMs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+			notModifiedResponses.incrementAndGet();
+			exchange.sendResponseHeaders(304, -1);
+			exchange.close();
+			return;
+		}
+
+		fullResponses.incrementAndGet();
+		exchange.getResponseHeaders().add("ETag", ETAG);
+		exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+		exchange.sendResponseHeaders(200, page.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(page);
+		}
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+	}
+
+	// the japanese scraper, pointed at the stub server
+	private static AbstractNonogramScraper scraper(ScrapeCache cache) {
+		return new JapaneseNonogramScraper(cache) {
+			@Override
+			public String getAcceptedDomain() {
+				return "localhost";
+			}
+		};
+	}
+
+	@Test
+	void servesRepeatedScrapeFromCache() {
+		ScrapeCache cache = new ScrapeCache(Duration.ofMinutes(10), 10);
+		AbstractNonogramScraper scraper = scraper(cache);
+
+		Puzzle first = scraper.apply(uri("/puzzle/1"));
+		Puzzle second = scraper.apply(uri("/puzzle/1"));
+
+		assertSame(first, second);
+		assertArrayEquals(new int[]{3, 7}, second.rows().get(0));
+		assertEquals(1, fullResponses.get());
+		assertEquals(1, cache.stats().hits());
+	}
+
+	@Test
+	void revalidatesExpiredEntryWithEtag() {
+		ScrapeCache cache = new ScrapeCache(Duration.ZERO, 10);
+		AbstractNonogramScraper scraper = scraper(cache);
+
+		Puzzle first = scraper.apply(uri("/puzzle/1"));
+		Puzzle second = scraper.apply(uri("/puzzle/1"));
+
+		assertSame(first, second, "304 Not Modified keeps the cached puzzle");
+		assertEquals(1, fullResponses.get());
+		assertEquals(1, notModifiedResponses.get());
+		assertEquals(1, cache.stats().revalidations());
+	}
+
+	@Test
+	void concurrentScrapesOfSameUriShareOneFetch() throws Exception {
+		ScrapeCache cache = new ScrapeCache(Duration.ofMinutes(10), 10);
+		AbstractNonogramScraper scraper = scraper(cache);
+		responseDelayMs = 300;
+
+		List<Future<Puzzle>> results = new ArrayList<>();
+		for (int i = 0; i < 4; i++) results.add(es.submit(() -> scraper.apply(uri("/puzzle/1"))));
+
+		for (Future<Puzzle> result : results) {
+			assertArrayEquals(new int[]{7, 4}, result.get(5, TimeUnit.SECONDS).cols().get(0));
+		}
+		assertEquals(1, fullResponses.get());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedBeyondMaxEntries() {
+		ScrapeCache cache = new ScrapeCache(Duration.ofMinutes(10), 1);
+		AbstractNonogramScraper scraper = scraper(cache);
+
+		scraper.apply(uri("/puzzle/1"));
+		scraper.apply(uri("/puzzle/2"));
+		scraper.apply(uri("/puzzle/1"));
+
+		assertEquals(3, fullResponses.get());
+		assertEquals(2, cache.stats().evictions());
+	}
+
+	@Test
+	void failedFetchIsNotCached() {
+		ScrapeCache cache = new ScrapeCache(Duration.ofMinutes(10), 10);
+		AbstractNonogramScraper scraper = scraper(cache);
+		URI uri = uri("/puzzle/1");
+		server.stop(0);
+
+		assertThrows(RuntimeException.class, () -> scraper.apply(uri));
+		assertEquals(0, cache.stats().fetches());
+	}
+
+	@Test
+	void normalizesEquivalentUris() {
+		assertEquals(URI.create("http://example.com/a/puzzle"),
+				ScrapeCache.normalize(URI.create("HTTP://Example.COM:80/a/b/../puzzle#clues")));
+		assertEquals(URI.create("https://example.com/?id=3"),
+				ScrapeCache.normalize(URI.create("https://example.com:443?id=3")));
+	}
+}
@@ -0,0 +1,79 @@
+package com.liadkoren.nonogram.scraper;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import org.jsoup.Jsoup;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks clue extraction from the saved scraper test pages: full jsoup DOM vs StreamParser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+public class ScraperBenchmark {
+
+	private final JapaneseNonogramScraper japaneseScraper = new JapaneseNonogramScraper();
+	private final OnlineNonogramScraper onlineScraper = new OnlineNonogramScraper();
+	private String japanesePage, onlinePage;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		japanesePage = fixture("japanese-nonogram.html");
+		onlinePage = fixture("online-nonogram.html");
+	}
+
+	@Benchmark
+	public Puzzle japaneseDom() {
+		return japaneseScraper.parseDocument(Jsoup.parse(japanesePage));
+	}
+
+	@Benchmark
+	public Puzzle japaneseStream() throws IOException {
+		return japaneseScraper.parseStream(new StreamParser(Parser.htmlParser()).parse(japanesePage, ""));
+	}
+
+	@Benchmark
+	public Puzzle onlineDom() {
+		return onlineScraper.parseDocument(Jsoup.parse(onlinePage));
+	}
+
+	@Benchmark
+	public Puzzle onlineStream() throws IOException {
+		return onlineScraper.parseStream(new StreamParser(Parser.htmlParser()).parse(onlinePage, ""));
+	}
+
+	private static String fixture(String name) {
+		try (InputStream is = ScraperBenchmark.class.getResourceAsStream(name)) {
+			if (is == null) throw new IllegalStateException("Test resource file not found: " + name);
+			return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Main method to run the benchmarks from the IDE.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(ScraperBenchmark.class.getSimpleName())
+				.build();
+
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,121 @@
+package com.liadkoren.nonogram.solver;
+
+import com.liadkoren.nonogram.core.model.PartialGrid;
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.core.model.SolveResult;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncParallelSolverFullPuzzleTest {
+
+	private Puzzle dragonPuzzle;
+
+	@BeforeEach
+	void setUp() {
+		// Row clues for the 25x25 Dragon puzzle
+		List<int[]> rowClues = List.of(
+				new int[]{14}, new int[]{2, 2, 6}, new int[]{3, 2, 4}, new int[]{4, 1, 3}, new int[]{3, 1, 3, 2},
+				new int[]{2, 1, 2, 1, 1}, new int[]{4, 1, 2, 2, 1}, new int[]{5, 1, 1, 2, 1, 2, 1}, new int[]{6, 1, 1, 1, 2, 2}, new int[]{5, 1, 6},
+				new int[]{1, 2, 1, 3, 1}, new int[]{1, 1, 3}, new int[]{2, 1, 3, 1, 3}, new int[]{1, 1, 5, 2, 6}, new int[]{2, 3, 3, 3, 1},
+				new int[]{1, 2, 3, 2}, new int[]{1, 3}, new int[]{1, 1, 1, 2}, new int[]{1, 1, 1, 1, 2, 2}, new int[]{1, 1, 1, 1, 1, 2},
+				new int[]{2, 2, 1, 4, 1}, new int[]{2, 2, 2, 2, 6, 1}, new int[]{2, 8, 9}, new int[]{3, 4, 8}, new int[]{4, 4, 8}
+		);
+		// Column clues for the 25x25 Dragon puzzle
+		List<int[]> colClues = List.of(
+				new int[]{4, 6}, new int[]{1, 1, 5}, new int[]{1, 2, 2}, new int[]{4, 3, 1, 1}, new int[]{3, 4, 2},
+				new int[]{5, 2, 1}, new int[]{7, 1, 1}, new int[]{7, 1, 2}, new int[]{3, 3, 2, 3}, new int[]{2, 2, 3, 2},
+				new int[]{10, 2, 4}, new int[]{2, 2, 8}, new int[]{1, 2, 1, 2}, new int[]{1, 2, 1, 1, 2, 1}, new int[]{1, 1, 1, 1, 1},
+				new int[]{1, 2, 3, 4}, new int[]{2, 2, 3}, new int[]{3, 1, 1, 1, 2, 7}, new int[]{1, 3, 1, 2, 2, 4, 5}, new int[]{2, 4, 8, 4},
+				new int[]{2, 3, 2, 2, 4}, new int[]{3, 4, 1, 3}, new int[]{4, 1, 1, 3}, new int[]{5, 2, 2, 3}, new int[]{9, 6}
+		);
+		dragonPuzzle = new Puzzle(rowClues, colClues);
+	}
+
+
+
+	@Test
+	void solvesDragonPuzzle() {
+		SolveResult result = new AsyncParallelSolver(dragonPuzzle, Duration.ofSeconds(15)).get();
+		assertEquals(SolveResult.SolveStatus.SUCCESS, result.status(), "AsyncParallelSolver should successfully solve the dragon puzzle.");
+		System.out.println("AsyncParallelSolver test passed. Solved in " + result.duration().toMillis() + " ms.");
+	}
+
+	@Test
+	void progressReportsFromWorkerThreadsAgreeWithSolution() {
+		ConcurrentLinkedQueue<PartialGrid> reports = new ConcurrentLinkedQueue<>();
+
+		SolveResult result = new AsyncParallelSolver(dragonPuzzle, Duration.ofSeconds(15))
+				.withProgress(reports::add, Duration.ZERO)
+				.get();
+
+		assertEquals(SolveResult.SolveStatus.SUCCESS, result.status());
+		assertFalse(reports.isEmpty());
+		for (PartialGrid report : reports) {
+			for (int r = 0; r < 25; r++) {
+				for (int c = 0; c < 25; c++) {
+					int cell = report.cells()[r][c];
+					if (cell != 0) assertEquals(result.grid()[r][c], cell == 1, "guessed cells must not be reported");
+				}
+			}
+		}
+	}
+
+	@Test
+	void knowsPuzzleIsImpossible() {
+		List<int[]> modifiedRowClues = new ArrayList<int[]>(dragonPuzzle.rows());
+		modifiedRowClues.set(0, new int[]{25}); // Change first row to impossible clue
+		Puzzle impossiblePuzzle = new Puzzle(modifiedRowClues, dragonPuzzle.cols());
+
+		SolveResult result = new AsyncParallelSolver(impossiblePuzzle, Duration.ofSeconds(15)).get();
+		assertEquals(SolveResult.SolveStatus.UNSOLVABLE, result.status());
+	}
+
+	@Test
+	void guessesWhenPropagationStalls_onPuzzleWithTwoSolutions() {
+		TestPuzzles.assertGuessesWhenPropagationStalls(puzzle -> new AsyncParallelSolver(puzzle, TestPuzzles.BUDGET).get());
+	}
+
+	@Test
+	void matchesSimpleSolverOnRandomPuzzles() {
+		// propagation order varies between runs, the fixpoint and the guesses on top of it do not
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (long seed = 1; seed <= 10; seed++) {
+				Puzzle puzzle = TestPuzzles.randomPuzzle(seed, 15, 15);
+
+				SolveResult expected = new SimpleSolver(puzzle, Duration.ofSeconds(15)).get();
+				SolveResult result = new AsyncParallelSolver(puzzle, Duration.ofSeconds(15), pool).get();
+
+				assertEquals(SolveResult.SolveStatus.SUCCESS, result.status(), "seed " + seed);
+				TestPuzzles.assertSatisfiesClues(puzzle, result.grid());
+				for (int r = 0; r < expected.grid().length; r++) {
+					assertArrayEquals(expected.grid()[r], result.grid()[r], "seed " + seed + " row " + r);
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void stopsMidSolveWhenCancelled() {
+		CancellationToken cancellation = new CancellationToken();
+
+		// cancelled from a worker thread while other line tasks are in flight
+		SolveResult result = new AsyncParallelSolver(dragonPuzzle, Duration.ofSeconds(15))
+				.withProgress(partial -> cancellation.cancel(), Duration.ZERO)
+				.withCancellation(cancellation)
+				.get();
+
+		assertEquals(SolveResult.SolveStatus.CANCELLED, result.status());
+	}
+}
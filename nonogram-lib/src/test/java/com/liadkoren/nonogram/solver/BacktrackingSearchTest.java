@@ -0,0 +1,127 @@
+package com.liadkoren.nonogram.solver;
+
+import com.liadkoren.nonogram.core.model.PartialGrid;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktrackingSearchTest {
+
+	// deduces (0, 0) as filled, stalls, then runs out of budget inside the guess on (0, 1)
+	private static final class StallThenTimeOut implements BacktrackingSearch.Propagation {
+		private final CellGrid grid;
+		private BacktrackingSearch search;
+		private int calls;
+
+		StallThenTimeOut(CellGrid grid) {
+			this.grid = grid;
+		}
+
+		@Override
+		public BacktrackingSearch.Outcome propagate() {
+			search.reportProgress();
+			if (calls++ > 0) return BacktrackingSearch.Outcome.TIMED_OUT;
+
+			grid.set(0, 0, 1);
+			search.reportProgress();
+			return BacktrackingSearch.Outcome.STALLED;
+		}
+
+		@Override
+		public void cellGuessed(int row, int col) {
+		}
+	}
+
+	@Test
+	void knownCellsLeaveOutOpenGuesses() {
+		ArrayCellGrid grid = new ArrayCellGrid(new int[1][3]);
+		StallThenTimeOut propagation = new StallThenTimeOut(grid);
+		propagation.search = new BacktrackingSearch(grid, propagation);
+
+		assertEquals(BacktrackingSearch.Outcome.TIMED_OUT, propagation.search.solve());
+
+		assertEquals(1, grid.get(0, 1), "the grid holds the guess");
+		PartialGrid known = propagation.search.known();
+		assertArrayEquals(new int[]{1, 0, 0}, known.cells()[0]);
+		assertEquals(100.0 / 3, known.solvedPercent(), 1e-9);
+	}
+
+	@Test
+	void progressIsOnlyReportedWithoutOpenGuesses() {
+		ArrayCellGrid grid = new ArrayCellGrid(new int[1][3]);
+		List<PartialGrid> reports = new ArrayList<>();
+		StallThenTimeOut propagation = new StallThenTimeOut(grid);
+		propagation.search = new BacktrackingSearch(grid, propagation, new ProgressReporter(reports::add, Duration.ZERO));
+
+		propagation.search.solve();
+
+		assertEquals(2, reports.size(), "the report made inside the guess is dropped");
+		assertArrayEquals(new int[]{0, 0, 0}, reports.get(0).cells()[0]);
+		assertArrayEquals(new int[]{1, 0, 0}, reports.get(1).cells()[0]);
+	}
+
+	// never deduces anything: the search guesses every cell. A row with two filled cells is a contradiction.
+	private static final class OneFilledCellPerRow implements BacktrackingSearch.Propagation {
+		private final CellGrid grid;
+
+		OneFilledCellPerRow(CellGrid grid) {
+			this.grid = grid;
+		}
+
+		@Override
+		public BacktrackingSearch.Outcome propagate() {
+			boolean complete = true;
+			for (int r = 0; r < grid.rows(); r++) {
+				int filled = 0;
+				for (int c = 0; c < grid.cols(); c++) {
+					if (grid.get(r, c) == 1) filled++;
+					else if (grid.get(r, c) == 0) complete = false;
+				}
+				if (filled > 1) throw new IllegalStateException("row " + r + " has " + filled + " filled cells");
+			}
+			return complete ? BacktrackingSearch.Outcome.SOLVED : BacktrackingSearch.Outcome.STALLED;
+		}
+
+		@Override
+		public void cellGuessed(int row, int col) {
+		}
+	}
+
+	@Test
+	void deepSearchRunsOnASmallStack() throws Exception {
+		// 3,000 rows: a guess per row stays open, every other guess is undone
+		PackedCellGrid grid = new PackedCellGrid(3_000, 4);
+		BacktrackingSearch search = new BacktrackingSearch(grid, new OneFilledCellPerRow(grid));
+
+		AtomicReference<Object> result = new AtomicReference<>();
+		Thread thread = new Thread(null, () -> {
+			try {
+				result.set(search.solve());
+			} catch (Throwable t) {
+				result.set(t);
+			}
+		}, "small-stack", 128 * 1024);
+		thread.start();
+		thread.join();
+
+		assertEquals(BacktrackingSearch.Outcome.SOLVED, result.get());
+		for (int r = 0; r < grid.rows(); r++) {
+			int filled = 0;
+			for (int c = 0; c < grid.cols(); c++) if (grid.get(r, c) == 1) filled++;
+			assertEquals(1, filled, "row " + r);
+		}
+	}
+
+	@Test
+	void contradictionWithoutOpenGuessIsThrown() {
+		ArrayCellGrid grid = new ArrayCellGrid(new int[][]{{1, 1}});
+		BacktrackingSearch search = new BacktrackingSearch(grid, new OneFilledCellPerRow(grid));
+
+		assertThrows(IllegalStateException.class, search::solve);
+	}
+}
@@ -0,0 +1,148 @@
+package com.liadkoren.nonogram.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitsetLineSolverTest {
+
+	private final BitsetLineSolver solver = new BitsetLineSolver();
+
+	// runs the bitset solver on a single row, returning the deduced row as -1/0/1
+	private int[] solveRow(int[] blockSizes, int[] known) {
+		int n = known.length;
+		long[] filled = new long[BitsetLineSolver.wordsFor(n)];
+		long[] empty = new long[BitsetLineSolver.wordsFor(n)];
+		for (int i = 0; i < n; i++) {
+			if (known[i] == 1) BitsetLineSolver.set(filled, i);
+			if (known[i] == -1) BitsetLineSolver.set(empty, i);
+		}
+
+		solver.solve(blockSizes, n, filled, empty);
+
+		int[] result = new int[n];
+		for (int i = 0; i < n; i++) {
+			result[i] = BitsetLineSolver.isSet(filled, i) ? 1 : BitsetLineSolver.isSet(empty, i) ? -1 : 0;
+		}
+		return result;
+	}
+
+	@Test
+	void block3_in_len5_forces_center_only() {
+		assertArrayEquals(new int[]{0, 0, 1, 0, 0}, solveRow(new int[]{3}, new int[5]));
+	}
+
+	@Test
+	void twoSingles_in_len3_forces_gap() {
+		assertArrayEquals(new int[]{1, -1, 1}, solveRow(new int[]{1, 1}, new int[3]));
+	}
+
+	@Test
+	void emptyClue_makes_every_cell_empty() {
+		assertArrayEquals(new int[]{-1, -1, -1, -1}, solveRow(new int[0], new int[4]));
+	}
+
+	@Test
+	void respects_existing_certain_empty_cells() {
+		assertArrayEquals(new int[]{-1, 0, 1, 1, 0}, solveRow(new int[]{3}, new int[]{-1, 0, 0, 0, 0}));
+	}
+
+	@Test
+	void returnsTrue_onlyWhenLineIsComplete() {
+		long[] filled = new long[1], empty = new long[1];
+		assertTrue(solver.solve(new int[]{5}, 5, filled, empty));
+
+		filled = new long[1];
+		empty = new long[1];
+		assertFalse(solver.solve(new int[]{3}, 5, filled, empty));
+	}
+
+	@Test
+	void throws_whenKnownCellsContradictClue() {
+		assertThrows(IllegalStateException.class, () -> solveRow(new int[]{2}, new int[]{1, -1, 1, 0}));
+		assertThrows(IllegalStateException.class, () -> solveRow(new int[0], new int[]{0, 1, 0}));
+	}
+
+	@Test
+	void handlesLinesLongerThanOneWord() {
+		int[] known = new int[130];
+		int[] result = solveRow(new int[]{100, 20}, known);
+
+		// overlap of the first block: cells [9, 100), second block: cells [110, 121)
+		for (int i = 0; i < 130; i++) {
+			boolean forced = (i >= 9 && i < 100) || (i >= 110 && i < 121);
+			assertEquals(forced ? 1 : 0, result[i], "cell " + i);
+		}
+	}
+
+	@Test
+	void matchesPlacementEnumeration_onRandomLines() {
+		Random random = new Random(42);
+
+		for (int round = 0; round < 2_000; round++) {
+			int n = 1 + random.nextInt(14);
+			int[] blockSizes = randomClue(random, n);
+
+			// derive known cells from a random valid fill so most lines stay solvable
+			int[] known = new int[n];
+			int[] solution = randomFill(random, blockSizes, n);
+			for (int i = 0; i < n; i++) {
+				if (random.nextInt(4) == 0) known[i] = solution[i];
+			}
+			if (random.nextInt(10) == 0) known[random.nextInt(n)] = random.nextBoolean() ? 1 : -1;
+
+			int[][] grid = {known.clone()};
+			LineFillIterator it = new LineFillIterator(blockSizes, grid, true, 0);
+
+			boolean enumerationFailed = false;
+			try {
+				it.deduce();
+			} catch (IllegalStateException e) {
+				enumerationFailed = true;
+			}
+
+			if (enumerationFailed) {
+				assertThrows(IllegalStateException.class, () -> solveRow(blockSizes, known));
+			} else {
+				assertArrayEquals(grid[0], solveRow(blockSizes, known),
+						"clue " + Arrays.toString(blockSizes) + " known " + Arrays.toString(known));
+			}
+		}
+	}
+
+	private static int[] randomClue(Random random, int n) {
+		List<Integer> blocks = new ArrayList<>();
+		int used = 0;
+		while (true) {
+			int gap = blocks.isEmpty() ? 0 : 1;
+			int room = n - used - gap;
+			if (room <= 0 || random.nextInt(4) == 0) break;
+			int size = 1 + random.nextInt(Math.min(room, 4));
+			blocks.add(size);
+			used += gap + size;
+		}
+		return blocks.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private static int[] randomFill(Random random, int[] blockSizes, int n) {
+		int[] line = new int[n];
+		Arrays.fill(line, -1);
+		int mandatory = Math.max(0, blockSizes.length - 1);
+		for (int b : blockSizes) mandatory += b;
+
+		int slack = n - mandatory, pos = 0;
+		for (int b : blockSizes) {
+			int shift = slack == 0 ? 0 : random.nextInt(slack + 1);
+			slack -= shift;
+			pos += shift;
+			Arrays.fill(line, pos, pos + b, 1);
+			pos += b + 1;
+		}
+		return line;
+	}
+}
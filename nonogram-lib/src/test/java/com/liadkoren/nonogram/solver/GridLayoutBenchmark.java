@@ -0,0 +1,75 @@
+package com.liadkoren.nonogram.solver;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks line propagation on tall and wide puzzles with the plain row-major int[][] grid vs the
+ * PackedCellGrid, which reads rows and columns as whole words of its bit planes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+public class GridLayoutBenchmark {
+
+	@Param({"25x400", "400x25", "200x200"})
+	public String shape;
+
+	@Param({"array", "packed"})
+	public String layout;
+
+	private Puzzle puzzle;
+	private int rows, cols;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		String[] size = shape.split("x");
+		rows = Integer.parseInt(size[0]);
+		cols = Integer.parseInt(size[1]);
+		puzzle = TestPuzzles.randomPuzzle(7, rows, cols, 70); // dense enough that propagation gets most of the way
+	}
+
+	// propagates a fresh grid until no line changes, like SimpleSolver before it has to guess
+	@Benchmark
+	public CellGrid propagate() {
+		CellGrid grid = layout.equals("packed") ? new PackedCellGrid(rows, cols) : new ArrayCellGrid(new int[rows][cols]);
+
+		ArrayDeque<GridLine> queue = new ArrayDeque<>(rows + cols);
+		GridLine.populateWithLines(puzzle, grid, queue);
+		GridLine[] lines = queue.toArray(new GridLine[0]);
+		BitsetLineSolver lineSolver = new BitsetLineSolver();
+		LineCache cache = LineCache.forLines(lines.length);
+
+		while (!queue.isEmpty()) {
+			GridLine line = queue.removeFirst();
+			line.markClean();
+			line.deduce(lineSolver, cache);
+			for (int i = line.nextChangedCell(0); i >= 0; i = line.nextChangedCell(i + 1)) {
+				GridLine crossing = line.getIsRow() ? lines[rows + i] : lines[i];
+				if (crossing.markDirty()) queue.addLast(crossing);
+			}
+		}
+		return grid;
+	}
+
+	/**
+	 * Main method to run the benchmarks from the IDE.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(GridLayoutBenchmark.class.getSimpleName())
+				.build();
+
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,119 @@
+package com.liadkoren.nonogram.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineCacheTest {
+
+	private final BitsetLineSolver solver = new BitsetLineSolver();
+
+	private static long[] mask(int... cells) {
+		long[] mask = new long[1];
+		for (int cell : cells) BitsetLineSolver.set(mask, cell);
+		return mask;
+	}
+
+	@Test
+	void sameLineStateIsCopiedFromTheCache() {
+		LineCache cache = new LineCache(64);
+		long[] filled = mask(1), empty = mask();
+
+		assertFalse(cache.solve(solver, new int[]{3}, 5, filled, empty));
+		long[] cachedFilled = mask(1), cachedEmpty = mask();
+		assertFalse(cache.solve(solver, new int[]{3}, 5, cachedFilled, cachedEmpty));
+
+		assertArrayEquals(filled, cachedFilled);
+		assertArrayEquals(empty, cachedEmpty);
+		assertArrayEquals(mask(1, 2), cachedFilled);
+		assertArrayEquals(mask(4), cachedEmpty);
+		assertEquals(new LineCache.Stats(1, 1), cache.stats());
+		assertEquals(0.5, cache.stats().hitRate());
+	}
+
+	@Test
+	void differentClueOrKnownCellsMiss() {
+		LineCache cache = new LineCache(64);
+
+		cache.solve(solver, new int[]{3}, 5, mask(1), mask());
+		cache.solve(solver, new int[]{1, 1}, 5, mask(1), mask());
+		cache.solve(solver, new int[]{3}, 5, mask(1), mask(0));
+		cache.solve(solver, new int[]{3}, 6, mask(1), mask());
+
+		assertEquals(0, cache.stats().hits());
+	}
+
+	@Test
+	void contradictionIsCachedAndThrownAgain() {
+		LineCache cache = new LineCache(64);
+
+		assertThrows(IllegalStateException.class, () -> cache.solve(solver, new int[]{2}, 3, mask(0, 2), mask()));
+		assertThrows(IllegalStateException.class, () -> cache.solve(solver, new int[]{2}, 3, mask(0, 2), mask()));
+		assertEquals(1, cache.stats().hits());
+	}
+
+	@Test
+	void blankLinesAreSharedByEveryCache() {
+		int[] clue = {7, 9, 4};
+		long before = LineCache.blankLineStats().hits();
+
+		new LineCache(16).solve(solver, clue, 23, new long[1], new long[1]);
+		long[] filled = new long[1], empty = new long[1];
+		new LineCache(16).solve(solver, clue, 23, filled, empty);
+
+		assertTrue(LineCache.blankLineStats().hits() > before);
+		long[] expectedFilled = new long[1], expectedEmpty = new long[1];
+		solver.solve(clue, 23, expectedFilled, expectedEmpty);
+		assertArrayEquals(expectedFilled, filled);
+		assertArrayEquals(expectedEmpty, empty);
+	}
+
+	@Test
+	void concurrentSolvesThroughATinyCacheAgreeWithTheSolver() throws Exception {
+		// 4 slots for ~100 distinct states: threads keep replacing each other's entries
+		LineCache cache = new LineCache(4);
+		ExecutorService es = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				workers.add(es.submit(() -> {
+					Random random = new Random(42);
+					BitsetLineSolver lineSolver = new BitsetLineSolver(), plain = new BitsetLineSolver();
+					for (int i = 0; i < 5_000; i++) {
+						int[] clue = {1 + random.nextInt(3), 1 + random.nextInt(3)};
+						long[] filled = mask(random.nextInt(10)), empty = mask(random.nextInt(10));
+						long[] expectedFilled = filled.clone(), expectedEmpty = empty.clone();
+
+						String expected, actual;
+						try {
+							expected = plain.solve(clue, 10, expectedFilled, expectedEmpty) + "";
+						} catch (IllegalStateException e) {
+							expected = "contradiction";
+						}
+						try {
+							actual = cache.solve(lineSolver, clue, 10, filled, empty) + "";
+						} catch (IllegalStateException e) {
+							actual = "contradiction";
+						}
+
+						assertEquals(expected, actual);
+						assertArrayEquals(expectedFilled, filled);
+						assertArrayEquals(expectedEmpty, empty);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> worker : workers) worker.get();
+		} finally {
+			es.shutdownNow();
+		}
+		assertTrue(cache.stats().hits() > 0);
+	}
+}
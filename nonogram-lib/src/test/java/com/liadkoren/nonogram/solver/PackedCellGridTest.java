@@ -0,0 +1,141 @@
+package com.liadkoren.nonogram.solver;
+
+import com.liadkoren.nonogram.core.model.PartialGrid;
+import com.liadkoren.nonogram.core.model.SolvedGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedCellGridTest {
+
+	// reads a line cell by cell through get(), like the default CellGrid.readLine
+	private static long[][] readCellByCell(CellGrid grid, boolean isRow, int index) {
+		int length = isRow ? grid.cols() : grid.rows();
+		long[] filled = new long[BitsetLineSolver.wordsFor(length)], empty = new long[filled.length];
+		for (int i = 0; i < length; i++) {
+			int state = isRow ? grid.get(index, i) : grid.get(i, index);
+			if (state == 1) BitsetLineSolver.set(filled, i);
+			if (state == -1) BitsetLineSolver.set(empty, i);
+		}
+		return new long[][]{filled, empty};
+	}
+
+	private static long[][] readLine(CellGrid grid, boolean isRow, int index) {
+		int length = isRow ? grid.cols() : grid.rows();
+		long[] filled = new long[BitsetLineSolver.wordsFor(length)], empty = new long[filled.length];
+		grid.readLine(isRow, index, filled, empty);
+		return new long[][]{filled, empty};
+	}
+
+	@Test
+	void rowsAndColumnsReadWholeWordsOfTheSameCells() {
+		PackedCellGrid grid = new PackedCellGrid(70, 3); // columns span two words
+		grid.set(0, 1, 1);
+		grid.set(65, 1, -1);
+		grid.set(69, 1, 1);
+		grid.set(3, 2, -1);
+
+		assertEquals(-1, grid.get(65, 1));
+		assertEquals(0, grid.get(65, 0));
+		for (int c = 0; c < 3; c++) {
+			assertArrayEquals(readCellByCell(grid, false, c), readLine(grid, false, c), "col " + c);
+		}
+		for (int r = 0; r < 70; r++) {
+			assertArrayEquals(readCellByCell(grid, true, r), readLine(grid, true, r), "row " + r);
+		}
+	}
+
+	@Test
+	void setRejectsTheOtherStateAndRestoreRewindsBothLayouts() {
+		PackedCellGrid grid = new PackedCellGrid(2, 2);
+		assertTrue(grid.set(0, 0, 1));
+		assertFalse(grid.set(0, 0, 1));
+		assertThrows(IllegalStateException.class, () -> grid.set(0, 0, -1));
+		CellGrid snapshot = grid.copy();
+
+		grid.set(1, 0, -1);
+		grid.restore(snapshot);
+
+		assertEquals(0, grid.get(1, 0));
+		assertArrayEquals(new long[][]{{0b01}, {0b00}}, readLine(grid, false, 0));
+	}
+
+	@Test
+	void undoForgetsTheCellsSetSinceTheMark() {
+		PackedCellGrid grid = new PackedCellGrid(2, 2);
+		grid.set(0, 0, 1); // before the first mark: certain, never undone
+		int outer = grid.mark();
+		grid.set(0, 1, -1);
+		int inner = grid.mark();
+		grid.set(1, 1, 1);
+
+		grid.undo(inner);
+		assertEquals(0, grid.get(1, 1));
+		assertEquals(-1, grid.get(0, 1));
+		assertArrayEquals(new long[][]{{0b00}, {0b01}}, readLine(grid, false, 1));
+
+		grid.undo(outer);
+		assertEquals(1, grid.get(0, 0));
+		assertEquals(0, grid.get(0, 1));
+		assertTrue(grid.set(0, 1, 1), "an undone cell can take the other state");
+	}
+
+	@Test
+	void partialGridIsACopyOfTheKnownCells() {
+		PackedCellGrid grid = new PackedCellGrid(2, 70); // rows span two words
+		grid.set(0, 1, 1);
+		grid.set(1, 65, -1);
+
+		PartialGrid partial = grid.toPartialGrid();
+		grid.set(0, 2, 1);
+
+		assertEquals(1, partial.get(0, 1));
+		assertEquals(-1, partial.get(1, 65));
+		assertEquals(0, partial.get(0, 2));
+		assertEquals(2, partial.knownCells());
+		assertEquals(new PartialGrid(partial.cells()), partial);
+	}
+
+	@Test
+	void completeGridBecomesItsFilledPlane() {
+		PackedCellGrid grid = new PackedCellGrid(2, 3);
+		boolean[][] cells = {{true, false, true}, {false, false, true}};
+		for (int r = 0; r < 2; r++) {
+			for (int c = 0; c < 3; c++) grid.set(r, c, cells[r][c] ? 1 : -1);
+		}
+
+		assertEquals(SolvedGrid.of(cells), grid.toSolvedGrid());
+	}
+
+	@Test
+	void rowsWrittenAtTheSameTimeKeepEveryColumnBit() throws Exception {
+		// 64 rows share each column word: plain read-modify-writes would lose bits
+		int rows = 64, cols = 200;
+		PackedCellGrid grid = new PackedCellGrid(rows, cols);
+		ExecutorService es = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> writers = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				int first = t;
+				writers.add(es.submit(() -> {
+					for (int r = first; r < rows; r += 4) {
+						for (int c = 0; c < cols; c++) grid.set(r, c, (r + c) % 2 == 0 ? 1 : -1);
+					}
+				}));
+			}
+			for (Future<?> writer : writers) writer.get();
+		} finally {
+			es.shutdownNow();
+		}
+
+		for (int c = 0; c < cols; c++) {
+			assertArrayEquals(readCellByCell(grid, false, c), readLine(grid, false, c), "col " + c);
+		}
+	}
+}
@@ -2,6 +2,7 @@ package com.liadkoren.nonogram.solver;
 
 import com.liadkoren.nonogram.core.model.Puzzle;
 import com.liadkoren.nonogram.core.model.SolveResult;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,6 +53,17 @@ class ParallelSolverFullPuzzleTest {
 		System.out.println("ParallelSolver test passed. Solved in " + result.duration().toMillis() + " ms.");
 	}
 
+	@Test
+	void solvesDragonPuzzleOnDedicatedPool() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			SolveResult result = new ParallelSolver(dragonPuzzle, Duration.ofSeconds(15), pool).get();
+			assertEquals(SolveResult.SolveStatus.SUCCESS, result.status());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
 	@Test
 	void knowsPuzzleIsImpossible() {
 		System.out.println("Running ParallelSolver failure test...");
@@ -105,4 +118,44 @@ class ParallelSolverFullPuzzleTest {
 		assertArrayEquals(expected[3], grid[3]);
 		assertArrayEquals(expected[4], grid[4]);
 	}
+
+	@Test
+	void guessesWhenPropagationStalls_onPuzzleWithTwoSolutions() {
+		TestPuzzles.assertGuessesWhenPropagationStalls(puzzle -> new ParallelSolver(puzzle, TestPuzzles.BUDGET).get());
+	}
+
+	@Test
+	void solvesRandomPuzzlesThatNeedSearch() {
+		TestPuzzles.assertSolvesRandomPuzzlesThatNeedSearch(puzzle -> new ParallelSolver(puzzle, TestPuzzles.BUDGET).get());
+	}
+
+	@Test
+	void onlyDeducesLinesWhoseCrossingCellsChanged() {
+		ParallelSolver solver = new ParallelSolver(dragonPuzzle, Duration.ofSeconds(15));
+		SolveResult result = solver.get();
+		assertEquals(SolveResult.SolveStatus.SUCCESS, result.status());
+
+		DeductionStats stats = solver.stats();
+		System.out.println("ParallelSolver deductions performed=" + stats.performed() + " skipped=" + stats.skipped());
+
+		assertTrue(stats.performed() >= 50, "every line is deduced at least once");
+		assertTrue(stats.skipped() > 0, "clean lines should be skipped");
+	}
+
+	@Test
+	void stopsMidSolveWhenCancelled() {
+		CancellationToken cancellation = new CancellationToken();
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			// cancelled from the first progress report, i.e. between two phases
+			SolveResult result = new ParallelSolver(dragonPuzzle, Duration.ofSeconds(15), pool)
+					.withProgress(partial -> cancellation.cancel(), Duration.ZERO)
+					.withCancellation(cancellation)
+					.get();
+
+			assertEquals(SolveResult.SolveStatus.CANCELLED, result.status());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
 }
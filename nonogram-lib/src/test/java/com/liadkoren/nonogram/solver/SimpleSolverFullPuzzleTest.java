@@ -83,4 +83,17 @@ class SimpleSolverFullPuzzleTest {
 		assertArrayEquals(expected[3], grid[3]);
 		assertArrayEquals(expected[4], grid[4]);
 	}
+
+	@Test
+	void onlyDeducesLinesWhoseCrossingCellsChanged() {
+		SimpleSolver solver = new SimpleSolver(dragonPuzzle, Duration.ofSeconds(15));
+		SolveResult result = solver.get();
+		assertEquals(SolveResult.SolveStatus.SUCCESS, result.status());
+
+		DeductionStats stats = solver.stats();
+		System.out.println("SimpleSolver deductions performed=" + stats.performed() + " skipped=" + stats.skipped());
+
+		assertTrue(stats.performed() >= 50, "every line is deduced at least once");
+		assertTrue(stats.skipped() > 0, "clean lines should be skipped");
+	}
 }
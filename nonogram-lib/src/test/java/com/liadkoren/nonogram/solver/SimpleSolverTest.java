@@ -1,10 +1,13 @@
 package com.liadkoren.nonogram.solver;
 
+import com.liadkoren.nonogram.core.model.PartialGrid;
 import com.liadkoren.nonogram.core.model.Puzzle;
 import com.liadkoren.nonogram.core.model.SolveResult;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -63,4 +66,80 @@ class SimpleSolverTest {
 		assertArrayEquals(new boolean[]{true, true, true}, grid[1]);
 		assertArrayEquals(new boolean[]{false, false, false}, grid[2]);
 	}
-}
\ No newline at end of file
+
+	@Test
+	void guessesWhenPropagationStalls_onPuzzleWithTwoSolutions() {
+		TestPuzzles.assertGuessesWhenPropagationStalls(puzzle -> new SimpleSolver(puzzle, TestPuzzles.BUDGET).get());
+	}
+
+	@Test
+	void solvesRandomPuzzlesThatNeedSearch() {
+		TestPuzzles.assertSolvesRandomPuzzlesThatNeedSearch(puzzle -> new SimpleSolver(puzzle, TestPuzzles.BUDGET).get());
+	}
+
+	@Test
+	void sharedLineCacheServesARepeatedSolveWithoutDeducing() {
+		Puzzle puzzle = TestPuzzles.randomPuzzle(3, 15, 15);
+		LineCache cache = new LineCache(1 << 20); // big enough for no two states to share a slot
+
+		SimpleSolver first = new SimpleSolver(puzzle, Duration.ofSeconds(15)).withLineCache(cache);
+		assertEquals(SolveResult.SolveStatus.SUCCESS, first.get().status());
+		long misses = cache.stats().misses();
+
+		SimpleSolver second = new SimpleSolver(puzzle, Duration.ofSeconds(15)).withLineCache(cache);
+		assertEquals(SolveResult.SolveStatus.SUCCESS, second.get().status());
+
+		assertEquals(misses, cache.stats().misses(), "every line state was seen by the first solve");
+		assertTrue(cache.stats().hits() >= second.stats().performed() - puzzle.rows().size() - puzzle.cols().size(),
+				"only blank lines go to the shared blank tier");
+	}
+
+	@Test
+	void timeoutCarriesDeducedCells() {
+		Puzzle puzzle = new Puzzle(List.of(new int[]{3}, new int[]{1}), List.of(new int[]{1}, new int[]{2}, new int[]{1}));
+
+		SolveResult result = new SimpleSolver(puzzle, Duration.ZERO).get();
+
+		assertEquals(SolveResult.SolveStatus.TIMEOUT, result.status());
+		assertNotNull(result.partial(), "a timeout reports what was deduced, here nothing");
+		assertEquals(2, result.partial().rows());
+		assertEquals(0, result.partial().solvedPercent());
+	}
+
+	@Test
+	void publishesProgressWhileSolving() {
+		Puzzle puzzle = new Puzzle(List.of(new int[]{3}, new int[]{1}), List.of(new int[]{1}, new int[]{2}, new int[]{1}));
+		List<PartialGrid> reports = new ArrayList<>();
+
+		SolveResult result = new SimpleSolver(puzzle, Duration.ofSeconds(1))
+				.withProgress(reports::add, Duration.ZERO)
+				.get();
+
+		assertEquals(SolveResult.SolveStatus.SUCCESS, result.status());
+		assertFalse(reports.isEmpty());
+		// snapshots only ever gain known cells, and agree with the solution
+		int known = 0;
+		for (PartialGrid report : reports) {
+			assertTrue(report.knownCells() >= known);
+			known = report.knownCells();
+			for (int r = 0; r < 2; r++) {
+				for (int c = 0; c < 3; c++) {
+					int cell = report.cells()[r][c];
+					if (cell != 0) assertEquals(result.grid()[r][c], cell == 1, "cell " + r + "," + c);
+				}
+			}
+		}
+	}
+
+	@Test
+	void cancelledSolveStopsWithoutUsingItsBudget() {
+		Puzzle puzzle = new Puzzle(List.of(new int[]{3}, new int[]{1}), List.of(new int[]{1}, new int[]{2}, new int[]{1}));
+		CancellationToken cancellation = new CancellationToken();
+		cancellation.cancel();
+
+		SolveResult result = new SimpleSolver(puzzle, Duration.ofMinutes(1)).withCancellation(cancellation).get();
+
+		assertEquals(SolveResult.SolveStatus.CANCELLED, result.status());
+		assertNull(result.partial());
+	}
+}
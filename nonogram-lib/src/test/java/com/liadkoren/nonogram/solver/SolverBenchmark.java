@@ -14,7 +14,7 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Benchmarks the SimpleSolver and ParallelSolver on a complex 25x25 "Dragon" puzzle.
+ * Benchmarks the SimpleSolver, ParallelSolver and AsyncParallelSolver on a complex 25x25 "Dragon" puzzle.
  */
 @State(Scope.Benchmark)
 @BenchmarkMode(Mode.AverageTime)
@@ -67,6 +67,11 @@ public class SolverBenchmark {
 		bh.consume(result);
 	}
 	@Benchmark
+	public void asyncParallelSolverDragonPuzzle(Blackhole bh) {
+		SolveResult result = new AsyncParallelSolver(dragonPuzzle, budget).get();
+		bh.consume(result);
+	}
+	@Benchmark
 	public void simpleSolverDragonPuzzle(Blackhole bh) {
 		SolveResult result = new SimpleSolver(dragonPuzzle, budget).get();
 		// Consume the result to prevent the JVM from optimizing away the call.
@@ -0,0 +1,96 @@
+package com.liadkoren.nonogram.solver;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.core.model.SolveResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Puzzles and checks shared by the solver tests and benchmarks */
+final class TestPuzzles {
+
+	static final Duration BUDGET = Duration.ofSeconds(15);
+
+	private TestPuzzles() {
+	}
+
+	// clues of a random grid; most of these need guessing once line propagation stalls
+	static Puzzle randomPuzzle(long seed, int rows, int cols) {
+		Random random = new Random(seed);
+		boolean[][] grid = new boolean[rows][cols];
+		for (boolean[] row : grid) {
+			for (int c = 0; c < cols; c++) row[c] = random.nextBoolean();
+		}
+		return puzzleOf(grid);
+	}
+
+	// clues of a random grid with about filledPercent of its cells filled
+	static Puzzle randomPuzzle(long seed, int rows, int cols, int filledPercent) {
+		Random random = new Random(seed);
+		boolean[][] grid = new boolean[rows][cols];
+		for (boolean[] row : grid) {
+			for (int c = 0; c < cols; c++) row[c] = random.nextInt(100) < filledPercent;
+		}
+		return puzzleOf(grid);
+	}
+
+	static Puzzle puzzleOf(boolean[][] grid) {
+		List<int[]> rowClues = new ArrayList<>(), colClues = new ArrayList<>();
+		for (boolean[] row : grid) rowClues.add(cluesOf(row));
+		for (int c = 0; c < grid[0].length; c++) colClues.add(cluesOf(column(grid, c)));
+		return new Puzzle(rowClues, colClues);
+	}
+
+	static int[] cluesOf(boolean[] line) {
+		List<Integer> blocks = new ArrayList<>();
+		int run = 0;
+		for (boolean filled : line) {
+			if (filled) run++;
+			else if (run > 0) { blocks.add(run); run = 0; }
+		}
+		if (run > 0) blocks.add(run);
+		return blocks.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	static void assertSatisfiesClues(Puzzle puzzle, boolean[][] grid) {
+		for (int r = 0; r < grid.length; r++) {
+			assertArrayEquals(puzzle.rows().get(r), cluesOf(grid[r]), "row " + r);
+		}
+		for (int c = 0; c < puzzle.cols().size(); c++) {
+			assertArrayEquals(puzzle.cols().get(c), cluesOf(column(grid, c)), "col " + c);
+		}
+	}
+
+	/** A 2x2 diagonal: line deduction alone cannot tell which diagonal it is, the solver has to guess */
+	static void assertGuessesWhenPropagationStalls(Function<Puzzle, SolveResult> solve) {
+		Puzzle puzzle = new Puzzle(List.of(new int[]{1}, new int[]{1}), List.of(new int[]{1}, new int[]{1}));
+
+		SolveResult result = solve.apply(puzzle);
+
+		assertEquals(SolveResult.SolveStatus.SUCCESS, result.status());
+		assertSatisfiesClues(puzzle, result.grid());
+	}
+
+	static void assertSolvesRandomPuzzlesThatNeedSearch(Function<Puzzle, SolveResult> solve) {
+		for (long seed = 1; seed <= 10; seed++) {
+			Puzzle puzzle = randomPuzzle(seed, 15, 15);
+
+			SolveResult result = solve.apply(puzzle);
+
+			assertEquals(SolveResult.SolveStatus.SUCCESS, result.status(), "seed " + seed);
+			assertSatisfiesClues(puzzle, result.grid());
+		}
+	}
+
+	private static boolean[] column(boolean[][] grid, int c) {
+		boolean[] line = new boolean[grid.length];
+		for (int r = 0; r < grid.length; r++) line[r] = grid[r][c];
+		return line;
+	}
+}
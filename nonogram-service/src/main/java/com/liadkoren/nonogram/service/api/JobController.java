@@ -1,28 +1,75 @@
 package com.liadkoren.nonogram.service.api;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liadkoren.nonogram.service.api.dto.BatchJobRequest;
+import com.liadkoren.nonogram.service.api.dto.BatchSubmittedResponse;
 import com.liadkoren.nonogram.service.api.dto.JobStatusResponse;
 import com.liadkoren.nonogram.service.api.dto.JobSubmittedResponse;
 import com.liadkoren.nonogram.service.api.dto.UrlJobRequest;
 import com.liadkoren.nonogram.service.api.dto.PuzzleJobRequest;
+import com.liadkoren.nonogram.service.jobs.BatchProgress;
+import com.liadkoren.nonogram.service.jobs.HopelessJobException;
+import com.liadkoren.nonogram.service.jobs.JobCompletion;
+import com.liadkoren.nonogram.service.jobs.JobProgress;
 import com.liadkoren.nonogram.service.jobs.JobService;
+import com.liadkoren.nonogram.service.jobs.QueueFullException;
+import com.liadkoren.nonogram.service.jobs.QueueStats;
+import com.liadkoren.nonogram.service.jobs.SubmittedJob;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity;
+import com.liadkoren.nonogram.service.solver.InvalidPuzzleException;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DurationFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/jobs")
-@RequiredArgsConstructor
 @Slf4j(topic = "jobs.api")
 @Validated
 class JobController {
+	static final int MAX_BATCH_SIZE = 10_000;
+	static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+	static final Duration MAX_WAIT = Duration.ofSeconds(60);
+
 	private final JobService jobService;
+	private final ObjectMapper objectMapper;
+	private final Validator validator;
+	private final Executor jobEventsExecutor;
+
+	JobController(JobService jobService, ObjectMapper objectMapper, Validator validator,
+	              @Qualifier("jobEventsExecutor") Executor jobEventsExecutor) {
+		this.jobService = jobService;
+		this.objectMapper = objectMapper;
+		this.validator = validator;
+		this.jobEventsExecutor = jobEventsExecutor;
+	}
 
 	@PostMapping("/url")
 	ResponseEntity<JobSubmittedResponse> submitUrl(@Valid @RequestBody UrlJobRequest dto) {
@@ -36,9 +83,39 @@ class JobController {
 	ResponseEntity<JobSubmittedResponse> submitPuzzle(@Valid @RequestBody PuzzleJobRequest dto) {
 		log.info("submit.puzzle received rows={} cols={} budgetMs={}",
 				dto.puzzle().rows().size(), dto.puzzle().cols().size(), dto.budgetMs());
-		UUID jobId = jobService.submitPuzzleJob(dto.puzzle(), dto.budgetMs());
-		log.info("submit.puzzle accepted jobId={}", jobId);
-		return ResponseEntity.accepted().body(new JobSubmittedResponse(jobId, "QUEUED"));
+		SubmittedJob submitted = jobService.submitPuzzleJob(dto.puzzle(), dto.budgetMs());
+		log.info("submit.puzzle accepted jobId={}", submitted.jobId());
+		return ResponseEntity.accepted().body(new JobSubmittedResponse(submitted.jobId(), "QUEUED", submitted.estimatedCompletion()));
+	}
+
+	@PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+	ResponseEntity<BatchSubmittedResponse> submitBatch(@RequestBody List<BatchJobRequest> requests) {
+		return submitBatchJobs(requests);
+	}
+
+	// one BatchJobRequest per line
+	@PostMapping(value = "/batch", consumes = APPLICATION_NDJSON_VALUE)
+	ResponseEntity<BatchSubmittedResponse> submitBatchNdjson(InputStream body) throws IOException {
+		List<BatchJobRequest> requests = new ArrayList<>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+		int lineNumber = 0;
+		for (String line; (line = reader.readLine()) != null; ) {
+			lineNumber++;
+			if (line.isBlank()) continue;
+			if (requests.size() == MAX_BATCH_SIZE) throw batchTooLarge();
+			try {
+				requests.add(objectMapper.readValue(line, BatchJobRequest.class));
+			} catch (JsonProcessingException e) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "line " + lineNumber + ": " + e.getOriginalMessage());
+			}
+		}
+		return submitBatchJobs(requests);
+	}
+
+	@GetMapping("/batch/{batchId}")
+	public ResponseEntity<BatchProgress> getBatchProgress(@PathVariable UUID batchId) {
+		BatchProgress progress = jobService.batchProgress(batchId);
+		return progress.total() == 0 ? ResponseEntity.notFound().build() : ResponseEntity.ok(progress);
 	}
 
 	@GetMapping("/{jobId}")
@@ -53,6 +130,158 @@ class JobController {
 				});
 	}
 
+	/**
+	 * Long-poll: answers as soon as the job is done, or with the status it had when the wait began
+	 * once {@code wait} (e.g. 30s, at most 60s) is over. The job is read once; the result of a job
+	 * finishing during the wait comes with the completion itself. {@code wait=0s} answers right away.
+	 */
+	@GetMapping(value = "/{jobId}", params = "wait")
+	public DeferredResult<ResponseEntity<JobStatusResponse>> awaitJobStatus(@PathVariable UUID jobId,
+	                                                                     @RequestParam @DurationFormat(style = DurationFormat.Style.SIMPLE) Duration wait) {
+		Duration timeout = clampWait(wait);
+		if (timeout.isZero()) {
+			// a 0 ms async timeout means "never" to the servlet container
+			DeferredResult<ResponseEntity<JobStatusResponse>> now = new DeferredResult<>();
+			now.setResult(getJobStatus(jobId));
+			return now;
+		}
+
+		DeferredResult<ResponseEntity<JobStatusResponse>> result = new DeferredResult<>(timeout.toMillis());
+		CompletableFuture<JobCompletion> completion = jobService.awaitCompletion(jobId);
+		result.onCompletion(() -> jobService.stopAwaiting(jobId, completion));
+
+		JobEntity job = jobService.findJob(jobId).orElse(null);
+		if (job == null) {
+			result.setResult(ResponseEntity.notFound().build());
+		} else if (isDone(job)) {
+			result.setResult(ResponseEntity.ok(JobStatusResponse.fromEntity(job)));
+		} else {
+			JobStatusResponse current = JobStatusResponse.fromEntity(job);
+			result.onTimeout(() -> result.setResult(ResponseEntity.ok(current)));
+			completion.thenAccept(done -> result.setResult(ResponseEntity.ok(JobStatusResponse.fromCompletion(done))));
+		}
+		return result;
+	}
+
+	/**
+	 * Server-sent events: a "status" event with the current status, "progress" events with the cells
+	 * deduced so far while the job runs in this process, and a "status" event once the job is done,
+	 * then the stream ends. A client that falls behind gets the latest progress only, see JobEventStream.
+	 * Streams of unfinished jobs end after 60s; EventSource reconnects.
+	 */
+	@GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter jobEvents(@PathVariable UUID jobId) throws IOException {
+		CompletableFuture<JobCompletion> completion = jobService.awaitCompletion(jobId);
+		JobEntity job = jobService.findJob(jobId).orElse(null);
+		if (job == null) {
+			jobService.stopAwaiting(jobId, completion);
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "job " + jobId + " not found");
+		}
+
+		SseEmitter emitter = new SseEmitter(MAX_WAIT.toMillis());
+		JobEventStream events = new JobEventStream(emitter, jobEventsExecutor);
+		Consumer<JobProgress> progress = events::progressed;
+		emitter.onCompletion(() -> {
+			jobService.stopAwaiting(jobId, completion);
+			jobService.stopWatching(jobId, progress);
+		});
+		emitter.onTimeout(emitter::complete);
+		emitter.send(JobEventStream.statusEvent(JobStatusResponse.fromEntity(job)));
+		if (isDone(job)) {
+			emitter.complete();
+			return emitter;
+		}
+		jobService.watchProgress(jobId, progress);
+		completion.thenAccept(events::completed);
+		return emitter;
+	}
+
+	// 204 once cancelled, 409 with the status if the job is already done
+	@DeleteMapping("/{jobId}")
+	public ResponseEntity<JobStatusResponse> cancelJob(@PathVariable UUID jobId) {
+		if (jobService.cancel(jobId)) return ResponseEntity.noContent().build();
+		return jobService.findJob(jobId)
+				.map(job -> ResponseEntity.status(HttpStatus.CONFLICT).body(JobStatusResponse.fromEntity(job)))
+				.orElseGet(() -> ResponseEntity.notFound().build());
+	}
+
+	// packed result grid, see BitGrid#toBytes; 404 until the job succeeded
+	@GetMapping(value = "/{jobId}/grid", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public ResponseEntity<byte[]> getJobGrid(@PathVariable UUID jobId) {
+		return jobService.findJob(jobId)
+				.map(JobEntity::getResultBits)
+				.map(grid -> ResponseEntity.ok(grid.toBytes()))
+				.orElseGet(() -> ResponseEntity.notFound().build());
+	}
+
+	@GetMapping("/queue")
+	public QueueStats getQueueStats() {
+		return jobService.queueStats();
+	}
+
+	@ExceptionHandler(QueueFullException.class)
+	ResponseEntity<String> queueFull(QueueFullException e) {
+		log.warn("submit rejected: {}", e.getMessage());
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, "1")
+				.body(e.getMessage());
+	}
+
+	@ExceptionHandler(InvalidPuzzleException.class)
+	ResponseEntity<String> invalidPuzzle(InvalidPuzzleException e) {
+		log.warn("submit rejected: {}", e.getMessage());
+		return ResponseEntity.badRequest().body(e.getMessage());
+	}
+
+	@ExceptionHandler(HopelessJobException.class)
+	ResponseEntity<String> hopeless(HopelessJobException e) {
+		log.warn("submit rejected: {}", e.getMessage());
+		return ResponseEntity.unprocessableEntity().body(e.getMessage());
+	}
+
+	private ResponseEntity<BatchSubmittedResponse> submitBatchJobs(List<BatchJobRequest> requests) {
+		if (requests.isEmpty()) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "batch must not be empty");
+		if (requests.size() > MAX_BATCH_SIZE) throw batchTooLarge();
+
+		List<JobEntity> jobs = new ArrayList<>(requests.size());
+		for (int i = 0; i < requests.size(); i++) jobs.add(toJob(i, requests.get(i)));
+
+		log.info("submit.batch received jobs={}", jobs.size());
+		UUID batchId = jobService.submitBatch(jobs);
+		log.info("submit.batch accepted batchId={}", batchId);
+		return ResponseEntity.accepted().body(new BatchSubmittedResponse(batchId, jobs.stream().map(JobEntity::getId).toList(), "QUEUED"));
+	}
+
+	// validated one by one, so the error names the offending job
+	private JobEntity toJob(int index, BatchJobRequest request) {
+		Set<ConstraintViolation<BatchJobRequest>> violations = validator.validate(request);
+		if (!violations.isEmpty()) {
+			ConstraintViolation<BatchJobRequest> violation = violations.iterator().next();
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"job " + index + ": " + violation.getPropertyPath() + " " + violation.getMessage());
+		}
+		try {
+			return request.puzzle() != null
+					? JobEntity.forPuzzle(request.puzzle(), request.budgetMs())
+					: JobEntity.forUrl(URI.create(request.url()), request.budgetMs());
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "job " + index + ": " + e.getMessage());
+		}
+	}
+
+	private static boolean isDone(JobEntity job) {
+		return job.getStatus() == JobEntity.JobStatus.SUCCESS || job.getStatus() == JobEntity.JobStatus.FAIL;
+	}
+
+	private static Duration clampWait(Duration wait) {
+		if (wait.isNegative()) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "wait must be >= 0");
+		return wait.compareTo(MAX_WAIT) > 0 ? MAX_WAIT : wait;
+	}
+
+	private static ResponseStatusException batchTooLarge() {
+		return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "a batch holds at most " + MAX_BATCH_SIZE + " jobs");
+	}
+
 	private static String safeHost(String url) {
 		try { return URI.create(url).getHost(); } catch (Exception e) { return "bad_url"; }
 	}
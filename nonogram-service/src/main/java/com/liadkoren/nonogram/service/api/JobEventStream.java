@@ -0,0 +1,100 @@
+package com.liadkoren.nonogram.service.api;
+
+import com.liadkoren.nonogram.service.api.dto.JobStatusResponse;
+import com.liadkoren.nonogram.service.jobs.JobCompletion;
+import com.liadkoren.nonogram.service.jobs.JobProgress;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sends the progress and the final status of one /jobs/{id}/events stream, off the threads that report
+ * them (a slow client must not hold up a solver or worker thread) and in order: a single task at a time
+ * sends what is pending. Only the latest progress waits to be sent, an older one is dropped; the final
+ * status drops any progress not sent yet and ends the stream. A stream whose send the executor rejects ends.
+ */
+final class JobEventStream {
+
+	private final SseEmitter emitter;
+	private final Executor executor;
+
+	private final AtomicReference<JobProgress> progress = new AtomicReference<>();
+	private final AtomicReference<JobCompletion> completion = new AtomicReference<>();
+	private final AtomicBoolean sending = new AtomicBoolean();
+	private volatile boolean ended;
+
+	JobEventStream(SseEmitter emitter, Executor executor) {
+		this.emitter = emitter;
+		this.executor = executor;
+	}
+
+	void progressed(JobProgress update) {
+		progress.set(update);
+		schedule();
+	}
+
+	void completed(JobCompletion done) {
+		completion.set(done);
+		schedule();
+	}
+
+	static SseEmitter.SseEventBuilder statusEvent(JobStatusResponse status) {
+		return SseEmitter.event().name("status").data(status, MediaType.APPLICATION_JSON);
+	}
+
+	private void schedule() {
+		if (!sending.compareAndSet(false, true)) return;
+		try {
+			executor.execute(this::sendPending);
+		} catch (RejectedExecutionException e) {
+			// too many streams waiting to be sent: end this one (EventSource reconnects) rather than hold up the caller
+			ended = true;
+			emitter.complete();
+		}
+	}
+
+	private void sendPending() {
+		do {
+			try {
+				while (sendNext()) ;
+			} finally {
+				sending.set(false);
+			}
+			// something may have come in after the last look but before sending was released
+		} while (hasPending() && sending.compareAndSet(false, true));
+	}
+
+	/** Sends the final status if there is one, else the latest progress; false once nothing is left to send */
+	private boolean sendNext() {
+		if (ended) return false;
+		JobCompletion done = completion.get();
+		if (done != null) {
+			ended = true;
+			progress.set(null);
+			try {
+				emitter.send(statusEvent(JobStatusResponse.fromCompletion(done)));
+				emitter.complete();
+			} catch (IOException | IllegalStateException e) {
+				emitter.completeWithError(e); // client gone or stream already timed out
+			}
+			return false;
+		}
+		JobProgress latest = progress.getAndSet(null);
+		if (latest == null) return false;
+		try {
+			emitter.send(SseEmitter.event().name("progress").data(JobStatusResponse.fromProgress(latest), MediaType.APPLICATION_JSON));
+		} catch (IOException | IllegalStateException e) {
+			// client gone or stream over; the final status ends it
+		}
+		return true;
+	}
+
+	private boolean hasPending() {
+		return !ended && (completion.get() != null || progress.get() != null);
+	}
+}
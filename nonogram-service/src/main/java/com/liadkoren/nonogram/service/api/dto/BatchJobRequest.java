@@ -0,0 +1,26 @@
+package com.liadkoren.nonogram.service.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.liadkoren.nonogram.core.model.Puzzle;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * One job of a /jobs/batch submission: either an inline puzzle or a URL to scrape it from.
+ *
+ * @param puzzle   The nonogram puzzle to solve, or null for a URL job
+ * @param url      The URL to scrape the puzzle from, or null for an inline puzzle
+ * @param budgetMs Maximum time budget in milliseconds for solving the puzzle
+ */
+public record BatchJobRequest(
+		@Valid Puzzle puzzle,
+		String url,
+		@PositiveOrZero long budgetMs
+) {
+	@JsonIgnore
+	@AssertTrue(message = "exactly one of puzzle and url is required")
+	public boolean isSingleSource() {
+		return (puzzle == null) != (url == null || url.isBlank());
+	}
+}
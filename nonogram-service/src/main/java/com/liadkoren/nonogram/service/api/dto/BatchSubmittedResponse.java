@@ -0,0 +1,12 @@
+package com.liadkoren.nonogram.service.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @param batchId poll GET /jobs/batch/{batchId} for the aggregate status
+ * @param jobIds  one per submitted job, in submission order
+ */
+public record BatchSubmittedResponse(UUID batchId, List<UUID> jobIds, String status) {
+
+}
@@ -1,8 +1,12 @@
 package com.liadkoren.nonogram.service.api.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.liadkoren.nonogram.service.jobs.JobCompletion;
+import com.liadkoren.nonogram.service.jobs.JobProgress;
+import com.liadkoren.nonogram.service.jobs.model.BitGrid;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import com.liadkoren.nonogram.service.jobs.model.PartialBitGrid;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -12,16 +16,44 @@ public record JobStatusResponse(
 		UUID id,
 		JobStatus status,
 		Long solutionTimeMs,
-		boolean[][] resultGrid,
-		String errorMessage
+		BitGrid resultGrid, // serialized as rows of booleans
+		String errorMessage,
+		PartialBitGrid partialGrid, // while RUNNING and on TIMEOUT; rows of 1 filled, -1 empty, 0 unknown
+		Double solvedPercent // known cells of the partial grid
 ) {
+	public JobStatusResponse(UUID id, JobStatus status, Long solutionTimeMs, BitGrid resultGrid, String errorMessage) {
+		this(id, status, solutionTimeMs, resultGrid, errorMessage, null);
+	}
+
+	public JobStatusResponse(UUID id, JobStatus status, Long solutionTimeMs, BitGrid resultGrid, String errorMessage,
+	                         PartialBitGrid partialGrid) {
+		this(id, status, solutionTimeMs, resultGrid, errorMessage, partialGrid,
+				partialGrid == null ? null : partialGrid.solvedPercent());
+	}
+
 	public static JobStatusResponse fromEntity(JobEntity entity) {
 		return new JobStatusResponse(
 				entity.getId(),
 				entity.getStatus(),
 				entity.getSolutionTimeMs(),
-				entity.getResultGrid(),
-				entity.getErrorMessage()
+				entity.getResultBits(),
+				entity.getErrorMessage(),
+				entity.getPartialGrid()
+		);
+	}
+
+	public static JobStatusResponse fromCompletion(JobCompletion completion) {
+		return new JobStatusResponse(
+				completion.jobId(),
+				completion.status(),
+				completion.solutionTimeMs(),
+				completion.resultGrid(),
+				completion.errorMessage(),
+				completion.partialGrid()
 		);
 	}
-}
\ No newline at end of file
+
+	public static JobStatusResponse fromProgress(JobProgress progress) {
+		return new JobStatusResponse(progress.jobId(), JobStatus.RUNNING, null, null, null, progress.partialGrid());
+	}
+}
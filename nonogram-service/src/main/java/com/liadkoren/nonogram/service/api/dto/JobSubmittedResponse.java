@@ -1,10 +1,17 @@
 package com.liadkoren.nonogram.service.api.dto;
 
-import com.liadkoren.nonogram.service.jobs.model.JobEntity;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
+import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * @param estimatedCompletion when the job is expected to be done; only for inline puzzles, a URL's puzzle is unknown until scraped
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobSubmittedResponse(UUID jobId, String status, Instant estimatedCompletion) {
 
-public record JobSubmittedResponse(UUID jobId, String status) {
-
+	public JobSubmittedResponse(UUID jobId, String status) {
+		this(jobId, status, null);
+	}
 }
@@ -0,0 +1,200 @@
+package com.liadkoren.nonogram.service.api.wire;
+
+import com.liadkoren.nonogram.core.model.Clues;
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.service.api.dto.JobStatusResponse;
+import com.liadkoren.nonogram.service.api.dto.JobSubmittedResponse;
+import com.liadkoren.nonogram.service.api.dto.PuzzleJobRequest;
+import com.liadkoren.nonogram.service.jobs.model.BitGrid;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import com.liadkoren.nonogram.service.jobs.model.PartialBitGrid;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of the job API messages, served as {@link #MEDIA_TYPE} next to JSON.
+ * <p>
+ * Integers are varints (LEB128; signed ones zig-zag encoded first), strings and grids are
+ * varint-length prefixed, UUIDs are 16 raw bytes.
+ * <pre>
+ * PuzzleJobRequest:     budgetMs(signed) rows cols, then per row and per column: blockCount blocks...
+ * JobSubmittedResponse: jobId status(string) presence-flags [estimatedCompletion: epoch ms(signed)]
+ * JobStatusResponse:    id status(string) presence-flags [solutionTimeMs] [resultGrid: BitGrid bytes] [errorMessage]
+ *                       [partialGrid: PartialBitGrid bytes]
+ * </pre>
+ * A status's solvedPercent is not sent, the reader derives it from the partial grid.
+ */
+public final class WireCodec {
+
+	public static final String MEDIA_TYPE = "application/x-nonogram";
+
+	private static final int HAS_SOLUTION_TIME = 1, HAS_GRID = 2, HAS_ERROR = 4, HAS_PARTIAL = 8;
+	private static final int HAS_ESTIMATE = 1;
+
+	// a varint takes at most 10 bytes, any more means the stream is corrupt
+	private static final int MAX_VARINT_BYTES = 10;
+	// upper bound on lines per side and blocks per clue, so a hostile count can't allocate the heap away
+	private static final int MAX_COUNT = 1 << 16;
+
+	private WireCodec() {}
+
+	// --- PuzzleJobRequest ---
+
+	public static void writePuzzleJobRequest(PuzzleJobRequest request, OutputStream out) throws IOException {
+		writeSignedVarint(out, request.budgetMs());
+		Clues clues = request.puzzle().clues();
+		writeVarint(out, clues.rows().size());
+		writeVarint(out, clues.cols().size());
+		for (int r = 0; r < clues.rows().size(); r++) writeClue(out, clues.rows(), r);
+		for (int c = 0; c < clues.cols().size(); c++) writeClue(out, clues.cols(), c);
+	}
+
+	public static PuzzleJobRequest readPuzzleJobRequest(InputStream in) throws IOException {
+		long budgetMs = readSignedVarint(in);
+		int rows = readCount(in), cols = readCount(in);
+		List<int[]> rowClues = new ArrayList<>(rows), colClues = new ArrayList<>(cols);
+		for (int r = 0; r < rows; r++) rowClues.add(readClue(in));
+		for (int c = 0; c < cols; c++) colClues.add(readClue(in));
+		return new PuzzleJobRequest(new Puzzle(rowClues, colClues), budgetMs);
+	}
+
+	// --- JobSubmittedResponse ---
+
+	public static void writeJobSubmittedResponse(JobSubmittedResponse response, OutputStream out) throws IOException {
+		writeUuid(out, response.jobId());
+		writeString(out, response.status());
+		out.write(response.estimatedCompletion() != null ? HAS_ESTIMATE : 0);
+		if (response.estimatedCompletion() != null) writeSignedVarint(out, response.estimatedCompletion().toEpochMilli());
+	}
+
+	public static JobSubmittedResponse readJobSubmittedResponse(InputStream in) throws IOException {
+		UUID jobId = readUuid(in);
+		String status = readString(in);
+		Instant estimatedCompletion = (readByte(in) & HAS_ESTIMATE) != 0 ? Instant.ofEpochMilli(readSignedVarint(in)) : null;
+		return new JobSubmittedResponse(jobId, status, estimatedCompletion);
+	}
+
+	// --- JobStatusResponse ---
+
+	public static void writeJobStatusResponse(JobStatusResponse response, OutputStream out) throws IOException {
+		writeUuid(out, response.id());
+		writeString(out, response.status().name());
+
+		int flags = (response.solutionTimeMs() != null ? HAS_SOLUTION_TIME : 0)
+				| (response.resultGrid() != null ? HAS_GRID : 0)
+				| (response.errorMessage() != null ? HAS_ERROR : 0)
+				| (response.partialGrid() != null ? HAS_PARTIAL : 0);
+		out.write(flags);
+		if (response.solutionTimeMs() != null) writeSignedVarint(out, response.solutionTimeMs());
+		if (response.resultGrid() != null) writeBytes(out, response.resultGrid().toBytes());
+		if (response.errorMessage() != null) writeString(out, response.errorMessage());
+		if (response.partialGrid() != null) writeBytes(out, response.partialGrid().toBytes());
+	}
+
+	public static JobStatusResponse readJobStatusResponse(InputStream in) throws IOException {
+		UUID id = readUuid(in);
+		JobStatus status = JobStatus.valueOf(readString(in));
+		int flags = readByte(in);
+		Long solutionTimeMs = (flags & HAS_SOLUTION_TIME) != 0 ? readSignedVarint(in) : null;
+		BitGrid grid = (flags & HAS_GRID) != 0 ? BitGrid.fromBytes(readBytes(in)) : null;
+		String errorMessage = (flags & HAS_ERROR) != 0 ? readString(in) : null;
+		PartialBitGrid partialGrid = (flags & HAS_PARTIAL) != 0 ? PartialBitGrid.fromBytes(readBytes(in)) : null;
+		return new JobStatusResponse(id, status, solutionTimeMs, grid, errorMessage, partialGrid);
+	}
+
+	// --- primitives ---
+
+	private static void writeClue(OutputStream out, Clues.Lines lines, int line) throws IOException {
+		int count = lines.blockCount(line);
+		writeVarint(out, count);
+		for (int i = 0; i < count; i++) writeSignedVarint(out, lines.block(line, i)); // validation of block sizes is not the codec's job
+	}
+
+	private static int[] readClue(InputStream in) throws IOException {
+		int[] blocks = new int[readCount(in)];
+		for (int i = 0; i < blocks.length; i++) blocks[i] = Math.toIntExact(readSignedVarint(in));
+		return blocks;
+	}
+
+	static void writeVarint(OutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	static long readVarint(InputStream in) throws IOException {
+		long value = 0;
+		for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+			int b = readByte(in);
+			value |= (long) (b & 0x7F) << (7 * i);
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	private static void writeSignedVarint(OutputStream out, long value) throws IOException {
+		writeVarint(out, (value << 1) ^ (value >> 63));
+	}
+
+	private static long readSignedVarint(InputStream in) throws IOException {
+		long zigzag = readVarint(in);
+		return (zigzag >>> 1) ^ -(zigzag & 1);
+	}
+
+	// lengths and counts must fit an int, anything else is a corrupt or hostile message
+	private static int readLength(InputStream in) throws IOException {
+		long length = readVarint(in);
+		if (length < 0 || length > Integer.MAX_VALUE) throw new IOException("Invalid length " + length);
+		return (int) length;
+	}
+
+	private static int readCount(InputStream in) throws IOException {
+		int count = readLength(in);
+		if (count > MAX_COUNT) throw new IOException("Count " + count + " exceeds " + MAX_COUNT);
+		return count;
+	}
+
+	private static void writeBytes(OutputStream out, byte[] bytes) throws IOException {
+		writeVarint(out, bytes.length);
+		out.write(bytes);
+	}
+
+	private static byte[] readBytes(InputStream in) throws IOException {
+		int length = readLength(in);
+		byte[] bytes = in.readNBytes(length);
+		if (bytes.length != length) throw new EOFException();
+		return bytes;
+	}
+
+	private static void writeString(OutputStream out, String value) throws IOException {
+		writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String readString(InputStream in) throws IOException {
+		return new String(readBytes(in), StandardCharsets.UTF_8);
+	}
+
+	private static void writeUuid(OutputStream out, UUID id) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeLong(id.getMostSignificantBits());
+		data.writeLong(id.getLeastSignificantBits());
+	}
+
+	private static UUID readUuid(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		return new UUID(data.readLong(), data.readLong());
+	}
+
+	private static int readByte(InputStream in) throws IOException {
+		int b = in.read();
+		if (b < 0) throw new EOFException();
+		return b;
+	}
+}
@@ -0,0 +1,20 @@
+package com.liadkoren.nonogram.service.api.wire;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Registers the binary job format after the default converters, so JSON stays the answer
+ * to a missing or wildcard Accept header and binary is only used when asked for.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(new WireMessageConverter());
+	}
+}
@@ -0,0 +1,55 @@
+package com.liadkoren.nonogram.service.api.wire;
+
+import com.liadkoren.nonogram.service.api.dto.JobStatusResponse;
+import com.liadkoren.nonogram.service.api.dto.JobSubmittedResponse;
+import com.liadkoren.nonogram.service.api.dto.PuzzleJobRequest;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads and writes the job API messages as {@value WireCodec#MEDIA_TYPE}, see {@link WireCodec}.
+ */
+public class WireMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+	public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(WireCodec.MEDIA_TYPE);
+
+	public WireMessageConverter() {
+		super(MEDIA_TYPE);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return clazz == PuzzleJobRequest.class || clazz == JobSubmittedResponse.class || clazz == JobStatusResponse.class;
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+		InputStream in = new BufferedInputStream(inputMessage.getBody());
+		try {
+			if (clazz == PuzzleJobRequest.class) return WireCodec.readPuzzleJobRequest(in);
+			if (clazz == JobSubmittedResponse.class) return WireCodec.readJobSubmittedResponse(in);
+			return WireCodec.readJobStatusResponse(in);
+		} catch (IOException | RuntimeException e) {
+			throw new HttpMessageNotReadableException("Malformed " + WireCodec.MEDIA_TYPE + " body: " + e.getMessage(), e, inputMessage);
+		}
+	}
+
+	@Override
+	protected void writeInternal(Object message, HttpOutputMessage outputMessage) throws IOException {
+		BufferedOutputStream out = new BufferedOutputStream(outputMessage.getBody());
+		if (message instanceof PuzzleJobRequest request) WireCodec.writePuzzleJobRequest(request, out);
+		else if (message instanceof JobSubmittedResponse response) WireCodec.writeJobSubmittedResponse(response, out);
+		else if (message instanceof JobStatusResponse response) WireCodec.writeJobStatusResponse(response, out);
+		else throw new HttpMessageNotWritableException("Unsupported type " + message.getClass());
+		out.flush();
+	}
+}
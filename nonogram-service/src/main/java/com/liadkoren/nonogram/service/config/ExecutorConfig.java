@@ -1,21 +1,33 @@
 package com.liadkoren.nonogram.service.config;
 
+import com.liadkoren.nonogram.service.solver.ParallelSolverFactory;
+import com.liadkoren.nonogram.service.solver.RoutingSolverFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
+@Slf4j(topic = "jobs.config")
 public class ExecutorConfig {
 
+	/**
+	 * One thread per job worker loop, see JobListener.
+	 * nonogram.jobs.workers > 0 runs that many workers; 0 (adaptive) runs as many jobs at once as keep the
+	 * CPUs busy without oversubscribing them, see {@link #adaptiveWorkers}.
+	 */
 	@Bean
-	public ExecutorService jobListenerExecutor() {
+	public ThreadPoolExecutor jobListenerExecutor(@Value("${nonogram.jobs.workers:0}") int workers,
+	                                              ParallelSolverFactory parallelSolverFactory, RoutingSolverFactory routingSolverFactory) {
+		int n = workers(workers, Runtime.getRuntime().availableProcessors(), parallelSolverFactory, routingSolverFactory);
+		log.info("Job workers={} ({}), solver parallelism={}, small puzzles single-threaded={}", n, workers > 0 ? "configured" : "adaptive",
+				parallelSolverFactory.getParallelism(), routingSolverFactory.solvesSmallPuzzlesSingleThreaded());
+
 		var ex = new ThreadPoolTaskExecutor();
-		int n = Runtime.getRuntime().availableProcessors();
 		ex.setCorePoolSize(n);
 		ex.setMaxPoolSize(n);
 		ex.setQueueCapacity(0);          // direct handoff → backpressure
@@ -24,5 +36,33 @@ public class ExecutorConfig {
 		return ex.getThreadPoolExecutor();
 	}
 
+	/**
+	 * Sends /jobs/{id}/events, see JobEventStream: a slow client blocks one of these threads, not a solver,
+	 * worker or common-pool thread. Sends beyond the queue are rejected and end their stream.
+	 */
+	@Bean
+	public ThreadPoolExecutor jobEventsExecutor(@Value("${nonogram.jobs.events.threads:4}") int threads,
+	                                            @Value("${nonogram.jobs.events.queue-capacity:1000}") int queueCapacity) {
+		var ex = new ThreadPoolTaskExecutor();
+		ex.setCorePoolSize(threads);
+		ex.setMaxPoolSize(threads);
+		ex.setQueueCapacity(queueCapacity);
+		ex.setThreadNamePrefix("job-events-");
+		ex.initialize();
+		return ex.getThreadPoolExecutor();
+	}
+
+	static int workers(int configured, int cpus, ParallelSolverFactory parallel, RoutingSolverFactory routing) {
+		return configured > 0 ? configured : adaptiveWorkers(cpus, parallel.getParallelism(), routing.solvesSmallPuzzlesSingleThreaded());
+	}
 
+	// Workers count the threads a job actually gets. A job routed to the SimpleSolver runs on its worker
+	// thread alone; large jobs share the one ParallelSolver pool however many run, their workers waiting for it.
+	// With one worker more than the CPUs the pool leaves free, small jobs plus the pool never need more than
+	// the CPUs, whatever the mix (by default the pool is half of them, see ParallelSolverFactory).
+	// Only when every job goes to the pool does a job take solverParallelism threads to itself.
+	static int adaptiveWorkers(int cpus, int solverParallelism, boolean smallJobsSingleThreaded) {
+		if (smallJobsSingleThreaded) return Math.max(1, cpus - solverParallelism + 1);
+		return Math.max(1, cpus / Math.max(1, solverParallelism));
+	}
 }
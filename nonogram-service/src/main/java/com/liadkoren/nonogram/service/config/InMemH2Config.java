@@ -2,18 +2,25 @@ package com.liadkoren.nonogram.service.config;
 
 import lombok.extern.slf4j.Slf4j;
 import org.h2.tools.Server;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.sql.SQLException;
 
+/**
+ * Exposes the in-memory database over TCP, which is also how worker processes reach the jobs table.
+ * Workers connect to the API's server instead of starting their own.
+ */
 @Configuration
+@ConditionalOnExpression("'${nonogram.role:all}' != 'worker'")
 @Slf4j(topic = "h2.config")
 public class InMemH2Config {
 	@Bean(initMethod = "start", destroyMethod = "stop")
-	public Server h2Server() throws SQLException {
+	public Server h2Server(@Value("${nonogram.h2.tcp-port:9092}") int port) throws SQLException {
 		Server s = Server.createTcpServer(
-				"-tcp", "-tcpAllowOthers", "-tcpPort", "9092");
+				"-tcp", "-tcpAllowOthers", "-tcpPort", String.valueOf(port));
 		log.info("H2 server started and listening on port {}", s.getPort());
 		return s;
 	}
@@ -2,20 +2,29 @@ package com.liadkoren.nonogram.service.config;
 
 import com.liadkoren.nonogram.scraper.JapaneseNonogramScraper;
 import com.liadkoren.nonogram.scraper.OnlineNonogramScraper;
+import com.liadkoren.nonogram.scraper.ScrapeCache;
 import com.liadkoren.nonogram.scraper.ScraperRouter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
 public class NonogramScraperConfig {
 
 	@Bean
-	public ScraperRouter scraperRouter() {
+	public ScrapeCache scrapeCache(@Value("${nonogram.scraper.cache.ttl:10m}") Duration ttl,
+	                               @Value("${nonogram.scraper.cache.max-entries:1000}") int maxEntries) {
+		return new ScrapeCache(ttl, maxEntries);
+	}
+
+	@Bean
+	public ScraperRouter scraperRouter(ScrapeCache scrapeCache) {
 		return new ScraperRouter(List.of(
-				new OnlineNonogramScraper(),
-				new JapaneseNonogramScraper()
+				new OnlineNonogramScraper(scrapeCache),
+				new JapaneseNonogramScraper(scrapeCache)
 		));
 	}
 
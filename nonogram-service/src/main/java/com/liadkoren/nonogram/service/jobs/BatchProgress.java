@@ -0,0 +1,29 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Aggregate status of the jobs of one /jobs/batch submission.
+ *
+ * @param total     jobs in the batch, 0 if there is no such batch
+ * @param succeeded jobs in SUCCESS
+ * @param failed    jobs in FAIL, including rejected ones
+ */
+public record BatchProgress(UUID batchId, long total, long queued, long running, long succeeded, long failed) {
+
+	static BatchProgress of(UUID batchId, Map<JobStatus, Long> counts) {
+		long queued = counts.getOrDefault(JobStatus.QUEUED, 0L);
+		long running = counts.getOrDefault(JobStatus.RUNNING, 0L);
+		long succeeded = counts.getOrDefault(JobStatus.SUCCESS, 0L);
+		long failed = counts.getOrDefault(JobStatus.FAIL, 0L);
+		return new BatchProgress(batchId, queued + running + succeeded + failed, queued, running, succeeded, failed);
+	}
+
+	/** every job finished, one way or the other */
+	public boolean isDone() {
+		return total > 0 && succeeded + failed == total;
+	}
+}
@@ -0,0 +1,307 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Durable queue kept in the jobs table itself: a job is waiting while its row is QUEUED, so queued
+ * jobs survive a restart, and every process connected to the same database (the API and any number
+ * of workers, see application-worker.yml) shares them.
+ * <p>
+ * The order is InMemoryJobQueue's: cheapest estimated job first, aged by {@code agingPerSecond} for
+ * every second it waited. Submitting a job writes that priority, {@code cost + agingPerSecond * submit time},
+ * to the row's queue_priority, with the submit time in seconds since the epoch so that every process
+ * ages jobs alike; a QUEUED row is claimed only once it was submitted. Queued rows left without a
+ * priority (their process stopped before it submitted them) are given one at startup, aged from
+ * their creation.
+ * <p>
+ * Jobs are claimed in batches with {@code SELECT ... FOR UPDATE SKIP LOCKED}, at most as many as this
+ * process has idle workers, so claimers never block each other and no job sits claimed but unstarted.
+ * A claimed job is RUNNING from its claim on (the claim sets its start time too).
+ * A claim is a lease of budget + {@code leaseMargin}: a job still RUNNING after that (its worker
+ * crashed or hung) is queued again, and failed once it was claimed {@code maxAttempts} times.
+ * Expired leases are collected at startup and then every few seconds by the polling workers.
+ */
+@Component
+@ConditionalOnProperty(name = "nonogram.jobs.queue.type", havingValue = "db")
+@Slf4j(topic = "jobs.queue")
+public class DbJobQueue implements JobQueue {
+
+	private static final Duration REAP_INTERVAL = Duration.ofSeconds(5);
+
+	// plain JDBC: Hibernate's H2 dialect drops SKIP LOCKED from a locking JPA query
+	private static final String LOCK_NEXT_QUEUED = """
+			select id from jobs
+			where status = 'QUEUED' and queue_priority is not null order by queue_priority, created_at
+			fetch first ? rows only for update skip locked""";
+
+	// the whole locked batch in one statement, each lease as long as its job's budget; FINAL TABLE reads back what it claimed.
+	// The claim starts the job too: JobStore.start only loads it, so a job costs the worker no write before its result
+	private static final String CLAIM_LOCKED = """
+			select id, created_at from final table (
+				update jobs set status = 'RUNNING', started_at = ?, lease_owner = ?,
+					lease_expires_at = dateadd(millisecond, budget_ms + ?, ?), attempts = attempts + 1
+				where status = 'QUEUED' and id in (%s))""";
+
+	private static final String SET_PRIORITY = "update jobs set queue_priority = ? where id = ? and status = 'QUEUED'";
+
+	private static final String PRIORITIZE_UNSUBMITTED = """
+			update jobs set queue_priority = coalesce(estimated_cost, 0) + ? * extract(epoch from created_at)
+			where status = 'QUEUED' and queue_priority is null""";
+
+	private final JobRepository repo;
+	private final JdbcTemplate jdbc;
+	private final TransactionTemplate tx;
+	private final int capacity;
+	private final double agingPerSecond;
+	private final int claimBatch;
+	private final int maxAttempts;
+	private final Duration pollInterval;
+	private final Duration leaseMargin;
+
+	// holder of the leases this process claims
+	private final String owner = UUID.randomUUID().toString();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+	private final ArrayDeque<Claimed> claimed = new ArrayDeque<>(); // claimed by this process, not taken yet
+	private int takers;        // threads inside take()
+	private boolean polling;   // one taker at a time queries the database, the others wait for its batch
+	private long nextPollAt;   // after an empty poll, takers wait until then (System.nanoTime)
+	private long nextReapAt;   // only touched by the polling taker
+
+	// the capacity check counts QUEUED rows at most once per pollInterval, and adds the jobs submitted
+	// here in between; the capacity is a soft bound across processes anyway
+	private long lastCount, submittedSinceCount, countedAt;
+	private boolean counted;
+
+	// only jobs taken by this process
+	private final WaitTimes waitTimes = new WaitTimes();
+
+	private record Claimed(UUID id, Instant createdAt) {
+	}
+
+	public DbJobQueue(JobRepository repo, JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+	                  @Value("${nonogram.jobs.queue.capacity:" + InMemoryJobQueue.DEFAULT_CAPACITY + "}") int capacity,
+	                  @Value("${nonogram.jobs.queue.aging-per-second:" + InMemoryJobQueue.DEFAULT_AGING_PER_SECOND + "}") double agingPerSecond,
+	                  @Value("${nonogram.jobs.queue.claim-batch:8}") int claimBatch,
+	                  @Value("${nonogram.jobs.queue.poll-interval:100ms}") Duration pollInterval,
+	                  @Value("${nonogram.jobs.queue.lease-margin:60s}") Duration leaseMargin,
+	                  @Value("${nonogram.jobs.queue.max-attempts:3}") int maxAttempts) {
+		if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+		if (agingPerSecond < 0) throw new IllegalArgumentException("agingPerSecond must be >= 0");
+		if (claimBatch <= 0) throw new IllegalArgumentException("claimBatch must be > 0");
+		if (maxAttempts <= 0) throw new IllegalArgumentException("maxAttempts must be > 0");
+		if (pollInterval.isNegative() || pollInterval.isZero()) throw new IllegalArgumentException("pollInterval must be > 0");
+		if (leaseMargin.isNegative()) throw new IllegalArgumentException("leaseMargin must be >= 0");
+		this.repo = repo;
+		this.jdbc = jdbc;
+		this.tx = new TransactionTemplate(transactionManager);
+		this.capacity = capacity;
+		this.agingPerSecond = agingPerSecond;
+		this.claimBatch = claimBatch;
+		this.pollInterval = pollInterval;
+		this.leaseMargin = leaseMargin;
+		this.maxAttempts = maxAttempts;
+	}
+
+	// jobs left RUNNING by a crashed process are queued again (once their lease ran out), queued ones never submitted are submitted
+	@PostConstruct
+	public void recover() {
+		log.info("Database job queue owner={} (capacity={} agingPerSecond={} claimBatch={} pollInterval={} leaseMargin={} maxAttempts={})",
+				owner, capacity, agingPerSecond, claimBatch, pollInterval, leaseMargin, maxAttempts);
+		reapExpired();
+		int unsubmitted = jdbc.update(PRIORITIZE_UNSUBMITTED, agingPerSecond);
+		if (unsubmitted > 0) log.warn("Queued jobs that were never submitted: {}", unsubmitted);
+		nextReapAt = System.nanoTime() + REAP_INTERVAL.toNanos();
+	}
+
+	// claimed jobs no worker took (all of them stopped while a batch came in) go back for other processes
+	@PreDestroy
+	public void releaseClaimed() {
+		List<Claimed> leftover;
+		lock.lock();
+		try {
+			leftover = new ArrayList<>(claimed);
+			claimed.clear();
+		} finally {
+			lock.unlock();
+		}
+		for (Claimed job : leftover) requeue(job.id());
+	}
+
+	/**
+	 * The job is already a QUEUED row; this enforces the capacity, writes the job's priority, which
+	 * lets workers claim it, and lets waiting workers of this process look for it right away.
+	 */
+	@Override
+	public void submit(UUID jobId, double cost) {
+		submitAll(List.of(jobId), new double[]{cost});
+	}
+
+	@Override
+	public void submitAll(List<UUID> jobIds, double[] costs) {
+		if (jobIds.size() != costs.length) throw new IllegalArgumentException("one cost per job required");
+		jobIds.forEach(jobId -> Objects.requireNonNull(jobId, "jobId"));
+		if (queuedWith(jobIds.size()) > capacity) throw new QueueFullException(capacity);
+
+		double aging = agingPerSecond * (System.currentTimeMillis() / 1000.0);
+		List<Object[]> priorities = new ArrayList<>(jobIds.size());
+		for (int i = 0; i < costs.length; i++) priorities.add(new Object[]{costs[i] + aging, jobIds.get(i)});
+		jdbc.batchUpdate(SET_PRIORITY, priorities);
+
+		lock.lock();
+		try {
+			submittedSinceCount += jobIds.size();
+			nextPollAt = System.nanoTime();
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// queued jobs including the incoming ones, whose rows are already QUEUED
+	private long queuedWith(int incoming) {
+		lock.lock();
+		try {
+			if (counted && System.nanoTime() - countedAt < pollInterval.toNanos()) return lastCount + submittedSinceCount + incoming;
+		} finally {
+			lock.unlock();
+		}
+
+		long count = repo.countByStatus(JobStatus.QUEUED);
+		lock.lock();
+		try {
+			lastCount = count - incoming; // submitAll() adds them back once they are accepted
+			submittedSinceCount = 0;
+			countedAt = System.nanoTime();
+			counted = true;
+		} finally {
+			lock.unlock();
+		}
+		return count;
+	}
+
+	@Override
+	public UUID take() throws InterruptedException {
+		lock.lockInterruptibly();
+		takers++;
+		try {
+			while (true) {
+				Claimed next = claimed.poll();
+				if (next != null) {
+					waitTimes.record(Duration.between(next.createdAt(), Instant.now()).toNanos());
+					return next.id();
+				}
+
+				long untilPoll = nextPollAt - System.nanoTime();
+				if (polling) {
+					changed.await();
+					continue;
+				}
+				if (untilPoll > 0) {
+					changed.awaitNanos(untilPoll);
+					continue;
+				}
+
+				polling = true;
+				int batch = Math.min(claimBatch, takers);
+				List<Claimed> got = List.of();
+				lock.unlock();
+				try {
+					got = poll(batch);
+				} finally {
+					lock.lock();
+					polling = false;
+				}
+
+				claimed.addAll(got);
+				if (got.isEmpty()) nextPollAt = System.nanoTime() + pollInterval.toNanos();
+				changed.signalAll();
+			}
+		} finally {
+			takers--;
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void requeue(UUID jobId) {
+		repo.release(jobId, owner);
+	}
+
+	@Override
+	public int size() {
+		return (int) repo.countByStatus(JobStatus.QUEUED);
+	}
+
+	@Override
+	public QueueStats stats() {
+		return waitTimes.stats(size(), capacity);
+	}
+
+	/** @return jobs whose lease had expired: queued again plus failed for good */
+	public int reapExpired() {
+		Instant now = Instant.now();
+		int requeued = repo.requeueExpired(now, maxAttempts);
+		int failed = repo.failExpired(now, maxAttempts, "ABANDONED: lease expired on all " + maxAttempts + " attempts");
+		if (requeued + failed > 0) log.warn("Expired job leases: requeued={} failed={}", requeued, failed);
+		return requeued + failed;
+	}
+
+	private List<Claimed> poll(int batch) {
+		try {
+			if (System.nanoTime() - nextReapAt >= 0) {
+				nextReapAt = System.nanoTime() + REAP_INTERVAL.toNanos();
+				reapExpired();
+			}
+			return claim(batch);
+		} catch (DataAccessException e) {
+			// e.g. a worker whose API process is restarting: keep polling until the database is back
+			log.warn("Polling for queued jobs failed: {}", e.getMessage());
+			return List.of();
+		}
+	}
+
+	// the selected rows stay locked until the claim commits; rows a concurrent claimer locked are skipped
+	private List<Claimed> claim(int batch) {
+		return tx.execute(status -> {
+			List<UUID> next = jdbc.queryForList(LOCK_NEXT_QUEUED, UUID.class, batch);
+			if (next.isEmpty()) return List.of();
+
+			OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+			Object[] args = new Object[4 + next.size()];
+			args[0] = now;
+			args[1] = owner;
+			args[2] = leaseMargin.toMillis();
+			args[3] = now;
+			for (int i = 0; i < next.size(); i++) args[4 + i] = next.get(i);
+			String placeholders = String.join(", ", Collections.nCopies(next.size(), "?"));
+			return jdbc.query(CLAIM_LOCKED.formatted(placeholders), (rs, i) -> new Claimed(
+					rs.getObject("id", UUID.class),
+					rs.getObject("created_at", OffsetDateTime.class).toInstant()), args);
+		});
+	}
+}
@@ -0,0 +1,10 @@
+package com.liadkoren.nonogram.service.jobs;
+
+/**
+ * Thrown when a job is submitted whose predicted solve time is far beyond its budget, see JobAdmission.
+ */
+public class HopelessJobException extends RuntimeException {
+	public HopelessJobException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,145 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded priority queue of job ids, cheapest estimated job first.
+ * <p>
+ * A job's priority is its estimated cost minus {@code agingPerSecond} for every second it waited,
+ * so a big job is eventually taken ahead of newly submitted small ones. Since every waiting job
+ * ages at the same rate, that order equals ordering by {@code cost + agingPerSecond * submitTime},
+ * which is fixed at submit time. Equal priorities are taken in submission order.
+ * <p>
+ * Lives in the heap of one process: queued jobs are lost on restart and can't be taken by other processes.
+ */
+@Component
+@ConditionalOnProperty(name = "nonogram.jobs.queue.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryJobQueue implements JobQueue {
+
+	public static final int DEFAULT_CAPACITY = 1000;
+	public static final double DEFAULT_AGING_PER_SECOND = 1000;
+
+	private final int capacity;
+	private final double agingPerSecond;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+	private long sequence;
+
+	// the entry each thread took last, so requeue() can put it back where it was
+	private final ThreadLocal<Entry> lastTaken = new ThreadLocal<>();
+
+	private final WaitTimes waitTimes = new WaitTimes();
+
+	private final long createdAt = System.nanoTime();
+
+	public InMemoryJobQueue() {
+		this(DEFAULT_CAPACITY, DEFAULT_AGING_PER_SECOND);
+	}
+
+	@Autowired
+	public InMemoryJobQueue(@Value("${nonogram.jobs.queue.capacity:" + DEFAULT_CAPACITY + "}") int capacity,
+	                        @Value("${nonogram.jobs.queue.aging-per-second:" + DEFAULT_AGING_PER_SECOND + "}") double agingPerSecond) {
+		if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+		if (agingPerSecond < 0) throw new IllegalArgumentException("agingPerSecond must be >= 0");
+		this.capacity = capacity;
+		this.agingPerSecond = agingPerSecond;
+	}
+
+	@Override
+	public void submit(UUID jobId, double cost) {
+		submitAll(List.of(jobId), new double[]{cost});
+	}
+
+	@Override
+	public void submitAll(List<UUID> jobIds, double[] costs) {
+		if (jobIds.size() != costs.length) throw new IllegalArgumentException("one cost per job required");
+		jobIds.forEach(jobId -> Objects.requireNonNull(jobId, "jobId"));
+
+		lock.lock();
+		try {
+			if (queue.size() + jobIds.size() > capacity) throw new QueueFullException(capacity);
+
+			long now = System.nanoTime();
+			double aging = agingPerSecond * ((now - createdAt) / 1e9);
+			for (int i = 0; i < costs.length; i++) queue.add(new Entry(jobIds.get(i), costs[i] + aging, sequence++, now));
+			if (costs.length == 1) notEmpty.signal();
+			else notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public UUID take() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (queue.isEmpty()) notEmpty.await(); // blocks until something is available
+
+			Entry entry = queue.poll();
+			lastTaken.set(entry);
+			waitTimes.record(System.nanoTime() - entry.submittedAt);
+			return entry.jobId;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Back in with the priority it was taken with, ahead of the jobs submitted since, and never rejected
+	 * for capacity: it was admitted already. Only the thread that took the job has its entry; a job handed
+	 * back by another thread is queued as a new job of cost 0.
+	 */
+	@Override
+	public void requeue(UUID jobId) {
+		Entry taken = lastTaken.get();
+		lastTaken.remove();
+
+		lock.lock();
+		try {
+			if (taken != null && taken.jobId.equals(jobId)) {
+				queue.add(taken);
+			} else {
+				long now = System.nanoTime();
+				queue.add(new Entry(jobId, agingPerSecond * ((now - createdAt) / 1e9), sequence++, now));
+			}
+			notEmpty.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.lock();
+		try {
+			return queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public QueueStats stats() {
+		return waitTimes.stats(size(), capacity);
+	}
+
+	private record Entry(UUID jobId, double priority, long sequence, long submittedAt) implements Comparable<Entry> {
+		@Override
+		public int compareTo(Entry other) {
+			int byPriority = Double.compare(priority, other.priority);
+			return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.service.solver.PuzzleCostEstimator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides, before a puzzle job is queued, how long it will probably take and whether it stands a
+ * chance within its budget.
+ * <p>
+ * The solve time is the PuzzleCostEstimator cost times milliseconds per cost unit, the median
+ * ratio over recently solved jobs. Jobs that ran out of budget say nothing about how long they
+ * would have taken, so only successes are used. A job predicted to exceed its budget is queued
+ * behind the others; one predicted to need {@code reject-ratio} times its budget is rejected.
+ */
+@Component
+@Slf4j(topic = "jobs.admission")
+public class JobAdmission {
+
+	static final int MIN_SAMPLES = 20, MAX_SAMPLES = 1000;
+
+	/**
+	 * @param cost     estimated cost, see PuzzleCostEstimator
+	 * @param priority queue cost: the cost, raised for a job that will likely time out
+	 * @param solveMs  predicted solve time, at most the budget
+	 */
+	record Admission(double cost, double priority, long solveMs) {}
+
+	private final JobRepository repo;
+	private final double rejectRatio, hopelessCostFactor;
+	private final Duration calibrationInterval;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "admission-calibration");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private volatile double msPerCost;
+
+	public JobAdmission(JobRepository repo,
+	                    @Value("${nonogram.jobs.admission.default-ms-per-cost:0.0003}") double defaultMsPerCost,
+	                    @Value("${nonogram.jobs.admission.reject-ratio:10}") double rejectRatio,
+	                    @Value("${nonogram.jobs.admission.hopeless-cost-factor:4}") double hopelessCostFactor,
+	                    @Value("${nonogram.jobs.admission.calibration-interval:5m}") Duration calibrationInterval) {
+		if (defaultMsPerCost <= 0) throw new IllegalArgumentException("default-ms-per-cost must be > 0");
+		if (rejectRatio < 0) throw new IllegalArgumentException("reject-ratio must be >= 0");
+		if (hopelessCostFactor < 1) throw new IllegalArgumentException("hopeless-cost-factor must be >= 1");
+		if (calibrationInterval.isNegative() || calibrationInterval.isZero()) throw new IllegalArgumentException("calibration-interval must be > 0");
+		this.repo = repo;
+		this.rejectRatio = rejectRatio;
+		this.hopelessCostFactor = hopelessCostFactor;
+		this.calibrationInterval = calibrationInterval;
+		this.msPerCost = defaultMsPerCost;
+	}
+
+	@PostConstruct
+	public void start() {
+		scheduler.scheduleWithFixedDelay(this::calibrate, 0, calibrationInterval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		scheduler.shutdownNow();
+	}
+
+	/**
+	 * @throws HopelessJobException if the job is predicted to need more than reject-ratio times its budget
+	 */
+	Admission admit(Puzzle puzzle, long budgetMs) {
+		double cost = PuzzleCostEstimator.estimate(puzzle);
+		long solveMs = Math.round(cost * msPerCost);
+		if (rejectRatio > 0 && solveMs > rejectRatio * budgetMs) {
+			throw new HopelessJobException("Job is predicted to need ~" + solveMs + "ms to solve, its budget is " + budgetMs + "ms");
+		}
+
+		boolean hopeless = solveMs > budgetMs;
+		return new Admission(cost, hopeless ? cost * hopelessCostFactor : cost, Math.min(solveMs, budgetMs));
+	}
+
+	double msPerCost() {
+		return msPerCost;
+	}
+
+	void calibrate() {
+		try {
+			List<SolveTimeSample> samples = repo.findSolveTimeSamples(PageRequest.of(0, MAX_SAMPLES));
+			double fitted = fit(samples);
+			if (Double.isNaN(fitted)) return; // too few solved jobs yet, keep what we have
+			msPerCost = fitted;
+			log.info("admission.calibrated msPerCost={} samples={}", fitted, samples.size());
+		} catch (DataAccessException e) {
+			log.warn("admission calibration failed, retrying in {}: {}", calibrationInterval, e.getMessage());
+		}
+	}
+
+	// median ms per cost unit, NaN below MIN_SAMPLES usable samples; the median shrugs off the few jobs that needed deep search
+	static double fit(List<SolveTimeSample> samples) {
+		double[] ratios = samples.stream()
+				.filter(s -> s.estimatedCost() > 0 && s.solutionTimeMs() > 0) // 0ms only says "under a millisecond"
+				.mapToDouble(s -> s.solutionTimeMs() / s.estimatedCost())
+				.toArray();
+		if (ratios.length < MIN_SAMPLES) return Double.NaN;
+
+		Arrays.sort(ratios);
+		int mid = ratios.length / 2;
+		return ratios.length % 2 == 1 ? ratios[mid] : (ratios[mid - 1] + ratios[mid]) / 2;
+	}
+}
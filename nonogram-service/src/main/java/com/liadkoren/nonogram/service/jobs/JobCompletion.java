@@ -0,0 +1,24 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import com.liadkoren.nonogram.service.jobs.model.BitGrid;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import com.liadkoren.nonogram.service.jobs.model.PartialBitGrid;
+
+import java.util.UUID;
+
+/**
+ * Final state of a job, as written by the transition that finished it; enough to answer a status
+ * request without reading the job again.
+ *
+ * @param status      SUCCESS or FAIL
+ * @param partialGrid what was deduced by a job that ran out of budget, otherwise null
+ */
+public record JobCompletion(UUID jobId, JobStatus status, Long solutionTimeMs, BitGrid resultGrid, String errorMessage,
+                            PartialBitGrid partialGrid) {
+
+	static JobCompletion of(JobEntity job) {
+		return new JobCompletion(job.getId(), job.getStatus(), job.getSolutionTimeMs(), job.getResultBits(), job.getErrorMessage(),
+				job.getPartialGrid());
+	}
+}
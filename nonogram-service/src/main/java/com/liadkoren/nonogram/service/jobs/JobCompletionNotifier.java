@@ -0,0 +1,73 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Wakes the requests waiting for a job to finish (long-poll and SSE in JobController), and stops
+ * the solve of a job that was cancelled while JobExecutor runs it.
+ * JobStore fires it when it marks a job SUCCESS or FAIL in this process; in the api and worker
+ * roles, RemoteCompletionPoller fires it for jobs finished by the other processes.
+ * <p>
+ * Progress of running jobs is passed on to watchers too, but only within the process that runs
+ * the job; other processes see it in the stored job.
+ */
+@Component
+public class JobCompletionNotifier {
+
+	private final ConcurrentHashMap<UUID, List<CompletableFuture<JobCompletion>>> waiters = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<UUID, List<Consumer<JobProgress>>> watchers = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers a waiter; register before reading the job, so a completion in between is not missed.
+	 * Every waiter must be {@link #forget forgotten} once it stops waiting.
+	 */
+	public CompletableFuture<JobCompletion> await(UUID jobId) {
+		CompletableFuture<JobCompletion> waiter = new CompletableFuture<>();
+		waiters.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>()).add(waiter);
+		return waiter;
+	}
+
+	public void forget(UUID jobId, CompletableFuture<JobCompletion> waiter) {
+		waiters.computeIfPresent(jobId, (id, list) -> {
+			list.remove(waiter);
+			return list.isEmpty() ? null : list;
+		});
+	}
+
+	public void completed(JobCompletion completion) {
+		List<CompletableFuture<JobCompletion>> woken = waiters.remove(completion.jobId());
+		if (woken == null) return;
+		for (CompletableFuture<JobCompletion> waiter : woken) waiter.complete(completion);
+	}
+
+	/** Called on the solver thread that made the progress, so the watcher should hand it off quickly */
+	public void watch(UUID jobId, Consumer<JobProgress> watcher) {
+		watchers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>()).add(watcher);
+	}
+
+	public void unwatch(UUID jobId, Consumer<JobProgress> watcher) {
+		watchers.computeIfPresent(jobId, (id, list) -> {
+			list.remove(watcher);
+			return list.isEmpty() ? null : list;
+		});
+	}
+
+	public void progressed(JobProgress progress) {
+		List<Consumer<JobProgress>> watching = watchers.get(progress.jobId());
+		if (watching == null) return;
+		for (Consumer<JobProgress> watcher : watching) watcher.accept(progress);
+	}
+
+	/** Jobs that someone is waiting for */
+	public Set<UUID> awaited() {
+		return Set.copyOf(waiters.keySet());
+	}
+}
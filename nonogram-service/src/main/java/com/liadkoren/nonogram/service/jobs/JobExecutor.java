@@ -2,18 +2,22 @@ package com.liadkoren.nonogram.service.jobs;
 
 import com.liadkoren.nonogram.core.model.Puzzle;
 import com.liadkoren.nonogram.core.model.SolveResult;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
+import com.liadkoren.nonogram.core.ports.ProgressListener;
 import com.liadkoren.nonogram.core.ports.Scraper;
 import com.liadkoren.nonogram.core.ports.SolverFactory;
 import com.liadkoren.nonogram.scraper.ScraperRouter;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity;
+import com.liadkoren.nonogram.service.solver.InvalidPuzzleException;
+import com.liadkoren.nonogram.service.solver.PuzzleValidator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URI;
 import java.time.Duration;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j(topic = "jobs.processor")
@@ -22,51 +26,90 @@ public class JobExecutor {
 	private final JobStore jobStore;
 	private final SolverFactory solverFactory;
 	private final ScraperRouter scraperRouter;
+	private final JobCompletionNotifier completionNotifier;
 
-	public JobExecutor(JobStore jobStore, @Qualifier(value = "parallelSolverFactory") SolverFactory solverFactory, ScraperRouter scraperRouter) {
+	public JobExecutor(JobStore jobStore, @Qualifier(value = "cachingSolverFactory") SolverFactory solverFactory, ScraperRouter scraperRouter,
+	                   JobCompletionNotifier completionNotifier) {
 		this.jobStore = jobStore;
 		this.solverFactory = solverFactory;
 		this.scraperRouter = scraperRouter;
+		this.completionNotifier = completionNotifier;
 	}
 
 	/**
 	 * Process a single job from the store, updating its status as it goes.
 	 * This method is synchronous and blocking; it should be called from a worker thread.
+	 * No transaction is held while the job runs; every status change is its own guarded update,
+	 * so a job that is no longer queued (taken by another worker, already done) is skipped.
+	 * A job finished by anyone else while it runs (cancelled, abandoned) stops its solve.
+	 * The run's updates only apply to the attempt it started: if its lease ran out and the job was
+	 * claimed again, its result is dropped and the solve stops at its next progress report.
 	 *
 	 * @param jobId the ID of the job to process
 	 */
-	@Transactional
 	public void processJob(UUID jobId) {
-		JobEntity jobEntity = jobStore.find(jobId)
-				.orElseThrow(() -> new IllegalArgumentException("Job not found: " + jobId));
+		// registered before the job starts, so a cancellation right after the start isn't missed
+		CompletableFuture<JobCompletion> finished = completionNotifier.await(jobId);
+		try {
+			processJob(jobId, finished);
+		} finally {
+			completionNotifier.forget(jobId, finished);
+		}
+	}
+
+	private void processJob(UUID jobId, CompletableFuture<JobCompletion> finished) {
+		JobEntity jobEntity = jobStore.start(jobId).orElse(null);
+		if (jobEntity == null) {
+			log.warn("Job {} skipped, it is missing or not waiting to run", jobId);
+			return;
+		}
 
+		int attempt = jobEntity.getAttempts();
 		log.info("Job {} starting (source={} budgetMs={})", jobEntity.getId(),
 				jobEntity.getSourceType() == JobEntity.JobSourceType.URL ? jobEntity.getSourceUrl() : "inline puzzle",
 				jobEntity.getBudgetMs());
-		jobStore.markRunning(jobEntity.getId());
 
 		Puzzle puzzle;
 		try {
 			puzzle = getPuzzleForJob(jobEntity);
 		} catch (Exception e) {
 			log.error("Job {} failed during scraping. Reason: {}", jobEntity.getId(), e.getMessage());
-			jobStore.markFailed(jobEntity.getId(), e.getMessage());
+			jobStore.markFailed(jobEntity.getId(), attempt, e.getMessage());
+			return;
+		}
+
+		// a scraped puzzle is seen here for the first time; an inline one was checked on submit, but costs nothing to check again
+		try {
+			PuzzleValidator.validate(puzzle);
+		} catch (InvalidPuzzleException e) {
+			log.warn("Job {} has an invalid puzzle: {}", jobEntity.getId(), e.getMessage());
+			jobStore.markFailed(jobEntity.getId(), attempt, "INVALID: " + e.getMessage());
 			return;
 		}
 
 		// Solve the puzzle
 		try {
-			SolveResult result = solverFactory.create(puzzle, Duration.ofMillis(jobEntity.getBudgetMs())).solve();
+			UUID id = jobEntity.getId();
+			CancellationToken cancellation = new CancellationToken();
+			ProgressListener progress = partial -> {
+				if (!jobStore.saveProgress(id, attempt, partial)) cancellation.cancel(); // done, or no longer ours
+			};
+			finished.thenRun(cancellation::cancel);
+			SolveResult result = solverFactory.create(puzzle, Duration.ofMillis(jobEntity.getBudgetMs()), progress, cancellation).solve();
 
 			switch (result.status()) {
-				case SUCCESS -> jobStore.markSuccess(jobEntity.getId(), result.grid(), result.duration().toMillis());
-				case TIMEOUT -> jobStore.markFailed(jobEntity.getId(), "TIMEOUT");
-				case UNSOLVABLE -> jobStore.markFailed(jobEntity.getId(), "UNSOLVABLE: " + result.reason());
-				case ERROR -> jobStore.markFailed(jobEntity.getId(), "ERROR: " + result.reason());
+				case SUCCESS -> jobStore.markSuccess(jobEntity.getId(), attempt, result.solution(), result.duration().toMillis());
+				case TIMEOUT -> jobStore.markTimedOut(jobEntity.getId(), attempt, result.partial());
+				case UNSOLVABLE -> jobStore.markFailed(jobEntity.getId(), attempt, "UNSOLVABLE: " + result.reason());
+				case ERROR -> jobStore.markFailed(jobEntity.getId(), attempt, "ERROR: " + result.reason());
+				case CANCELLED -> {
+					log.info("Job {} stopped after {} ms, it was finished or claimed again elsewhere", id, result.duration().toMillis());
+					return;
+				}
 			}
 
 		} catch (Exception e) {
-			jobStore.markFailed(jobEntity.getId(), "Solver Error: " + e.getMessage());
+			jobStore.markFailed(jobEntity.getId(), attempt, "Solver Error: " + e.getMessage());
 		}
 
 		log.info("Job {} completed", jobEntity.getId());
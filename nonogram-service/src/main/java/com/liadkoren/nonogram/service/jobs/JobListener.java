@@ -5,63 +5,140 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+// not in the api role: there the jobs are taken by separate worker processes
 @Slf4j(topic = "jobs.listener")
 @Service
+@ConditionalOnExpression("'${nonogram.role:all}' != 'api'")
 public class JobListener {
 
-	private final ExecutorService jobListenerExecutor;
+	private final ThreadPoolExecutor jobListenerExecutor;
 	private final JobQueue jobQueue;
 	private final JobExecutor jobExecutor;
+	private final Duration drainTimeout;
 
-	private Future<?> workerFuture;
+	// one run loop per executor thread; the executor is sized to the worker count in ExecutorConfig
+	private final List<Future<?>> workerFutures = new ArrayList<>();
+	private final List<Worker> workers = new CopyOnWriteArrayList<>();
 
-	public JobListener(@Qualifier("jobListenerExecutor") ExecutorService jobListenerExecutor, JobQueue jobQueue, JobExecutor jobExecutor) {
+	// set on shutdown: loops finish their current job but take no new ones
+	private volatile boolean draining;
+
+	public JobListener(@Qualifier("jobListenerExecutor") ThreadPoolExecutor jobListenerExecutor, JobQueue jobQueue, JobExecutor jobExecutor,
+	                   @Value("${nonogram.jobs.drain-timeout:30s}") Duration drainTimeout) {
 		this.jobListenerExecutor = jobListenerExecutor;
 		this.jobQueue = jobQueue;
 		this.jobExecutor = jobExecutor;
+		this.drainTimeout = drainTimeout;
 	}
 
 	@PostConstruct
 	public void start() {
 		// This method is called by Spring after the bean is created.
-		// We submit the loop as a task and store its Future.
-		this.workerFuture = jobListenerExecutor.submit(this::runLoop);
+		// We submit one loop per worker thread and store their Futures.
+		int workerCount = jobListenerExecutor.getCorePoolSize();
+		for (int i = 0; i < workerCount; i++) {
+			workerFutures.add(jobListenerExecutor.submit(this::runLoop));
+		}
+		log.info("Started {} job workers", workerCount);
 	}
 
 	@PreDestroy
 	public void stop() {
-		if (workerFuture != null) {
-			log.info("Interrupting worker thread...");
-			workerFuture.cancel(true);
+		log.info("Draining job workers (timeout {})...", drainTimeout);
+		draining = true;
+
+		// wake the workers that wait for a job; busy ones see the flag once their job is done
+		for (Worker worker : workers) worker.wakeIfIdle();
+
+		long deadline = System.nanoTime() + drainTimeout.toNanos();
+		for (Future<?> future : workerFutures) {
+			try {
+				future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				log.warn("Job worker did not drain in time; interrupting it");
+				future.cancel(true);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				future.cancel(true);
+			} catch (CancellationException | ExecutionException ignored) {
+				// loop already gone
+			}
 		}
+
+		for (WorkerStats stats : workerStats()) {
+			log.info("worker.stats worker={} jobs={} busyMs={}", stats.worker(), stats.jobsProcessed(), stats.busyTime().toMillis());
+		}
+	}
+
+	public List<WorkerStats> workerStats() {
+		return workers.stream().map(Worker::stats).toList();
 	}
 
 	public void runLoop() {
+		Worker worker = new Worker(Thread.currentThread());
+		workers.add(worker);
+
 		log.info("Worker run loop started.");
-		while (!Thread.currentThread().isInterrupted()) {
+		while (!draining && !Thread.currentThread().isInterrupted()) {
 
 			final UUID jobId;
 			try {
+				worker.idle.set(true);
+				if (draining) break; // stop() may have missed us while we were busy
 				jobId = jobQueue.take();
 			} catch (InterruptedException e) {
 				Thread.currentThread().interrupt();
 				break;
 			}
 
+			// stop() got to us between take() and here and is about to interrupt this thread: hand the job back
+			if (!worker.idle.compareAndSet(true, false)) {
+				jobQueue.requeue(jobId);
+				break;
+			}
+
+			long startedAt = System.nanoTime();
 			try {
 				jobExecutor.processJob(jobId);
 			} catch (Throwable t) {
 				log.error("Fatal error processing job {}; continuing loop", jobId, t);
+			} finally {
+				worker.busyNanos.addAndGet(System.nanoTime() - startedAt);
+				worker.jobsProcessed.incrementAndGet();
 			}
 		}
+		worker.idle.set(false);
 		log.info("Worker run loop finished.");
 	}
 
+	// Counters are only written by the worker's own thread, read by workerStats()
+	private static final class Worker {
+		private final Thread thread;
+		private final AtomicBoolean idle = new AtomicBoolean();
+		private final AtomicLong jobsProcessed = new AtomicLong(), busyNanos = new AtomicLong();
 
+		Worker(Thread thread) {
+			this.thread = thread;
+		}
+
+		void wakeIfIdle() {
+			if (idle.compareAndSet(true, false)) thread.interrupt();
+		}
+
+		WorkerStats stats() {
+			return new WorkerStats(thread.getName(), jobsProcessed.get(), Duration.ofNanos(busyNanos.get()));
+		}
+	}
 }
@@ -0,0 +1,9 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import com.liadkoren.nonogram.service.jobs.model.PartialBitGrid;
+
+import java.util.UUID;
+
+/** Cells a running job has deduced so far, see nonogram.solver.progress-interval */
+public record JobProgress(UUID jobId, PartialBitGrid partialGrid) {
+}
@@ -1,21 +1,42 @@
 package com.liadkoren.nonogram.service.jobs;
 
-import org.springframework.stereotype.Component;
-
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 
-@Component
-public class JobQueue {
-	private final BlockingQueue<UUID> queue = new LinkedBlockingQueue<>();
+/**
+ * Job ids waiting for a worker. The jobs themselves are rows in the jobs table; an implementation
+ * only decides where the waiting list lives and who gets which job next.
+ * <p>
+ * {@code nonogram.jobs.queue.type} picks the implementation: {@code memory} (InMemoryJobQueue, one
+ * process) or {@code db} (DbJobQueue, shared by every process connected to the same database).
+ */
+public interface JobQueue {
 
-	public void submit(UUID jobId) {
-		queue.add(jobId);    // throws if full, or use offer() with timeout if you want backpressure
-	}
+	/**
+	 * @param cost estimated cost of the job, see JobAdmission / PuzzleCostEstimator
+	 * @throws QueueFullException if the queue already holds its capacity of jobs
+	 */
+	void submit(UUID jobId, double cost);
 
-	public UUID take() throws InterruptedException {
-		return queue.take();   // blocks until something is available
+	default void submit(UUID jobId) {
+		submit(jobId, 0);
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Submits all jobs in one operation: either all of them are queued or, if they don't fit, none.
+	 *
+	 * @param costs estimated cost of each job, in the order of {@code jobIds}
+	 * @throws QueueFullException if the jobs don't fit in the remaining capacity
+	 */
+	void submitAll(List<UUID> jobIds, double[] costs);
+
+	/** Blocks until a job is available; the job is then owned by the caller. */
+	UUID take() throws InterruptedException;
+
+	/** Hands back a taken job the caller will not process, so another worker can take it. */
+	void requeue(UUID jobId);
+
+	int size();
+
+	QueueStats stats();
+}
@@ -1,12 +1,134 @@
 package com.liadkoren.nonogram.service.jobs;
 
 import com.liadkoren.nonogram.service.jobs.model.JobEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface JobRepository extends JpaRepository<JobEntity, UUID> {
 
+	long countByStatus(JobStatus status);
+
+	List<JobEntity> findByIdInAndStatusIn(Collection<UUID> ids, Collection<JobStatus> statuses);
+
+	interface StatusCount {
+		JobStatus getStatus();
+		long getCount();
+	}
+
+	// most recently completed first
+	@Query("""
+			select new com.liadkoren.nonogram.service.jobs.SolveTimeSample(j.estimatedCost, j.solutionTimeMs) from JobEntity j
+			where j.status = SUCCESS and j.estimatedCost is not null and j.solutionTimeMs is not null
+			order by j.completedAt desc""")
+	List<SolveTimeSample> findSolveTimeSamples(Pageable page);
+
+	@Query("select j.status as status, count(j) as count from JobEntity j where j.batchId = :batchId group by j.status")
+	List<StatusCount> countByStatusInBatch(@Param("batchId") UUID batchId);
+
+	// jobs the queue turned away: their ids were never handed out
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Transactional
+	@Query("delete from JobEntity j where j.id = :id and j.status = QUEUED")
+	int deleteQueued(@Param("id") UUID id);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Transactional
+	@Query("delete from JobEntity j where j.batchId = :batchId and j.status = QUEUED")
+	int deleteQueuedInBatch(@Param("batchId") UUID batchId);
+
+	// job state transitions: one guarded update each, 0 rows when the job is no longer in the expected state.
+	// The ones made by the worker running a job also match the attempt it started: once its lease expired
+	// and the job was claimed again (attempts + 1), a late result or progress of the old run changes nothing.
+	// Those run at least twice per job and are native SQL: Hibernate translates a JPQL update again on every
+	// call (it caches no plans for them), which cost more than the statement itself. Grids are bound as their
+	// converters' bytes.
+
+	/** Queued in memory; a job claimed by a DbJobQueue was started by its claim */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Transactional
+	@Query(nativeQuery = true, value = "update jobs set status = 'RUNNING', started_at = :now where id = :id and status = 'QUEUED'")
+	int markRunning(@Param("id") UUID id, @Param("now") Instant now);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Transactional
+	@Query(nativeQuery = true, value = """
+			update jobs set status = 'SUCCESS', completed_at = :now,
+				solution_time_ms = :timeMs, result_grid = :grid, partial_grid = null, lease_owner = null, lease_expires_at = null
+			where id = :id and status = 'RUNNING' and attempts = :attempt""")
+	int markSuccess(@Param("id") UUID id, @Param("attempt") int attempt, @Param("now") Instant now,
+	                @Param("grid") byte[] grid, @Param("timeMs") long timeMs);
+
+	/** Ran out of budget: failed, keeping what was deduced */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Transactional
+	@Query(nativeQuery = true, value = """
+			update jobs set status = 'FAIL', completed_at = :now, error_message = :reason,
+				partial_grid = :partial, lease_owner = null, lease_expires_at = null
+			where id = :id and status = 'RUNNING' and attempts = :attempt""")
+	int markTimedOut(@Param("id") UUID id, @Param("attempt") int attempt, @Param("now") Instant now,
+	                 @Param("reason") String reason, @Param("partial") byte[] partial);
+
+	/** Progress of a running job; 0 once it is done */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Transactional
+	@Query(nativeQuery = true, value = "update jobs set partial_grid = :partial where id = :id and status = 'RUNNING' and attempts = :attempt")
+	int saveProgress(@Param("id") UUID id, @Param("attempt") int attempt, @Param("partial") byte[] partial);
+
+	/** Jobs already done are left alone; a queued job can fail without running (rejected by the queue) */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Transactional
+	@Query("""
+			update JobEntity j set j.status = FAIL, j.completedAt = :now,
+				j.errorMessage = :reason, j.leaseOwner = null, j.leaseExpiresAt = null
+			where j.id = :id and j.status in (QUEUED, RUNNING)""")
+	int markFailed(@Param("id") UUID id, @Param("now") Instant now, @Param("reason") String reason);
+
+	/** The run failed: only the attempt that is running, unlike {@link #markFailed} */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Transactional
+	@Query(nativeQuery = true, value = """
+			update jobs set status = 'FAIL', completed_at = :now,
+				error_message = :reason, lease_owner = null, lease_expires_at = null
+			where id = :id and status = 'RUNNING' and attempts = :attempt""")
+	int markRunFailed(@Param("id") UUID id, @Param("attempt") int attempt, @Param("now") Instant now, @Param("reason") String reason);
+
+	/** Hands a claimed job back without counting the attempt; 0 if {@code owner} no longer holds it */
+	@Modifying
+	@Transactional
+	@Query("""
+			update JobEntity j set j.status = QUEUED, j.startedAt = null,
+				j.leaseOwner = null, j.leaseExpiresAt = null, j.attempts = j.attempts - 1
+			where j.id = :id and j.leaseOwner = :owner
+				and j.status = RUNNING""")
+	int release(@Param("id") UUID id, @Param("owner") String owner);
+
+	/** RUNNING jobs whose lease ran out (or that never had one) go back to the queue while they have attempts left */
+	@Modifying
+	@Transactional
+	@Query("""
+			update JobEntity j set j.status = QUEUED, j.startedAt = null,
+				j.leaseOwner = null, j.leaseExpiresAt = null
+			where j.status = RUNNING
+				and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now) and j.attempts < :maxAttempts""")
+	int requeueExpired(@Param("now") Instant now, @Param("maxAttempts") int maxAttempts);
+
+	/** ... and fail once they have used them all */
+	@Modifying
+	@Transactional
+	@Query("""
+			update JobEntity j set j.status = FAIL,
+				j.completedAt = :now, j.errorMessage = :reason, j.leaseOwner = null, j.leaseExpiresAt = null
+			where j.status = RUNNING
+				and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now) and j.attempts >= :maxAttempts""")
+	int failExpired(@Param("now") Instant now, @Param("maxAttempts") int maxAttempts, @Param("reason") String reason);
 }
@@ -2,13 +2,19 @@ package com.liadkoren.nonogram.service.jobs;
 
 import com.liadkoren.nonogram.core.model.Puzzle;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity;
+import com.liadkoren.nonogram.service.solver.InvalidPuzzleException;
+import com.liadkoren.nonogram.service.solver.PuzzleValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -16,6 +22,8 @@ import java.util.UUID;
 public class JobService {
 	private final JobStore jobStore;
 	private final JobQueue jobQueue;
+	private final JobCompletionNotifier completionNotifier;
+	private final JobAdmission admission;
 
 	//@Transactional
 	public UUID submitUrlJob(URI url, long budgetMs) {
@@ -23,28 +31,136 @@ public class JobService {
 
 		JobEntity jobEntity = JobEntity.forUrl(url, budgetMs);
 		jobStore.save(jobEntity);
-		jobQueue.submit(jobEntity.getId());
+		enqueue(jobEntity, 0); // size is unknown until the worker scraped the puzzle
 		log.info("job.queued type=url jobId={} host={} budgetMs={}",
 				jobEntity.getId(), url.getHost(), budgetMs);
 		return jobEntity.getId();
 	}
 
+	/**
+	 * @throws InvalidPuzzleException if the clues can't describe a grid, see PuzzleValidator
+	 * @throws HopelessJobException if the puzzle can't be solved anywhere near its budget, see JobAdmission
+	 */
 	//@Transactional
-	public UUID submitPuzzleJob(Puzzle puzzle, long budgetMs) {
+	public SubmittedJob submitPuzzleJob(Puzzle puzzle, long budgetMs) {
 		requireBudget(budgetMs);
+		PuzzleValidator.validate(puzzle);
+		JobAdmission.Admission admitted = admission.admit(puzzle, budgetMs);
 
 		JobEntity jobEntity = JobEntity.forPuzzle(puzzle, budgetMs);
+		jobEntity.setEstimatedCost(admitted.cost());
 		jobStore.save(jobEntity);
-		jobQueue.submit(jobEntity.getId());
-		log.info("job.queued type=puzzle jobId={} rows={} cols={} budgetMs={}",
-				jobEntity.getId(), puzzle.rows().size(), puzzle.cols().size(), budgetMs);
-		return jobEntity.getId();
+		enqueue(jobEntity, admitted.priority());
+		log.info("job.queued type=puzzle jobId={} rows={} cols={} budgetMs={} predictedMs={}",
+				jobEntity.getId(), puzzle.rows().size(), puzzle.cols().size(), budgetMs, admitted.solveMs());
+
+		Instant estimatedCompletion = Instant.now().plusMillis(jobQueue.stats().waitP50Ms() + admitted.solveMs());
+		return new SubmittedJob(jobEntity.getId(), estimatedCompletion);
+	}
+
+	/**
+	 * Persists the jobs in one transaction with batched inserts, then queues them in one operation.
+	 * If they don't fit in the queue none is queued: the whole batch is deleted again and the
+	 * QueueFullException is rethrown. An invalid or hopeless puzzle rejects the batch before anything is stored.
+	 *
+	 * @param jobEntities new jobs, see JobEntity.forPuzzle / forUrl
+	 * @return id of the batch, for {@link #batchProgress(UUID)}
+	 */
+	public UUID submitBatch(List<JobEntity> jobEntities) {
+		if (jobEntities.isEmpty()) throw new IllegalArgumentException("batch must not be empty");
+
+		double[] costs = new double[jobEntities.size()];
+		for (int i = 0; i < costs.length; i++) {
+			JobEntity jobEntity = jobEntities.get(i);
+			if (jobEntity.getPuzzle() == null) continue; // size is unknown until the worker scraped the puzzle
+			try {
+				PuzzleValidator.validate(jobEntity.getPuzzle());
+			} catch (InvalidPuzzleException e) {
+				throw new InvalidPuzzleException("job " + i + ": " + e.getMessage());
+			}
+			try {
+				JobAdmission.Admission admitted = admission.admit(jobEntity.getPuzzle(), jobEntity.getBudgetMs());
+				jobEntity.setEstimatedCost(admitted.cost());
+				costs[i] = admitted.priority();
+			} catch (HopelessJobException e) {
+				throw new HopelessJobException("job " + i + ": " + e.getMessage());
+			}
+		}
+
+		UUID batchId = UUID.randomUUID();
+		jobEntities.forEach(jobEntity -> jobEntity.setBatchId(batchId));
+		jobStore.saveAll(jobEntities);
+
+		List<UUID> ids = jobEntities.stream().map(JobEntity::getId).toList();
+
+		try {
+			jobQueue.submitAll(ids, costs);
+		} catch (QueueFullException e) {
+			jobStore.deleteQueuedInBatch(batchId);
+			log.warn("batch.rejected batchId={} jobs={} reason={}", batchId, ids.size(), e.getMessage());
+			throw e;
+		}
+		log.info("batch.queued batchId={} jobs={}", batchId, ids.size());
+		return batchId;
+	}
+
+	public BatchProgress batchProgress(UUID batchId) {
+		return jobStore.batchProgress(batchId);
 	}
 
 	public Optional<JobEntity> findJob(UUID jobId) {
 		return jobStore.find(jobId);
 	}
 
+	/**
+	 * Completed when the job finishes. Register before reading the job, so a completion in between
+	 * is not missed, and call {@link #stopAwaiting} once done waiting.
+	 */
+	public CompletableFuture<JobCompletion> awaitCompletion(UUID jobId) {
+		return completionNotifier.await(jobId);
+	}
+
+	public void stopAwaiting(UUID jobId, CompletableFuture<JobCompletion> completion) {
+		completionNotifier.forget(jobId, completion);
+	}
+
+	/** Progress of a job running in this process, see {@link JobCompletionNotifier} */
+	public void watchProgress(UUID jobId, Consumer<JobProgress> watcher) {
+		completionNotifier.watch(jobId, watcher);
+	}
+
+	public void stopWatching(UUID jobId, Consumer<JobProgress> watcher) {
+		completionNotifier.unwatch(jobId, watcher);
+	}
+
+	/**
+	 * Fails a queued or running job with "CANCELLED". A queued job is skipped by the worker that
+	 * takes it; the solve of a running job stops, in whichever process runs it.
+	 *
+	 * @return false if the job doesn't exist or is already done
+	 */
+	public boolean cancel(UUID jobId) {
+		boolean cancelled = jobStore.markFailed(jobId, "CANCELLED");
+		if (cancelled) log.info("job.cancelled jobId={}", jobId);
+		return cancelled;
+	}
+
+	public QueueStats queueStats() {
+		return jobQueue.stats();
+	}
+
+	// the row is saved first (a DbJobQueue queues the stored row); a rejected one is deleted again,
+	// its id is never handed out
+	private void enqueue(JobEntity jobEntity, double cost) {
+		try {
+			jobQueue.submit(jobEntity.getId(), cost);
+		} catch (QueueFullException e) {
+			jobStore.deleteQueued(jobEntity.getId());
+			log.warn("job.rejected jobId={} reason={}", jobEntity.getId(), e.getMessage());
+			throw e;
+		}
+	}
+
 	private static void requireBudget(long ms) {
 		if (ms < 0) throw new IllegalArgumentException("budgetMs must be >= 0");
 	}
@@ -1,12 +1,20 @@
 package com.liadkoren.nonogram.service.jobs;
 
+import com.liadkoren.nonogram.core.model.PartialGrid;
+import com.liadkoren.nonogram.core.model.SolvedGrid;
+import com.liadkoren.nonogram.service.jobs.model.BitGrid;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import com.liadkoren.nonogram.service.jobs.model.PartialBitGrid;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,34 +22,91 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class JobStore {
 	private final JobRepository repo;
+	private final JobCompletionNotifier notifier;
 
 	public JobEntity save(JobEntity jobEntity) { return repo.save(jobEntity); }
 	public Optional<JobEntity> find(UUID id) { return repo.findById(id); }
 
-	public JobEntity markRunning(UUID id) {
-		JobEntity jobEntity = repo.findById(id)
-				.orElseThrow(() -> new IllegalArgumentException("Job not found: " + id));
-		jobEntity.setStatus(JobStatus.RUNNING);
-		jobEntity.setStartedAt(Instant.now());
-		return repo.save(jobEntity);
-	}
-
-	public JobEntity markSuccess(UUID id, boolean[][] resultGrid, long timeMs) {
-		JobEntity jobEntity = repo.findById(id)
-				.orElseThrow(() -> new IllegalArgumentException("Job not found: " + id));
-		jobEntity.setStatus(JobStatus.SUCCESS);
-		jobEntity.setCompletedAt(Instant.now());
-		jobEntity.setSolutionTimeMs(timeMs);
-		jobEntity.setResultGrid(resultGrid);
-		return repo.save(jobEntity);
-	}
-
-	public JobEntity markFailed(UUID id, String errorMessage) {
-		JobEntity jobEntity = repo.findById(id)
-				.orElseThrow(() -> new IllegalArgumentException("Job not found: " + id));
-		jobEntity.setStatus(JobStatus.FAIL);
-		jobEntity.setCompletedAt(Instant.now());
-		jobEntity.setErrorMessage(errorMessage);
-		return repo.save(jobEntity);
+	/** One transaction; the inserts go out in JDBC batches of hibernate.jdbc.batch_size */
+	public List<JobEntity> saveAll(List<JobEntity> jobEntities) { return repo.saveAll(jobEntities); }
+
+	public BatchProgress batchProgress(UUID batchId) {
+		Map<JobStatus, Long> counts = new EnumMap<>(JobStatus.class);
+		for (JobRepository.StatusCount count : repo.countByStatusInBatch(batchId)) counts.put(count.getStatus(), count.getCount());
+		return BatchProgress.of(batchId, counts);
+	}
+
+	/** Removes a job the queue rejected before anyone got its id */
+	public boolean deleteQueued(UUID id) {
+		return repo.deleteQueued(id) == 1;
+	}
+
+	public int deleteQueuedInBatch(UUID batchId) {
+		return repo.deleteQueuedInBatch(batchId);
+	}
+
+	// Transitions are single guarded UPDATEs: no load, no dirty checking. false means the job was
+	// not in a state the transition starts from (already taken, finished, or missing).
+	// The worker's own transitions take the attempt it started (JobEntity.attempts as loaded by start):
+	// after its lease expired and another worker claimed the job, they are false too.
+
+	public boolean markRunning(UUID id) {
+		return repo.markRunning(id, Instant.now()) == 1;
+	}
+
+	/**
+	 * Loads the job a worker took from its queue, to run it; empty if it is not the worker's to run.
+	 * A job claimed from a DbJobQueue was started by the claim, so loading is all there is to do;
+	 * one from the in-memory queue is still QUEUED and is marked running here, in the same transaction.
+	 */
+	@Transactional
+	public Optional<JobEntity> start(UUID id) {
+		JobEntity job = repo.findById(id).orElse(null);
+		if (job == null) return Optional.empty();
+		if (job.getStatus() == JobStatus.RUNNING && job.getLeaseOwner() != null) return Optional.of(job);
+		if (job.getStatus() != JobStatus.QUEUED) return Optional.empty();
+
+		Instant now = Instant.now();
+		if (repo.markRunning(id, now) == 0) return Optional.empty();
+		job.setStatus(JobStatus.RUNNING); // detached by the update, kept in step by hand
+		job.setStartedAt(now);
+		return Optional.of(job);
+	}
+
+	public boolean markSuccess(UUID id, int attempt, SolvedGrid resultGrid, long timeMs) {
+		BitGrid grid = resultGrid == null ? null : BitGrid.of(resultGrid);
+		if (repo.markSuccess(id, attempt, Instant.now(), grid == null ? null : grid.toBytes(), timeMs) == 0) return false;
+		notifier.completed(new JobCompletion(id, JobStatus.SUCCESS, timeMs, grid, null, null));
+		return true;
+	}
+
+	/** Fails a queued or running job from outside, e.g. cancelled or rejected by the queue */
+	public boolean markFailed(UUID id, String errorMessage) {
+		if (repo.markFailed(id, Instant.now(), errorMessage) == 0) return false;
+		notifier.completed(new JobCompletion(id, JobStatus.FAIL, null, null, errorMessage, null));
+		return true;
+	}
+
+	/** Fails the running attempt, from the worker running it */
+	public boolean markFailed(UUID id, int attempt, String errorMessage) {
+		if (repo.markRunFailed(id, attempt, Instant.now(), errorMessage) == 0) return false;
+		notifier.completed(new JobCompletion(id, JobStatus.FAIL, null, null, errorMessage, null));
+		return true;
+	}
+
+	/** Fails a running job with TIMEOUT, keeping the cells deduced before the budget ran out (may be null) */
+	public boolean markTimedOut(UUID id, int attempt, PartialGrid deduced) {
+		PartialBitGrid partial = deduced == null ? null : PartialBitGrid.of(deduced);
+		if (repo.markTimedOut(id, attempt, Instant.now(), "TIMEOUT", partial == null ? null : partial.toBytes()) == 0) return false;
+		notifier.completed(new JobCompletion(id, JobStatus.FAIL, null, null, "TIMEOUT", partial));
+		return true;
+	}
+
+	/** Stores the cells a running job deduced so far; false once the job is done or another attempt runs it */
+	public boolean saveProgress(UUID id, int attempt, PartialGrid deduced) {
+		PartialBitGrid partial = PartialBitGrid.of(deduced);
+		if (repo.saveProgress(id, attempt, partial.toBytes()) == 0) return false;
+		notifier.progressed(new JobProgress(id, partial));
+		return true;
 	}
 }
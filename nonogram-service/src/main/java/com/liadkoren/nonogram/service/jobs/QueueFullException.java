@@ -0,0 +1,10 @@
+package com.liadkoren.nonogram.service.jobs;
+
+/**
+ * Thrown when a job is submitted while the JobQueue is at capacity.
+ */
+public class QueueFullException extends RuntimeException {
+	public QueueFullException(int capacity) {
+		super("Job queue is full (capacity " + capacity + ")");
+	}
+}
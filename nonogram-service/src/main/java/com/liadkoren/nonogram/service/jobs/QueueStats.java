@@ -0,0 +1,13 @@
+package com.liadkoren.nonogram.service.jobs;
+
+/**
+ * Snapshot of the JobQueue.
+ *
+ * @param depth     jobs waiting to be taken by a worker
+ * @param capacity  jobs the queue holds before submissions are rejected
+ * @param waitP50Ms median time between submit and take, over the last taken jobs
+ * @param waitP90Ms 90th percentile of the same
+ * @param waitP99Ms 99th percentile of the same
+ */
+public record QueueStats(int depth, int capacity, long waitP50Ms, long waitP90Ms, long waitP99Ms) {
+}
@@ -0,0 +1,75 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import com.liadkoren.nonogram.service.jobs.model.JobEntity;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * With the roles split, a job is finished in another process than the one waiting for it: a worker
+ * finishes the jobs that api clients wait for, and the api finishes (cancels) the jobs a worker
+ * runs. JobStore only fires the notifier of its own process, so the awaited jobs are checked with
+ * one query per interval instead, however many wait.
+ */
+@Component
+@Slf4j(topic = "jobs.notifier")
+@ConditionalOnExpression("'${nonogram.role:all}' != 'all'")
+public class RemoteCompletionPoller {
+
+	private static final int MAX_IDS_PER_QUERY = 1000;
+
+	private final JobRepository repo;
+	private final JobCompletionNotifier notifier;
+	private final Duration interval;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "completion-poller");
+		t.setDaemon(true);
+		return t;
+	});
+
+	public RemoteCompletionPoller(JobRepository repo, JobCompletionNotifier notifier,
+	                              @Value("${nonogram.jobs.completion-poll-interval:250ms}") Duration interval) {
+		if (interval.isNegative() || interval.isZero()) throw new IllegalArgumentException("interval must be > 0");
+		this.repo = repo;
+		this.notifier = notifier;
+		this.interval = interval;
+	}
+
+	@PostConstruct
+	public void start() {
+		scheduler.scheduleWithFixedDelay(this::poll, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		scheduler.shutdownNow();
+	}
+
+	void poll() {
+		List<UUID> awaited = new ArrayList<>(notifier.awaited());
+		try {
+			for (int from = 0; from < awaited.size(); from += MAX_IDS_PER_QUERY) {
+				List<UUID> ids = awaited.subList(from, Math.min(awaited.size(), from + MAX_IDS_PER_QUERY));
+				for (JobEntity job : repo.findByIdInAndStatusIn(ids, EnumSet.of(JobStatus.SUCCESS, JobStatus.FAIL))) {
+					notifier.completed(JobCompletion.of(job));
+				}
+			}
+		} catch (DataAccessException e) {
+			log.warn("completion poll failed, retrying in {}: {}", interval, e.getMessage());
+		}
+	}
+}
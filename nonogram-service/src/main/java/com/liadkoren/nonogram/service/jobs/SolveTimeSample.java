@@ -0,0 +1,10 @@
+package com.liadkoren.nonogram.service.jobs;
+
+/**
+ * A solved job's estimated cost next to how long it took, for calibrating JobAdmission.
+ *
+ * @param estimatedCost  see PuzzleCostEstimator
+ * @param solutionTimeMs as recorded when the job succeeded
+ */
+public record SolveTimeSample(double estimatedCost, long solutionTimeMs) {
+}
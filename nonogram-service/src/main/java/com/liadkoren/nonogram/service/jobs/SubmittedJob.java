@@ -0,0 +1,10 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @param estimatedCompletion when the job is expected to be done: typical queue wait plus predicted solve time
+ */
+public record SubmittedJob(UUID jobId, Instant estimatedCompletion) {
+}
@@ -0,0 +1,35 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/** Ring buffer of the wait times of the last taken jobs, for the percentiles in QueueStats. */
+final class WaitTimes {
+
+	private static final int SAMPLES = 1024;
+
+	private final long[] waitNanos = new long[SAMPLES];
+	private long recorded;
+
+	synchronized void record(long nanos) {
+		waitNanos[(int) (recorded++ % SAMPLES)] = nanos;
+	}
+
+	/** Wait-time percentiles over the recorded samples (zero before the first take) */
+	QueueStats stats(int depth, int capacity) {
+		long[] samples;
+		synchronized (this) {
+			samples = Arrays.copyOf(waitNanos, (int) Math.min(recorded, SAMPLES));
+		}
+
+		Arrays.sort(samples);
+		return new QueueStats(depth, capacity,
+				percentile(samples, 0.50), percentile(samples, 0.90), percentile(samples, 0.99));
+	}
+
+	private static long percentile(long[] sorted, double p) {
+		if (sorted.length == 0) return 0;
+		int index = (int) Math.ceil(p * sorted.length) - 1;
+		return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+	}
+}
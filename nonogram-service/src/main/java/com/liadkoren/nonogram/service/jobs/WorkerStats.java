@@ -0,0 +1,13 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import java.time.Duration;
+
+/**
+ * Counters of a single job worker loop.
+ *
+ * @param worker        name of the worker thread
+ * @param jobsProcessed jobs taken from the queue and handed to the JobExecutor, failed ones included
+ * @param busyTime      total time spent processing jobs, as opposed to waiting for one
+ */
+public record WorkerStats(String worker, long jobsProcessed, Duration busyTime) {
+}
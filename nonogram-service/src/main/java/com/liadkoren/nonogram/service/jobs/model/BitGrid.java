@@ -0,0 +1,151 @@
+package com.liadkoren.nonogram.service.jobs.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.liadkoren.nonogram.core.model.SolvedGrid;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable solved grid, packed one bit per cell in row-major order (cell r * cols + c is
+ * bit (i % 8) of byte i / 8).
+ * <p>
+ * {@link #toBytes()} is both the database column and the wire encoding: a 4-byte big-endian
+ * row count, a 4-byte big-endian column count, then the packed cells. In JSON it is still
+ * written as rows of booleans.
+ */
+@JsonSerialize(using = BitGrid.RowsSerializer.class)
+public final class BitGrid {
+
+	private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+	private final int rows, cols;
+	private final byte[] bits;
+
+	private BitGrid(int rows, int cols, byte[] bits) {
+		this.rows = rows;
+		this.cols = cols;
+		this.bits = bits;
+	}
+
+	public static BitGrid of(boolean[][] grid) {
+		int rows = grid.length, cols = rows == 0 ? 0 : grid[0].length;
+		byte[] bits = new byte[packedLength(rows, cols)];
+		for (int r = 0; r < rows; r++) {
+			if (grid[r].length != cols) throw new IllegalArgumentException("grid rows must have the same length");
+			for (int c = 0; c < cols; c++) {
+				if (!grid[r][c]) continue;
+				int i = r * cols + c;
+				bits[i >>> 3] |= (byte) (1 << (i & 7));
+			}
+		}
+		return new BitGrid(rows, cols, bits);
+	}
+
+	// straight from the solver's packed solution, without a boolean[][] in between
+	public static BitGrid of(SolvedGrid grid) {
+		return of(grid.rows(), grid.cols(), grid::isFilled);
+	}
+
+	// the cells for which cells.isFilled is true, e.g. the known cells of a partial grid
+	static BitGrid of(int rows, int cols, SolvedGrid.Cells cells) {
+		byte[] bits = new byte[packedLength(rows, cols)];
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) {
+				if (!cells.isFilled(r, c)) continue;
+				int i = r * cols + c;
+				bits[i >>> 3] |= (byte) (1 << (i & 7));
+			}
+		}
+		return new BitGrid(rows, cols, bits);
+	}
+
+	public static BitGrid fromBytes(byte[] encoded) {
+		if (encoded.length < HEADER_BYTES) throw new IllegalArgumentException("encoded grid is too short");
+		ByteBuffer buffer = ByteBuffer.wrap(encoded);
+		int rows = buffer.getInt(), cols = buffer.getInt();
+		if (rows < 0 || cols < 0 || encoded.length != HEADER_BYTES + packedLength(rows, cols)) {
+			throw new IllegalArgumentException("encoded grid does not match its dimensions " + rows + "x" + cols);
+		}
+		return new BitGrid(rows, cols, Arrays.copyOfRange(encoded, HEADER_BYTES, encoded.length));
+	}
+
+	public byte[] toBytes() {
+		return ByteBuffer.allocate(HEADER_BYTES + bits.length)
+				.putInt(rows)
+				.putInt(cols)
+				.put(bits)
+				.array();
+	}
+
+	public boolean[][] toArray() {
+		boolean[][] grid = new boolean[rows][cols];
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) grid[r][c] = get(r, c);
+		}
+		return grid;
+	}
+
+	public boolean get(int row, int col) {
+		if (row < 0 || row >= rows || col < 0 || col >= cols) throw new IndexOutOfBoundsException(row + "," + col);
+		int i = row * cols + col;
+		return (bits[i >>> 3] & (1 << (i & 7))) != 0;
+	}
+
+	public int rows() {
+		return rows;
+	}
+
+	public int cols() {
+		return cols;
+	}
+
+	// set cells
+	int cardinality() {
+		int set = 0;
+		for (byte b : bits) set += Integer.bitCount(b & 0xFF);
+		return set;
+	}
+
+	// length of toBytes() for a grid of these dimensions
+	static int encodedLength(int rows, int cols) {
+		return HEADER_BYTES + packedLength(rows, cols);
+	}
+
+	private static int packedLength(int rows, int cols) {
+		return (int) (((long) rows * cols + 7) >>> 3);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof BitGrid other && rows == other.rows && cols == other.cols && Arrays.equals(bits, other.bits);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * rows + cols) + Arrays.hashCode(bits);
+	}
+
+	@Override
+	public String toString() {
+		return "BitGrid[" + rows + "x" + cols + "]";
+	}
+
+	// writes [[true,false,...],...] straight from the bits, without a boolean[][] in between
+	static final class RowsSerializer extends JsonSerializer<BitGrid> {
+		@Override
+		public void serialize(BitGrid grid, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+			gen.writeStartArray();
+			for (int r = 0; r < grid.rows; r++) {
+				gen.writeStartArray();
+				for (int c = 0; c < grid.cols; c++) gen.writeBoolean(grid.get(r, c));
+				gen.writeEndArray();
+			}
+			gen.writeEndArray();
+		}
+	}
+}
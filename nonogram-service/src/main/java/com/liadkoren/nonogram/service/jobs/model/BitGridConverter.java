@@ -0,0 +1,18 @@
+package com.liadkoren.nonogram.service.jobs.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/** Stores a {@link BitGrid} as its packed bytes (VARBINARY) instead of a JSON CLOB. */
+@Converter
+public class BitGridConverter implements AttributeConverter<BitGrid, byte[]> {
+	@Override
+	public byte[] convertToDatabaseColumn(BitGrid grid) {
+		return grid == null ? null : grid.toBytes();
+	}
+
+	@Override
+	public BitGrid convertToEntityAttribute(byte[] column) {
+		return column == null ? null : BitGrid.fromBytes(column);
+	}
+}
@@ -14,7 +14,10 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "jobs")
+@Table(name = "jobs", indexes = {
+		@Index(name = "idx_jobs_status_priority", columnList = "status, queuePriority, createdAt"), // DbJobQueue claims
+		@Index(name = "idx_jobs_batch", columnList = "batchId")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -35,13 +38,22 @@ public class JobEntity {
 	@Column(length = 1024)
 	private String sourceUrl;
 
+	private UUID batchId; // set for jobs submitted together through /jobs/batch
+
 	@Type(JsonType.class)                 // serialize/deserialize via Jackson
 	@Column(name = "puzzle", columnDefinition = "clob") // H2: CLOB under the hood
 	private Puzzle puzzle;
 
-	@Type(JsonType.class)
-	@Column(name = "result_grid", columnDefinition = "clob")
-	private boolean[][] resultGrid;
+	@Convert(converter = BitGridConverter.class)
+	@Column(name = "result_grid", length = 1_000_000) // packed: 8 bytes + 1 bit per cell
+	private BitGrid resultGrid;
+
+	// cells deduced so far while RUNNING, and what was deduced when a job ran out of budget
+	@Convert(converter = PartialBitGridConverter.class)
+	@Column(name = "partial_grid", length = 2_000_000) // two packed grids: known cells, filled cells
+	private PartialBitGrid partialGrid;
+
+	private Double estimatedCost; // PuzzleCostEstimator units, set for inline puzzles; JobAdmission calibrates on it
 
 	@CreationTimestamp
 	@Column(nullable = false, updatable = false)
@@ -58,6 +70,19 @@ public class JobEntity {
 	@Column(length = 2000)
 	private String errorMessage;
 
+	// DbJobQueue lease: the process that claimed the job, and when the job is taken back if that process went silent
+	@Column(length = 64)
+	private String leaseOwner;
+	private Instant leaseExpiresAt;
+
+	// times the job was claimed from the DbJobQueue
+	@Column(columnDefinition = "integer default 0 not null") // the default fills rows of an existing table
+	private int attempts;
+
+	// DbJobQueue claim order, written by its submit (the job is claimed only from then on), never through the entity
+	@Column(insertable = false, updatable = false)
+	private Double queuePriority;
+
 	// -------- factories (keep invariants centralized) --------
 	public static JobEntity forUrl(URI url, long budgetMs) {
 		if (url == null) throw new IllegalArgumentException("url is required");
@@ -88,24 +113,19 @@ public class JobEntity {
 		if (ms < 0) throw new IllegalArgumentException("budgetMs must be >= 0");
 	}
 
-	/** safe setter that defensively copies the 2D array */
+	/** packs the grid; the entity never holds on to the caller's array */
 	public void setResultGrid(boolean[][] grid) {
-		if (grid == null) { this.resultGrid = null; return; }
-		boolean[][] copy = new boolean[grid.length][];
-		for (int i = 0; i < grid.length; i++) {
-			copy[i] = java.util.Arrays.copyOf(grid[i], grid[i].length);
-		}
-		this.resultGrid = copy;
+		this.resultGrid = grid == null ? null : BitGrid.of(grid);
 	}
 
-	/** defensive copy on read to avoid external mutation */
+	/** unpacked copy of the result, prefer {@link #getResultBits()} to avoid the allocation */
 	public boolean[][] getResultGrid() {
-		if (this.resultGrid == null) return null;
-		boolean[][] copy = new boolean[this.resultGrid.length][];
-		for (int i = 0; i < this.resultGrid.length; i++) {
-			copy[i] = java.util.Arrays.copyOf(this.resultGrid[i], this.resultGrid[i].length);
-		}
-		return copy;
+		return resultGrid == null ? null : resultGrid.toArray();
+	}
+
+	/** the result as stored; immutable, so no copy is needed */
+	public BitGrid getResultBits() {
+		return resultGrid;
 	}
 
 	public enum JobSourceType {URL, INLINE_PUZZLE}
@@ -0,0 +1,111 @@
+package com.liadkoren.nonogram.service.jobs.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.liadkoren.nonogram.core.model.PartialGrid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable partially solved grid: which cells are known, and which of those are filled.
+ * <p>
+ * {@link #toBytes()} (database column and wire encoding) is the {@link BitGrid} encoding of the
+ * known cells followed by that of the filled cells. In JSON it is written as rows of
+ * 1 (filled), -1 (empty) and 0 (unknown).
+ */
+@JsonSerialize(using = PartialBitGrid.RowsSerializer.class)
+public final class PartialBitGrid {
+
+	private final BitGrid known, filled;
+
+	private PartialBitGrid(BitGrid known, BitGrid filled) {
+		if (known.rows() != filled.rows() || known.cols() != filled.cols()) {
+			throw new IllegalArgumentException("known and filled cells must have the same dimensions");
+		}
+		this.known = known;
+		this.filled = filled;
+	}
+
+	// packed straight from the solver's snapshot, without an int[][] or boolean[][] in between
+	public static PartialBitGrid of(PartialGrid partial) {
+		int rows = partial.rows(), cols = partial.cols();
+		return new PartialBitGrid(
+				BitGrid.of(rows, cols, (r, c) -> partial.get(r, c) != 0),
+				BitGrid.of(rows, cols, (r, c) -> partial.get(r, c) == 1));
+	}
+
+	public static PartialBitGrid fromBytes(byte[] encoded) {
+		if (encoded.length < 2 * Integer.BYTES) throw new IllegalArgumentException("encoded grid is too short");
+		ByteBuffer header = ByteBuffer.wrap(encoded);
+		int rows = header.getInt(), cols = header.getInt();
+		if (rows < 0 || cols < 0 || encoded.length != 2 * BitGrid.encodedLength(rows, cols)) {
+			throw new IllegalArgumentException("encoded grid does not match its dimensions " + rows + "x" + cols);
+		}
+		int half = encoded.length / 2;
+		return new PartialBitGrid(
+				BitGrid.fromBytes(Arrays.copyOfRange(encoded, 0, half)),
+				BitGrid.fromBytes(Arrays.copyOfRange(encoded, half, encoded.length)));
+	}
+
+	public byte[] toBytes() {
+		byte[] knownBytes = known.toBytes(), filledBytes = filled.toBytes();
+		return ByteBuffer.allocate(knownBytes.length + filledBytes.length).put(knownBytes).put(filledBytes).array();
+	}
+
+	/** 1 filled, -1 empty, 0 unknown */
+	public int get(int row, int col) {
+		if (!known.get(row, col)) return 0;
+		return filled.get(row, col) ? 1 : -1;
+	}
+
+	public int rows() {
+		return known.rows();
+	}
+
+	public int cols() {
+		return known.cols();
+	}
+
+	public int knownCells() {
+		return known.cardinality();
+	}
+
+	/** Known cells as a percentage of all cells */
+	public double solvedPercent() {
+		int total = rows() * cols();
+		return total == 0 ? 100 : 100.0 * knownCells() / total;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof PartialBitGrid other && known.equals(other.known) && filled.equals(other.filled);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * known.hashCode() + filled.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "PartialBitGrid[" + rows() + "x" + cols() + ", " + knownCells() + " known]";
+	}
+
+	// writes [[1,-1,0,...],...] straight from the bits
+	static final class RowsSerializer extends JsonSerializer<PartialBitGrid> {
+		@Override
+		public void serialize(PartialBitGrid grid, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+			gen.writeStartArray();
+			for (int r = 0; r < grid.rows(); r++) {
+				gen.writeStartArray();
+				for (int c = 0; c < grid.cols(); c++) gen.writeNumber(grid.get(r, c));
+				gen.writeEndArray();
+			}
+			gen.writeEndArray();
+		}
+	}
+}
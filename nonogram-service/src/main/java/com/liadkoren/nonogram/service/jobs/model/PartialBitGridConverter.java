@@ -0,0 +1,18 @@
+package com.liadkoren.nonogram.service.jobs.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/** Stores a {@link PartialBitGrid} as its packed bytes (VARBINARY), like {@link BitGridConverter}. */
+@Converter
+public class PartialBitGridConverter implements AttributeConverter<PartialBitGrid, byte[]> {
+	@Override
+	public byte[] convertToDatabaseColumn(PartialBitGrid grid) {
+		return grid == null ? null : grid.toBytes();
+	}
+
+	@Override
+	public PartialBitGrid convertToEntityAttribute(byte[] column) {
+		return column == null ? null : PartialBitGrid.fromBytes(column);
+	}
+}
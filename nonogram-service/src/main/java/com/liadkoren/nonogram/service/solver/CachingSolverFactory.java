@@ -0,0 +1,202 @@
+package com.liadkoren.nonogram.service.solver;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.core.model.SolveResult;
+import com.liadkoren.nonogram.core.model.SolvedGrid;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
+import com.liadkoren.nonogram.core.ports.ProgressListener;
+import com.liadkoren.nonogram.core.ports.Solver;
+import com.liadkoren.nonogram.core.ports.SolverFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Result cache in front of another SolverFactory, keyed by {@link PuzzleFingerprint}, so a puzzle
+ * and its transposed/flipped variants are solved once. Results are kept in canonical orientation
+ * and mapped back to the orientation of the requested puzzle.
+ * <p>
+ * Only SUCCESS and UNSOLVABLE are cached: TIMEOUT and ERROR depend on the budget and the run.
+ * Concurrent solves of the same puzzle share a single solve of the delegate; the ones waiting for it still
+ * stop at their own budget and cancellation.
+ */
+@Component
+@Slf4j(topic = "solver.cache")
+public class CachingSolverFactory implements SolverFactory {
+
+	private static final long CANCELLATION_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private final SolverFactory delegate;
+	private final int capacity;
+
+	// access-ordered: the eldest entry is the least recently used
+	private final Map<String, SolveResult> cache;
+
+	private final ConcurrentHashMap<String, CompletableFuture<SolveResult>> inFlight = new ConcurrentHashMap<>();
+
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder();
+
+	public CachingSolverFactory(@Qualifier("routingSolverFactory") SolverFactory delegate,
+	                            @Value("${nonogram.solver.cache.capacity:1000}") int capacity) {
+		if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+		this.delegate = delegate;
+		this.capacity = capacity;
+		this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SolveResult> eldest) {
+				if (size() <= CachingSolverFactory.this.capacity) return false;
+				evictions.increment();
+				return true;
+			}
+		};
+	}
+
+	@Override
+	public Solver create(Puzzle puzzle, Duration budget) {
+		return () -> solve(puzzle, budget, null, null);
+	}
+
+	// only a solve that runs the delegate reports progress; hits and shared solves answer without any
+	@Override
+	public Solver create(Puzzle puzzle, Duration budget, ProgressListener progress) {
+		return () -> solve(puzzle, budget, progress, null);
+	}
+
+	// a cancelled solve isn't cached, so requests that shared it solve the puzzle again themselves
+	@Override
+	public Solver create(Puzzle puzzle, Duration budget, ProgressListener progress, CancellationToken cancellation) {
+		return () -> solve(puzzle, budget, progress, cancellation);
+	}
+
+	public CacheStats stats() {
+		synchronized (cache) {
+			return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), cache.size(), capacity);
+		}
+	}
+
+	private SolveResult solve(Puzzle puzzle, Duration budget, ProgressListener progress, CancellationToken cancellation) {
+		long start = System.nanoTime();
+		PuzzleFingerprint fingerprint = PuzzleFingerprint.of(puzzle);
+
+		SolveResult cached = cached(fingerprint);
+		if (cached != null) return hit(cached, fingerprint, start);
+
+		CompletableFuture<SolveResult> ours = new CompletableFuture<>();
+		CompletableFuture<SolveResult> running = inFlight.putIfAbsent(fingerprint.key(), ours);
+		if (running != null) {
+			// an identical puzzle is being solved right now: wait for it, but only within our own budget
+			long deadline = start + budget.toNanos();
+			SolveResult shared = await(running, deadline, cancellation);
+			if (shared == null) return stopped(start, cancellation);
+			if (isCacheable(shared)) return hit(shared, fingerprint, start);
+
+			// its budget was too small for us, or it was cancelled: solve it ourselves with what is left of ours
+			long left = deadline - System.nanoTime();
+			if (left <= 0) return SolveResult.timeout(Duration.ofNanos(System.nanoTime() - start));
+			misses.increment();
+			return delegate(puzzle, Duration.ofNanos(left), progress, cancellation).solve();
+		}
+
+		try {
+			// the previous solve of this puzzle may have finished between our lookup and putIfAbsent
+			cached = cached(fingerprint);
+			if (cached != null) {
+				ours.complete(cached);
+				return hit(cached, fingerprint, start);
+			}
+
+			misses.increment();
+			SolveResult result = delegate(puzzle, budget, progress, cancellation).solve();
+
+			SolveResult canonical = toCanonical(result, fingerprint);
+			if (isCacheable(result)) {
+				synchronized (cache) {
+					cache.put(fingerprint.key(), canonical);
+				}
+			}
+			ours.complete(canonical);
+			return result;
+		} catch (RuntimeException e) {
+			ours.complete(SolveResult.error("Execution error: " + e, Duration.ofNanos(System.nanoTime() - start)));
+			throw e;
+		} finally {
+			inFlight.remove(fingerprint.key(), ours);
+		}
+	}
+
+	/** The shared solve's result, or null once the deadline passed or we were cancelled (or interrupted) first */
+	private static SolveResult await(CompletableFuture<SolveResult> running, long deadline, CancellationToken cancellation) {
+		while (true) {
+			if (cancellation != null && cancellation.isCancelled()) return null;
+			long left = deadline - System.nanoTime();
+			if (left <= 0) return null;
+			try {
+				// a token can't wake us up, so look at it now and then
+				return running.get(cancellation == null ? left : Math.min(left, CANCELLATION_POLL_NANOS), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				// look at the deadline and the cancellation again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("shared solves complete normally", e.getCause());
+			}
+		}
+	}
+
+	private static SolveResult stopped(long start, CancellationToken cancellation) {
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+		boolean cancelled = (cancellation != null && cancellation.isCancelled()) || Thread.currentThread().isInterrupted();
+		return cancelled ? SolveResult.cancelled(elapsed) : SolveResult.timeout(elapsed);
+	}
+
+	private Solver delegate(Puzzle puzzle, Duration budget, ProgressListener progress, CancellationToken cancellation) {
+		if (cancellation != null) return delegate.create(puzzle, budget, progress, cancellation);
+		return progress == null ? delegate.create(puzzle, budget) : delegate.create(puzzle, budget, progress);
+	}
+
+	private SolveResult cached(PuzzleFingerprint fingerprint) {
+		synchronized (cache) {
+			return cache.get(fingerprint.key());
+		}
+	}
+
+	private SolveResult hit(SolveResult canonical, PuzzleFingerprint fingerprint, long start) {
+		hits.increment();
+		log.debug("cache.hit key={}", fingerprint.key());
+		return toRequested(canonical, fingerprint, Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	private static boolean isCacheable(SolveResult result) {
+		return result.status() == SolveResult.SolveStatus.SUCCESS || result.status() == SolveResult.SolveStatus.UNSOLVABLE;
+	}
+
+	private static SolveResult toCanonical(SolveResult result, PuzzleFingerprint fingerprint) {
+		if (result.solution() == null) return result;
+		return SolveResult.success(fingerprint.symmetry().apply(result.solution()), result.duration());
+	}
+
+	private static SolveResult toRequested(SolveResult canonical, PuzzleFingerprint fingerprint, Duration elapsed) {
+		SolvedGrid grid = canonical.solution() == null ? null : fingerprint.symmetry().invert(canonical.solution());
+		return new SolveResult(canonical.status(), grid, elapsed, canonical.reason(), null);
+	}
+
+	/**
+	 * @param hits      solves answered from the cache, or from an identical solve running at the same time
+	 * @param misses    solves that had to run the delegate solver
+	 * @param evictions least recently used results dropped to stay within capacity
+	 */
+	public record CacheStats(long hits, long misses, long evictions, int size, int capacity) {
+	}
+}
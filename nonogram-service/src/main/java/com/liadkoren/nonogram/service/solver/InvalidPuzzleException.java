@@ -0,0 +1,10 @@
+package com.liadkoren.nonogram.service.solver;
+
+/**
+ * Thrown when a puzzle's clues can't describe any grid, see PuzzleValidator.
+ */
+public class InvalidPuzzleException extends RuntimeException {
+	public InvalidPuzzleException(String message) {
+		super(message);
+	}
+}
@@ -1,17 +1,80 @@
 package com.liadkoren.nonogram.service.solver;
 
 import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
+import com.liadkoren.nonogram.core.ports.ProgressListener;
 import com.liadkoren.nonogram.core.ports.Solver;
 import com.liadkoren.nonogram.core.ports.SolverFactory;
 import com.liadkoren.nonogram.solver.ParallelSolver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 @Component
+@Slf4j(topic = "solver.parallel")
 public class ParallelSolverFactory implements SolverFactory {
+
+	// dedicated pool, so line deductions don't compete with the common pool (Spring, Jackson, ...)
+	private final ForkJoinPool solverPool;
+	private final Duration progressInterval;
+
+	public ParallelSolverFactory(int parallelism, Duration progressInterval) {
+		this(parallelism, progressInterval, 0);
+	}
+
+	/**
+	 * @param parallelism     threads in the pool; 0 = the available processors, or half of them when small puzzles
+	 *                        are solved single-threaded ({@code parallelMinCost} > 0): the job workers running those
+	 *                        need the rest of the CPUs, see ExecutorConfig
+	 * @param parallelMinCost see RoutingSolverFactory
+	 */
+	@Autowired
+	public ParallelSolverFactory(@Value("${nonogram.solver.parallelism:0}") int parallelism,
+	                             @Value("${nonogram.solver.progress-interval:1s}") Duration progressInterval,
+	                             @Value("${nonogram.solver.parallel-min-cost:20000}") double parallelMinCost) {
+		this.progressInterval = progressInterval;
+		int threads = parallelism > 0 ? parallelism : defaultParallelism(Runtime.getRuntime().availableProcessors(), parallelMinCost > 0);
+		this.solverPool = new ForkJoinPool(threads, pool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("solver-" + thread.getPoolIndex());
+			return thread;
+		}, null, false);
+		log.info("Parallel solver pool created with parallelism={}", threads);
+	}
+
 	@Override
 	public Solver create(Puzzle puzzle, Duration budget) {
-		return new ParallelSolver(puzzle, budget);
+		return new ParallelSolver(puzzle, budget, solverPool);
+	}
+
+	@Override
+	public Solver create(Puzzle puzzle, Duration budget, ProgressListener progress) {
+		return new ParallelSolver(puzzle, budget, solverPool).withProgress(progress, progressInterval);
+	}
+
+	@Override
+	public Solver create(Puzzle puzzle, Duration budget, ProgressListener progress, CancellationToken cancellation) {
+		return new ParallelSolver(puzzle, budget, solverPool)
+				.withProgress(progress, progressInterval)
+				.withCancellation(cancellation);
+	}
+
+	public static int defaultParallelism(int cpus, boolean smallPuzzlesSingleThreaded) {
+		return smallPuzzlesSingleThreaded ? Math.max(1, cpus / 2) : Math.max(1, cpus);
+	}
+
+	public int getParallelism() {
+		return solverPool.getParallelism();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		solverPool.shutdownNow();
 	}
 }
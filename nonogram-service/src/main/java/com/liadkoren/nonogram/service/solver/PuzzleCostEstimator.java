@@ -0,0 +1,98 @@
+package com.liadkoren.nonogram.service.solver;
+
+import com.liadkoren.nonogram.core.model.Clues;
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.solver.LineFillIterator;
+
+import java.util.List;
+
+// Rough, cheap estimate of how much work a puzzle takes to solve, in abstract cost units;
+// JobAdmission turns it into milliseconds. O(cells), nothing is deduced beyond a blank grid.
+//
+// Propagation: every line costs its length (one line deduction) times the log2 of its number of
+// placements, a measure of how ambiguous the line is and so of how often it is deduced again.
+// Search: cells that the blank grid leaves unknown (no overlap of the leftmost and rightmost
+// placement of any block) have to be found by propagation or guessed. How much they cost depends
+// on the clue density: near 50% filled an unknown cell is a coin flip, in a sparse or dense puzzle
+// it is mostly determined. Unknown cells scale the propagation cost by up to 2x, weighted by the
+// binary entropy of the density.
+public final class PuzzleCostEstimator {
+
+	private PuzzleCostEstimator() {}
+
+	public static double estimate(Puzzle puzzle) {
+		int rows = puzzle.rows().size(), cols = puzzle.cols().size();
+		double propagation = propagationCost(puzzle.rows(), cols) + propagationCost(puzzle.cols(), rows);
+		if (rows == 0 || cols == 0) return propagation;
+
+		double unknown = 1 - knownOnBlankGrid(puzzle);
+		return propagation * (1 + unknown * entropy(density(puzzle)));
+	}
+
+	private static double propagationCost(List<int[]> clues, int lineLength) {
+		double cost = 0;
+		for (int[] blocks : clues) {
+			int log2Placements;
+			try {
+				log2Placements = LineFillIterator.countPlacements(lineLength, blocks).bitLength();
+			} catch (IllegalArgumentException e) {
+				log2Placements = 0; // invalid clue, the solver reports it
+			}
+			cost += lineLength * (1.0 + log2Placements);
+		}
+		return cost;
+	}
+
+	// fraction of cells fixed by a single deduction of every line of a blank grid
+	static double knownOnBlankGrid(Puzzle puzzle) {
+		int rows = puzzle.rows().size(), cols = puzzle.cols().size();
+		boolean[][] known = new boolean[rows][cols];
+		Clues clues = puzzle.clues();
+		for (int r = 0; r < rows; r++) markOverlap(clues.rows(), r, cols, known, true);
+		for (int c = 0; c < cols; c++) markOverlap(clues.cols(), c, rows, known, false);
+
+		int count = 0;
+		for (boolean[] row : known) {
+			for (boolean cell : row) if (cell) count++;
+		}
+		return (double) count / ((long) rows * cols);
+	}
+
+	// a block of size b in a line with s cells of slack always covers b - s cells; no slack fixes the whole line
+	private static void markOverlap(Clues.Lines lines, int line, int length, boolean[][] known, boolean isRow) {
+		if (lines.minLength(line) > length) return; // doesn't fit, the solver reports it
+		int slack = (int) (length - lines.minLength(line));
+
+		int count = lines.blockCount(line);
+		if (slack == 0 || count == 0) {
+			for (int i = 0; i < length; i++) mark(known, line, i, isRow);
+			return;
+		}
+
+		int start = 0;
+		for (int b = 0; b < count; b++) {
+			int block = lines.block(line, b);
+			for (int i = start + slack; i < start + block; i++) mark(known, line, i, isRow);
+			start += block + 1;
+		}
+	}
+
+	private static void mark(boolean[][] known, int line, int cell, boolean isRow) {
+		if (isRow) known[line][cell] = true;
+		else known[cell][line] = true;
+	}
+
+	// filled cells according to the row clues, as a fraction of all cells
+	static double density(Puzzle puzzle) {
+		Clues.Lines rows = puzzle.clues().rows();
+		long filled = 0;
+		for (int r = 0; r < rows.size(); r++) filled += rows.sum(r);
+		double cells = (double) puzzle.rows().size() * puzzle.cols().size();
+		return Math.min(1, filled / cells);
+	}
+
+	private static double entropy(double p) {
+		if (p <= 0 || p >= 1) return 0;
+		return -(p * Math.log(p) + (1 - p) * Math.log(1 - p)) / Math.log(2);
+	}
+}
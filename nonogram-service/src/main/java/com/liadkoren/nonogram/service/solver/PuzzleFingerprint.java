@@ -0,0 +1,118 @@
+package com.liadkoren.nonogram.service.solver;
+
+import com.liadkoren.nonogram.core.model.Clues;
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.core.model.SolvedGrid;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Content hash of a puzzle that is the same for all 8 symmetric variants of it
+ * (transposed and/or flipped horizontally and/or vertically).
+ *
+ * @param key      SHA-256 (hex) of the canonical variant's clues
+ * @param symmetry maps this puzzle to the canonical variant; grids are cached in canonical orientation
+ */
+record PuzzleFingerprint(String key, Symmetry symmetry) {
+
+	/**
+	 * One of the 8 symmetries of a grid: optionally reverse the row order, optionally reverse
+	 * the column order, then optionally transpose.
+	 */
+	record Symmetry(boolean flipRows, boolean flipCols, boolean transpose) {
+
+		static List<Symmetry> all() {
+			List<Symmetry> all = new ArrayList<>(8);
+			for (int i = 0; i < 8; i++) all.add(new Symmetry((i & 1) != 0, (i & 2) != 0, (i & 4) != 0));
+			return all;
+		}
+
+		Puzzle apply(Puzzle puzzle) {
+			// reversing the row order reverses every column clue, and vice versa
+			List<int[]> rows = flipRows ? reversed(puzzle.rows(), false) : puzzle.rows();
+			List<int[]> cols = flipCols ? reversed(puzzle.cols(), false) : puzzle.cols();
+			if (flipCols) rows = reversed(rows, true);
+			if (flipRows) cols = reversed(cols, true);
+			return transpose ? new Puzzle(cols, rows) : new Puzzle(rows, cols);
+		}
+
+		SolvedGrid apply(SolvedGrid grid) {
+			int rows = grid.rows(), cols = grid.cols();
+			if (transpose) {
+				return SolvedGrid.of(cols, rows, (r, c) -> grid.isFilled(flipRows ? rows - 1 - c : c, flipCols ? cols - 1 - r : r));
+			}
+			return SolvedGrid.of(rows, cols, (r, c) -> grid.isFilled(flipRows ? rows - 1 - r : r, flipCols ? cols - 1 - c : c));
+		}
+
+		SolvedGrid invert(SolvedGrid grid) {
+			// undo the transpose first, the flips are their own inverse
+			SolvedGrid untransposed = transpose ? new Symmetry(false, false, true).apply(grid) : grid;
+			return new Symmetry(flipRows, flipCols, false).apply(untransposed);
+		}
+
+		private static List<int[]> reversed(List<int[]> lines, boolean reverseBlocks) {
+			List<int[]> out = new ArrayList<>(lines.size());
+			for (int i = 0; i < lines.size(); i++) {
+				int[] line = reverseBlocks ? lines.get(i) : lines.get(lines.size() - 1 - i);
+				if (reverseBlocks) {
+					int[] blocks = new int[line.length];
+					for (int j = 0; j < line.length; j++) blocks[j] = line[line.length - 1 - j];
+					line = blocks;
+				}
+				out.add(line);
+			}
+			return out;
+		}
+	}
+
+	static PuzzleFingerprint of(Puzzle puzzle) {
+		int[] best = null;
+		Symmetry bestSymmetry = null;
+		for (Symmetry symmetry : Symmetry.all()) {
+			int[] encoded = encode(symmetry.apply(puzzle));
+			if (best == null || Arrays.compare(encoded, best) < 0) {
+				best = encoded;
+				bestSymmetry = symmetry;
+			}
+		}
+		return new PuzzleFingerprint(sha256(best), bestSymmetry);
+	}
+
+	// [rows, cols, then per line: block count, blocks...], rows before columns
+	private static int[] encode(Puzzle puzzle) {
+		Clues clues = puzzle.clues();
+		int lines = clues.rows().size() + clues.cols().size(), size = 2 + lines;
+		for (Clues.Lines axis : List.of(clues.rows(), clues.cols())) {
+			for (int line = 0; line < axis.size(); line++) size += axis.blockCount(line);
+		}
+
+		int[] out = new int[size];
+		int i = 0;
+		out[i++] = clues.rows().size();
+		out[i++] = clues.cols().size();
+		for (Clues.Lines axis : List.of(clues.rows(), clues.cols())) {
+			for (int line = 0; line < axis.size(); line++) {
+				int count = axis.blockCount(line);
+				out[i++] = count;
+				for (int block = 0; block < count; block++) out[i++] = axis.block(line, block);
+			}
+		}
+		return out;
+	}
+
+	private static String sha256(int[] encoded) {
+		ByteBuffer bytes = ByteBuffer.allocate(encoded.length * Integer.BYTES);
+		bytes.asIntBuffer().put(encoded);
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes.array()));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e); // required on every JVM
+		}
+	}
+}
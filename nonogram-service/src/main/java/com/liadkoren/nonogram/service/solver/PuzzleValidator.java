@@ -0,0 +1,79 @@
+package com.liadkoren.nonogram.service.solver;
+
+import com.liadkoren.nonogram.core.model.Clues;
+import com.liadkoren.nonogram.core.model.Puzzle;
+
+// Cheap checks that a puzzle's clues can describe a grid at all, run before a job is queued or solved,
+// so an inconsistent puzzle fails with a reason instead of deep inside (or at the end of the budget of) a solve.
+// O(lines + blocks): everything is read from the packed clues, nothing is deduced.
+//
+// Passing doesn't mean the puzzle has a solution, only that none of these rule it out:
+// - there is at least one row and one column
+// - every block is at least 1 cell and every clue fits its line
+// - the row clues and the column clues fill the same number of cells
+// - a grid with these row and column sums exists (Gale-Ryser): the k fullest columns can't need more
+//   cells than the rows can give them, at most min(row sum, k) per row
+public final class PuzzleValidator {
+
+	private PuzzleValidator() {}
+
+	/**
+	 * @throws InvalidPuzzleException naming the first check the puzzle fails
+	 */
+	public static void validate(Puzzle puzzle) {
+		Clues clues = puzzle.clues();
+		int rows = clues.rows().size(), cols = clues.cols().size();
+		if (rows == 0 || cols == 0) throw new InvalidPuzzleException("puzzle has no " + (rows == 0 ? "rows" : "columns"));
+
+		long rowCells = checkLines(clues.rows(), cols, "row");
+		long colCells = checkLines(clues.cols(), rows, "column");
+		if (rowCells != colCells) {
+			throw new InvalidPuzzleException("row clues fill " + rowCells + " cells, column clues fill " + colCells);
+		}
+		checkSums(clues.rows(), clues.cols());
+	}
+
+	// every clue fits its line; returns the filled cells of all lines
+	private static long checkLines(Clues.Lines lines, int length, String axis) {
+		long cells = 0;
+		for (int line = 0; line < lines.size(); line++) {
+			for (int b = 0; b < lines.blockCount(line); b++) {
+				if (lines.block(line, b) <= 0) throw new InvalidPuzzleException(axis + " " + line + ": block sizes must be positive");
+			}
+			if (lines.minLength(line) > length) {
+				throw new InvalidPuzzleException(axis + " " + line + ": clue needs " + lines.minLength(line)
+						+ " cells, the " + axis + " has " + length);
+			}
+			cells += lines.sum(line);
+		}
+		return cells;
+	}
+
+	// Gale-Ryser, with counting sorts: sums are at most the line length once every clue fits
+	private static void checkSums(Clues.Lines rows, Clues.Lines cols) {
+		int rowCount = rows.size(), colCount = cols.size();
+
+		// rowsAtLeast[k]: rows filling at least k cells
+		int[] rowsAtLeast = new int[colCount + 2];
+		for (int r = 0; r < rowCount; r++) rowsAtLeast[(int) rows.sum(r)]++;
+		for (int k = colCount; k >= 0; k--) rowsAtLeast[k] += rowsAtLeast[k + 1];
+
+		int[] colsWithSum = new int[rowCount + 1];
+		for (int c = 0; c < colCount; c++) colsWithSum[(int) cols.sum(c)]++;
+
+		// columns taken fullest first; supply grows by the rows with sum >= k for the k-th column
+		long demand = 0, supply = 0;
+		int k = 0;
+		for (int sum = rowCount; sum > 0; sum--) {
+			for (int n = 0; n < colsWithSum[sum]; n++) {
+				k++;
+				demand += sum;
+				supply += rowsAtLeast[k];
+				if (demand > supply) {
+					throw new InvalidPuzzleException("the " + k + " fullest columns need " + demand
+							+ " cells, the rows can fill at most " + supply + " of them");
+				}
+			}
+		}
+	}
+}
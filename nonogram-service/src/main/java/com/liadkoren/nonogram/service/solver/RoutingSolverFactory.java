@@ -0,0 +1,55 @@
+package com.liadkoren.nonogram.service.solver;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
+import com.liadkoren.nonogram.core.ports.ProgressListener;
+import com.liadkoren.nonogram.core.ports.Solver;
+import com.liadkoren.nonogram.core.ports.SolverFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Solves puzzles estimated below {@code nonogram.solver.parallel-min-cost} (see PuzzleCostEstimator)
+ * with the single-threaded SimpleSolver: on a small grid, handing phases to the pool costs more than
+ * it saves. Larger puzzles go to the ParallelSolver, unless its pool has a single thread anyway.
+ */
+@Component
+public class RoutingSolverFactory implements SolverFactory {
+
+	private final SimpleSolverFactory simple;
+	private final ParallelSolverFactory parallel;
+	private final double parallelMinCost;
+
+	public RoutingSolverFactory(SimpleSolverFactory simple, ParallelSolverFactory parallel,
+	                            @Value("${nonogram.solver.parallel-min-cost:20000}") double parallelMinCost) {
+		this.simple = simple;
+		this.parallel = parallel;
+		this.parallelMinCost = parallel.getParallelism() > 1 ? parallelMinCost : Double.POSITIVE_INFINITY;
+	}
+
+	@Override
+	public Solver create(Puzzle puzzle, Duration budget) {
+		return route(puzzle).create(puzzle, budget);
+	}
+
+	@Override
+	public Solver create(Puzzle puzzle, Duration budget, ProgressListener progress) {
+		return route(puzzle).create(puzzle, budget, progress);
+	}
+
+	@Override
+	public Solver create(Puzzle puzzle, Duration budget, ProgressListener progress, CancellationToken cancellation) {
+		return route(puzzle).create(puzzle, budget, progress, cancellation);
+	}
+
+	/** True if some jobs run on their worker thread alone, see ExecutorConfig */
+	public boolean solvesSmallPuzzlesSingleThreaded() {
+		return parallelMinCost > 0;
+	}
+
+	SolverFactory route(Puzzle puzzle) {
+		return PuzzleCostEstimator.estimate(puzzle) < parallelMinCost ? simple : parallel;
+	}
+}
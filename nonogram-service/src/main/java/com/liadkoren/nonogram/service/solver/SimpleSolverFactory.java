@@ -1,17 +1,44 @@
 package com.liadkoren.nonogram.service.solver;
 
 import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
+import com.liadkoren.nonogram.core.ports.ProgressListener;
 import com.liadkoren.nonogram.core.ports.Solver;
 import com.liadkoren.nonogram.core.ports.SolverFactory;
 import com.liadkoren.nonogram.solver.SimpleSolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 
 @Component
 public class SimpleSolverFactory implements SolverFactory {
+	private final Duration progressInterval;
+
+	public SimpleSolverFactory() {
+		this(Duration.ofSeconds(1));
+	}
+
+	@Autowired
+	public SimpleSolverFactory(@Value("${nonogram.solver.progress-interval:1s}") Duration progressInterval) {
+		this.progressInterval = progressInterval;
+	}
+
 	@Override
 	public Solver create(Puzzle puzzle, Duration budget) {
 		return new SimpleSolver(puzzle, budget);
 	}
+
+	@Override
+	public Solver create(Puzzle puzzle, Duration budget, ProgressListener progress) {
+		return new SimpleSolver(puzzle, budget).withProgress(progress, progressInterval);
+	}
+
+	@Override
+	public Solver create(Puzzle puzzle, Duration budget, ProgressListener progress, CancellationToken cancellation) {
+		return new SimpleSolver(puzzle, budget)
+				.withProgress(progress, progressInterval)
+				.withCancellation(cancellation);
+	}
 }
@@ -0,0 +1,109 @@
+package com.liadkoren.nonogram.service;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.service.jobs.JobCompletion;
+import com.liadkoren.nonogram.service.jobs.JobListener;
+import com.liadkoren.nonogram.service.jobs.JobService;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * An API process (this JVM, profile "api") and two worker JVMs (profile "worker") sharing the
+ * jobs table over the API's H2 TCP server.
+ */
+class WorkerModeTest {
+
+	private static final Puzzle PUZZLE = new Puzzle(
+			List.of(new int[]{1, 2}, new int[]{3}, new int[]{1}),
+			List.of(new int[]{2}, new int[]{2}, new int[]{2}, new int[]{1})
+	);
+
+	@TempDir
+	Path logs;
+
+	private ConfigurableApplicationContext api;
+	private final List<Process> workers = new ArrayList<>();
+
+	@AfterEach
+	void shutdown() throws InterruptedException {
+		for (Process worker : workers) worker.destroy();
+		for (Process worker : workers) {
+			if (!worker.waitFor(30, TimeUnit.SECONDS)) worker.destroyForcibly();
+		}
+		if (api != null) api.close();
+	}
+
+	@Test
+	void workerJvmsSolveJobsSubmittedToApi() throws Exception {
+		int dbPort = freePort();
+		String db = "worker-mode-" + UUID.randomUUID();
+
+		// arguments, not builder properties: those are defaults that application.yml overrides
+		api = new SpringApplicationBuilder(NonogramServiceApplication.class)
+				.profiles("api")
+				.run("--server.port=0",
+						"--nonogram.h2.tcp-port=" + dbPort,
+						"--spring.datasource.url=jdbc:h2:mem:" + db + ";DB_CLOSE_DELAY=-1",
+						"--spring.jpa.show-sql=false");
+		assertTrue(api.getBeansOfType(JobListener.class).isEmpty(), "the api process runs no workers");
+
+		for (int i = 0; i < 2; i++) {
+			workers.add(startWorker("jdbc:h2:tcp://localhost:" + dbPort + "/mem:" + db, logs.resolve("worker-" + i + ".log").toFile()));
+		}
+
+		JobService jobs = api.getBean(JobService.class);
+		List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < 6; i++) ids.add(jobs.submitPuzzleJob(PUZZLE, 5_000).jobId());
+		// the workers finish it in another process, the api process learns of it by polling
+		CompletableFuture<JobCompletion> lastDone = jobs.awaitCompletion(ids.get(5));
+
+		// worker JVMs take a while to boot
+		await().atMost(2, TimeUnit.MINUTES).pollInterval(200, TimeUnit.MILLISECONDS).until(() ->
+				ids.stream().allMatch(id -> jobs.findJob(id).orElseThrow().getStatus() == JobStatus.SUCCESS));
+
+		assertEquals(JobStatus.SUCCESS, lastDone.get(5, TimeUnit.SECONDS).status());
+		for (UUID id : ids) {
+			boolean[][] grid = jobs.findJob(id).orElseThrow().getResultGrid();
+			assertArrayEquals(new boolean[]{true, false, true, true}, grid[0]);
+		}
+		for (Process worker : workers) assertTrue(worker.isAlive(), "workers keep polling for more jobs");
+	}
+
+	private static Process startWorker(String dbUrl, File log) throws IOException {
+		String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+		return new ProcessBuilder(java,
+				"-cp", System.getProperty("java.class.path"),
+				NonogramServiceApplication.class.getName(),
+				"--spring.profiles.active=worker",
+				"--spring.datasource.url=" + dbUrl,
+				"--spring.jpa.show-sql=false",
+				"--nonogram.jobs.workers=1",
+				"--nonogram.solver.parallelism=1")
+				.redirectErrorStream(true)
+				.redirectOutput(log)
+				.start();
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -1,23 +1,64 @@
 package com.liadkoren.nonogram.service.api;
 
+import com.liadkoren.nonogram.core.model.PartialGrid;
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.service.api.dto.JobStatusResponse;
+import com.liadkoren.nonogram.service.api.dto.JobSubmittedResponse;
+import com.liadkoren.nonogram.service.api.dto.PuzzleJobRequest;
+import com.liadkoren.nonogram.service.api.wire.WireCodec;
+import com.liadkoren.nonogram.service.jobs.BatchProgress;
+import com.liadkoren.nonogram.service.jobs.HopelessJobException;
+import com.liadkoren.nonogram.service.jobs.JobCompletion;
+import com.liadkoren.nonogram.service.jobs.JobProgress;
 import com.liadkoren.nonogram.service.jobs.JobService;
+import com.liadkoren.nonogram.service.jobs.QueueFullException;
+import com.liadkoren.nonogram.service.jobs.QueueStats;
+import com.liadkoren.nonogram.service.jobs.SubmittedJob;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity;
+import com.liadkoren.nonogram.service.solver.InvalidPuzzleException;
+import com.liadkoren.nonogram.service.jobs.model.BitGrid;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import com.liadkoren.nonogram.service.jobs.model.PartialBitGrid;
+import jakarta.servlet.AsyncListener;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,6 +82,15 @@ class JobControllerTest {
 	@MockitoBean
 	private JobService jobService;
 
+	// ExecutorConfig is not part of the web slice
+	@TestConfiguration
+	static class EventsExecutor {
+		@Bean
+		ExecutorService jobEventsExecutor() {
+			return Executors.newSingleThreadExecutor();
+		}
+	}
+
 	// --- Tests for GET /{jobId} ---
 
 	/**
@@ -152,7 +202,8 @@ class JobControllerTest {
 				""".formatted(budgetMs);
 
 		// Mock the service layer call
-		when(jobService.submitPuzzleJob(any(), eq(budgetMs))).thenReturn(newJobId);
+		Instant estimatedCompletion = Instant.parse("2025-01-01T00:00:05Z");
+		when(jobService.submitPuzzleJob(any(), eq(budgetMs))).thenReturn(new SubmittedJob(newJobId, estimatedCompletion));
 
 		// --- Act & Assert ---
 		mockMvc.perform(post("/jobs/puzzle")
@@ -160,7 +211,50 @@ class JobControllerTest {
 						.content(requestJson))
 				.andExpect(status().isAccepted())
 				.andExpect(jsonPath("$.jobId").value(newJobId.toString()))
-				.andExpect(jsonPath("$.status").value("QUEUED"));
+				.andExpect(jsonPath("$.status").value("QUEUED"))
+				.andExpect(jsonPath("$.estimatedCompletion").value("2025-01-01T00:00:05Z"));
+	}
+
+	@Test
+	void submitPuzzle_whenPuzzleIsHopeless_returnsUnprocessableEntity() throws Exception {
+		String requestJson = """
+				{
+				    "puzzle": {
+				        "rows": [[1]],
+				        "cols": [[1]]
+				    },
+				    "budgetMs": 10
+				}
+				""";
+
+		when(jobService.submitPuzzleJob(any(), eq(10L))).thenThrow(new HopelessJobException("predicted 5000ms"));
+
+		mockMvc.perform(post("/jobs/puzzle")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(requestJson))
+				.andExpect(status().isUnprocessableEntity())
+				.andExpect(content().string(containsString("predicted 5000ms")));
+	}
+
+	@Test
+	void submitPuzzle_whenPuzzleIsInvalid_returnsBadRequest() throws Exception {
+		String requestJson = """
+				{
+				    "puzzle": {
+				        "rows": [[2]],
+				        "cols": [[1]]
+				    },
+				    "budgetMs": 1000
+				}
+				""";
+
+		when(jobService.submitPuzzleJob(any(), eq(1000L))).thenThrow(new InvalidPuzzleException("row 0: clue needs 2 cells, the row has 1"));
+
+		mockMvc.perform(post("/jobs/puzzle")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(requestJson))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string(containsString("row 0: clue needs 2 cells")));
 	}
 
 	@Test
@@ -183,5 +277,427 @@ class JobControllerTest {
 						.content(requestJson))
 				.andExpect(status().isBadRequest());
 	}
-}
 
+	@Test
+	void submitPuzzle_whenQueueIsFull_returnsTooManyRequests() throws Exception {
+		// --- Arrange ---
+		String requestJson = """
+				{
+				    "puzzle": {
+				        "rows": [[1]],
+				        "cols": [[1]]
+				    },
+				    "budgetMs": 1000
+				}
+				""";
+
+		when(jobService.submitPuzzleJob(any(), eq(1000L))).thenThrow(new QueueFullException(10));
+
+		// --- Act & Assert ---
+		mockMvc.perform(post("/jobs/puzzle")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(requestJson))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().exists("Retry-After"));
+	}
+
+	@Test
+	void getQueueStats_returnsDepthAndWaitPercentiles() throws Exception {
+		when(jobService.queueStats()).thenReturn(new QueueStats(3, 1000, 12, 40, 95));
+
+		mockMvc.perform(get("/jobs/queue"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.depth").value(3))
+				.andExpect(jsonPath("$.capacity").value(1000))
+				.andExpect(jsonPath("$.waitP90Ms").value(40));
+	}
+
+	@Test
+	void getJobGrid_whenJobSucceeded_returnsPackedGrid() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		JobEntity mockJob = new JobEntity();
+		mockJob.setId(jobId);
+		mockJob.setStatus(JobStatus.SUCCESS);
+		mockJob.setResultGrid(new boolean[][]{{true, false}, {false, true}});
+
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(mockJob));
+
+		// 2 rows, 2 cols, then cells 0 and 3 set
+		mockMvc.perform(get("/jobs/{jobId}/grid", jobId))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+				.andExpect(content().bytes(new byte[]{0, 0, 0, 2, 0, 0, 0, 2, 0b1001}));
+	}
+
+	@Test
+	void getJobGrid_whenJobHasNoResult_returnsNotFound() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		JobEntity mockJob = new JobEntity();
+		mockJob.setId(jobId);
+		mockJob.setStatus(JobStatus.RUNNING);
+
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(mockJob));
+
+		mockMvc.perform(get("/jobs/{jobId}/grid", jobId))
+				.andExpect(status().isNotFound());
+	}
+
+	// --- binary wire format ---
+
+	@Test
+	void submitPuzzle_whenBodyIsBinary_returnsBinaryResponse() throws Exception {
+		UUID newJobId = UUID.randomUUID();
+		Puzzle puzzle = new Puzzle(List.of(new int[]{1, 1}, new int[]{3}), List.of(new int[]{2}, new int[]{1}, new int[]{2}));
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		WireCodec.writePuzzleJobRequest(new PuzzleJobRequest(puzzle, 10000L), body);
+
+		when(jobService.submitPuzzleJob(argThat(p -> p.rows().size() == 2 && p.cols().get(0)[0] == 2), eq(10000L)))
+				.thenReturn(new SubmittedJob(newJobId, Instant.ofEpochMilli(1_700_000_000_123L)));
+
+		byte[] response = mockMvc.perform(post("/jobs/puzzle")
+						.contentType(WireCodec.MEDIA_TYPE)
+						.accept(WireCodec.MEDIA_TYPE)
+						.content(body.toByteArray()))
+				.andExpect(status().isAccepted())
+				.andExpect(content().contentType(WireCodec.MEDIA_TYPE))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		JobSubmittedResponse submitted = WireCodec.readJobSubmittedResponse(new ByteArrayInputStream(response));
+		assertEquals(newJobId, submitted.jobId());
+		assertEquals("QUEUED", submitted.status());
+		assertEquals(Instant.ofEpochMilli(1_700_000_000_123L), submitted.estimatedCompletion());
+	}
+
+	@Test
+	void submitPuzzle_whenBinaryBudgetIsNegative_returnsBadRequest() throws Exception {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		WireCodec.writePuzzleJobRequest(new PuzzleJobRequest(new Puzzle(List.of(new int[]{1}), List.of(new int[]{1})), -100L), body);
+
+		mockMvc.perform(post("/jobs/puzzle")
+						.contentType(WireCodec.MEDIA_TYPE)
+						.content(body.toByteArray()))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void submitPuzzle_whenBinaryBodyIsTruncated_returnsBadRequest() throws Exception {
+		mockMvc.perform(post("/jobs/puzzle")
+						.contentType(WireCodec.MEDIA_TYPE)
+						.content(new byte[]{0x10, 2}))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void getJobStatus_whenBinaryIsAccepted_returnsBinary() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		JobEntity mockJob = new JobEntity();
+		mockJob.setId(jobId);
+		mockJob.setStatus(JobStatus.SUCCESS);
+		mockJob.setSolutionTimeMs(1234L);
+		mockJob.setResultGrid(new boolean[][]{{true, false}, {false, true}});
+
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(mockJob));
+
+		byte[] response = mockMvc.perform(get("/jobs/{jobId}", jobId).accept(WireCodec.MEDIA_TYPE))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(WireCodec.MEDIA_TYPE))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		JobStatusResponse decoded = WireCodec.readJobStatusResponse(new ByteArrayInputStream(response));
+		assertEquals(jobId, decoded.id());
+		assertEquals(JobStatus.SUCCESS, decoded.status());
+		assertEquals(1234L, decoded.solutionTimeMs());
+		assertEquals(BitGrid.of(new boolean[][]{{true, false}, {false, true}}), decoded.resultGrid());
+		assertNull(decoded.errorMessage());
+	}
+
+	@Test
+	void getJobStatus_whenAnyIsAccepted_prefersJson() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		JobEntity mockJob = new JobEntity();
+		mockJob.setId(jobId);
+		mockJob.setStatus(JobStatus.QUEUED);
+
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(mockJob));
+
+		mockMvc.perform(get("/jobs/{jobId}", jobId).accept(MediaType.ALL))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON));
+	}
+
+	// --- batch submission ---
+
+	@Test
+	void submitBatch_whenJsonArrayIsValid_returnsBatchAndJobIds() throws Exception {
+		UUID batchId = UUID.randomUUID();
+		String requestJson = """
+				[
+				    {"puzzle": {"rows": [[1]], "cols": [[1]]}, "budgetMs": 1000},
+				    {"url": "http://example.com/puzzle", "budgetMs": 2000}
+				]
+				""";
+
+		when(jobService.submitBatch(argThat(jobs -> jobs.size() == 2
+				&& jobs.get(0).getSourceType() == JobEntity.JobSourceType.INLINE_PUZZLE
+				&& jobs.get(1).getBudgetMs() == 2000)))
+				.thenReturn(batchId);
+
+		mockMvc.perform(post("/jobs/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(requestJson))
+				.andExpect(status().isAccepted())
+				.andExpect(jsonPath("$.batchId").value(batchId.toString()))
+				.andExpect(jsonPath("$.jobIds.length()").value(2))
+				.andExpect(jsonPath("$.status").value("QUEUED"));
+	}
+
+	@Test
+	void submitBatch_whenNdjson_submitsOneJobPerLine() throws Exception {
+		UUID batchId = UUID.randomUUID();
+		String body = """
+				{"puzzle": {"rows": [[1]], "cols": [[1]]}, "budgetMs": 1000}
+
+				{"puzzle": {"rows": [[2]], "cols": [[1], [1]]}, "budgetMs": 1000}
+				{"url": "http://example.com/puzzle", "budgetMs": 1000}
+				""";
+
+		when(jobService.submitBatch(argThat(jobs -> jobs.size() == 3))).thenReturn(batchId);
+
+		mockMvc.perform(post("/jobs/batch")
+						.contentType("application/x-ndjson")
+						.content(body))
+				.andExpect(status().isAccepted())
+				.andExpect(jsonPath("$.batchId").value(batchId.toString()))
+				.andExpect(jsonPath("$.jobIds.length()").value(3));
+	}
+
+	@Test
+	void submitBatch_whenJobHasBothPuzzleAndUrl_returnsBadRequest() throws Exception {
+		String requestJson = """
+				[{"puzzle": {"rows": [[1]], "cols": [[1]]}, "url": "http://example.com/puzzle", "budgetMs": 1000}]
+				""";
+
+		mockMvc.perform(post("/jobs/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(requestJson))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void submitBatch_whenNdjsonLineIsMalformed_returnsBadRequest() throws Exception {
+		mockMvc.perform(post("/jobs/batch")
+						.contentType("application/x-ndjson")
+						.content("{\"url\": \"http://example.com/puzzle\", \"budgetMs\": 1000}\n{not json\n"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void submitBatch_whenEmpty_returnsBadRequest() throws Exception {
+		mockMvc.perform(post("/jobs/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("[]"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void getBatchProgress_returnsAggregateStatus() throws Exception {
+		UUID batchId = UUID.randomUUID();
+		when(jobService.batchProgress(batchId)).thenReturn(new BatchProgress(batchId, 3, 0, 0, 2, 1));
+
+		mockMvc.perform(get("/jobs/batch/{batchId}", batchId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.total").value(3))
+				.andExpect(jsonPath("$.succeeded").value(2))
+				.andExpect(jsonPath("$.done").value(true));
+	}
+
+	@Test
+	void getBatchProgress_whenBatchDoesNotExist_returnsNotFound() throws Exception {
+		UUID batchId = UUID.randomUUID();
+		when(jobService.batchProgress(batchId)).thenReturn(new BatchProgress(batchId, 0, 0, 0, 0, 0));
+
+		mockMvc.perform(get("/jobs/batch/{batchId}", batchId))
+				.andExpect(status().isNotFound());
+	}
+
+	// --- waiting for completion ---
+
+	private JobEntity job(UUID jobId, JobStatus status) {
+		JobEntity job = new JobEntity();
+		job.setId(jobId);
+		job.setStatus(status);
+		return job;
+	}
+
+	@Test
+	void awaitJobStatus_whenJobCompletesDuringWait_returnsResultWithoutReadingAgain() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		CompletableFuture<JobCompletion> completion = new CompletableFuture<>();
+		when(jobService.awaitCompletion(jobId)).thenReturn(completion);
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(job(jobId, JobStatus.RUNNING)));
+
+		MvcResult pending = mockMvc.perform(get("/jobs/{jobId}", jobId).param("wait", "30s"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		completion.complete(new JobCompletion(jobId, JobStatus.SUCCESS, 42L, BitGrid.of(new boolean[][]{{true}}), null, null));
+
+		mockMvc.perform(asyncDispatch(pending))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("SUCCESS"))
+				.andExpect(jsonPath("$.solutionTimeMs").value(42))
+				.andExpect(jsonPath("$.resultGrid[0][0]").value(true));
+		verify(jobService, times(1)).findJob(jobId);
+		verify(jobService).stopAwaiting(jobId, completion);
+	}
+
+	@Test
+	void awaitJobStatus_whenWaitRunsOut_returnsCurrentStatus() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		CompletableFuture<JobCompletion> completion = new CompletableFuture<>();
+		when(jobService.awaitCompletion(jobId)).thenReturn(completion);
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(job(jobId, JobStatus.QUEUED)));
+
+		MvcResult pending = mockMvc.perform(get("/jobs/{jobId}", jobId).param("wait", "30s"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		// MockMvc has no container to time the request out
+		MockAsyncContext asyncContext = (MockAsyncContext) pending.getRequest().getAsyncContext();
+		for (AsyncListener listener : asyncContext.getListeners()) listener.onTimeout(null);
+
+		mockMvc.perform(asyncDispatch(pending))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("QUEUED"));
+	}
+
+	@Test
+	void awaitJobStatus_whenWaitIsZero_answersRightAway() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(job(jobId, JobStatus.QUEUED)));
+
+		MvcResult pending = mockMvc.perform(get("/jobs/{jobId}", jobId).param("wait", "0s")).andReturn();
+
+		mockMvc.perform(asyncDispatch(pending))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("QUEUED"));
+		verify(jobService, never()).awaitCompletion(jobId);
+	}
+
+	@Test
+	void awaitJobStatus_whenJobIsAlreadyDone_answersRightAway() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		CompletableFuture<JobCompletion> completion = new CompletableFuture<>();
+		when(jobService.awaitCompletion(jobId)).thenReturn(completion);
+		JobEntity failed = job(jobId, JobStatus.FAIL);
+		failed.setErrorMessage("TIMEOUT");
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(failed));
+
+		MvcResult pending = mockMvc.perform(get("/jobs/{jobId}", jobId).param("wait", "30s")).andReturn();
+
+		mockMvc.perform(asyncDispatch(pending))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("FAIL"))
+				.andExpect(jsonPath("$.errorMessage").value("TIMEOUT"));
+		verify(jobService).stopAwaiting(jobId, completion);
+	}
+
+	@Test
+	void awaitJobStatus_whenJobDoesNotExist_returnsNotFound() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		when(jobService.awaitCompletion(jobId)).thenReturn(new CompletableFuture<>());
+		when(jobService.findJob(jobId)).thenReturn(Optional.empty());
+
+		MvcResult pending = mockMvc.perform(get("/jobs/{jobId}", jobId).param("wait", "30s")).andReturn();
+
+		mockMvc.perform(asyncDispatch(pending)).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void jobEvents_streamsCurrentStatusThenCompletion() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		CompletableFuture<JobCompletion> completion = new CompletableFuture<>();
+		when(jobService.awaitCompletion(jobId)).thenReturn(completion);
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(job(jobId, JobStatus.RUNNING)));
+
+		MvcResult pending = mockMvc.perform(get("/jobs/{jobId}/events", jobId).accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		completion.complete(new JobCompletion(jobId, JobStatus.FAIL, null, null, "UNSOLVABLE: contradiction", null));
+		pending.getAsyncResult(2000);
+
+		String body = pending.getResponse().getContentAsString();
+		assertTrue(body.contains("event:status"), body);
+		assertTrue(body.indexOf("\"RUNNING\"") < body.indexOf("\"FAIL\""), body);
+		assertTrue(body.contains("UNSOLVABLE: contradiction"), body);
+	}
+
+	@Test
+	void jobEvents_streamsProgressOfRunningJob() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		CompletableFuture<JobCompletion> completion = new CompletableFuture<>();
+		when(jobService.awaitCompletion(jobId)).thenReturn(completion);
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(job(jobId, JobStatus.RUNNING)));
+
+		MvcResult pending = mockMvc.perform(get("/jobs/{jobId}/events", jobId).accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		ArgumentCaptor<Consumer<JobProgress>> watcher = ArgumentCaptor.captor();
+		verify(jobService).watchProgress(eq(jobId), watcher.capture());
+		watcher.getValue().accept(new JobProgress(jobId, PartialBitGrid.of(new PartialGrid(new int[][]{{1, 0}}))));
+		await().atMost(2, TimeUnit.SECONDS).until(() -> pending.getResponse().getContentAsString().contains("event:progress"));
+		completion.complete(new JobCompletion(jobId, JobStatus.SUCCESS, 5L, BitGrid.of(new boolean[][]{{true, false}}), null, null));
+		pending.getAsyncResult(2000);
+
+		String body = pending.getResponse().getContentAsString();
+		assertTrue(body.contains("\"partialGrid\":[[1,0]]"), body);
+		assertTrue(body.contains("\"solvedPercent\":50.0"), body);
+		mockMvc.perform(asyncDispatch(pending)); // runs the emitter's completion callbacks
+		verify(jobService).stopWatching(jobId, watcher.getValue());
+	}
+
+	@Test
+	void getJobStatus_ofTimedOutJob_includesDeducedCells() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		JobEntity timedOut = job(jobId, JobStatus.FAIL);
+		timedOut.setErrorMessage("TIMEOUT");
+		timedOut.setPartialGrid(PartialBitGrid.of(new PartialGrid(new int[][]{{1, -1}, {0, 0}})));
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(timedOut));
+
+		mockMvc.perform(get("/jobs/{jobId}", jobId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.partialGrid[0][1]").value(-1))
+				.andExpect(jsonPath("$.partialGrid[1][0]").value(0))
+				.andExpect(jsonPath("$.solvedPercent").value(50.0));
+	}
+
+	// --- cancellation ---
+
+	@Test
+	void cancelJob_whenJobIsQueuedOrRunning_returnsNoContent() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		when(jobService.cancel(jobId)).thenReturn(true);
+
+		mockMvc.perform(delete("/jobs/{jobId}", jobId))
+				.andExpect(status().isNoContent());
+	}
+
+	@Test
+	void cancelJob_whenJobIsAlreadyDone_returnsConflictWithItsStatus() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		when(jobService.cancel(jobId)).thenReturn(false);
+		when(jobService.findJob(jobId)).thenReturn(Optional.of(job(jobId, JobStatus.SUCCESS)));
+
+		mockMvc.perform(delete("/jobs/{jobId}", jobId))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.status").value("SUCCESS"));
+	}
+
+	@Test
+	void cancelJob_whenJobDoesNotExist_returnsNotFound() throws Exception {
+		UUID jobId = UUID.randomUUID();
+		when(jobService.cancel(jobId)).thenReturn(false);
+		when(jobService.findJob(jobId)).thenReturn(Optional.empty());
+
+		mockMvc.perform(delete("/jobs/{jobId}", jobId))
+				.andExpect(status().isNotFound());
+	}
+}
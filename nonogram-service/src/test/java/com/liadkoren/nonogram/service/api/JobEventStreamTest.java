@@ -0,0 +1,146 @@
+package com.liadkoren.nonogram.service.api;
+
+import com.liadkoren.nonogram.core.model.PartialGrid;
+import com.liadkoren.nonogram.service.api.dto.JobStatusResponse;
+import com.liadkoren.nonogram.service.jobs.JobCompletion;
+import com.liadkoren.nonogram.service.jobs.JobProgress;
+import com.liadkoren.nonogram.service.jobs.model.BitGrid;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import com.liadkoren.nonogram.service.jobs.model.PartialBitGrid;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobEventStreamTest {
+
+	private final UUID jobId = UUID.randomUUID();
+	private final RecordingEmitter emitter = new RecordingEmitter();
+	private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+	@Test
+	void sendsOnlyTheLatestProgressWaiting() {
+		JobEventStream stream = new JobEventStream(emitter, tasks::add);
+
+		stream.progressed(progress(1, -1));
+		stream.progressed(progress(1, 0));
+		JobProgress latest = progress(1, 1);
+		stream.progressed(latest);
+
+		assertEquals(1, tasks.size(), "one task sends for the whole stream");
+		runTasks();
+		assertEquals(1, emitter.events.size());
+		assertSame(latest.partialGrid(), emitter.events.get(0).partialGrid());
+	}
+
+	@Test
+	void finalStatusDropsProgressNotSentYet() {
+		JobEventStream stream = new JobEventStream(emitter, tasks::add);
+
+		stream.progressed(progress(1, 0));
+		stream.completed(success());
+		stream.progressed(progress(1, 1)); // reported after the job finished
+
+		runTasks();
+		assertEquals(List.of(JobStatus.SUCCESS), emitter.events.stream().map(JobStatusResponse::status).toList());
+		assertTrue(emitter.completed);
+	}
+
+	@Test
+	void endsTheStreamWhenTheExecutorIsFull() {
+		JobEventStream stream = new JobEventStream(emitter, task -> {
+			throw new RejectedExecutionException("full");
+		});
+
+		stream.progressed(progress(1, 0));
+		stream.completed(success());
+
+		assertTrue(emitter.completed);
+		assertTrue(emitter.events.isEmpty());
+	}
+
+	@Test
+	void keepsTheOrderEventsWereReportedIn() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			JobEventStream stream = new JobEventStream(emitter, pool);
+			List<PartialBitGrid> reported = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				JobProgress update = progress(i % 2, i % 3 - 1);
+				reported.add(update.partialGrid());
+				stream.progressed(update);
+			}
+			stream.completed(success());
+
+			assertTrue(emitter.done.await(2, TimeUnit.SECONDS));
+			List<JobStatusResponse> sent = emitter.events;
+			assertEquals(JobStatus.SUCCESS, sent.get(sent.size() - 1).status());
+			int previous = -1;
+			for (JobStatusResponse progress : sent.subList(0, sent.size() - 1)) {
+				int index = indexOfSame(reported, progress.partialGrid());
+				assertTrue(index > previous, "progress " + index + " sent after " + previous);
+				previous = index;
+			}
+			assertTrue(emitter.sentAfterComplete.isEmpty(), emitter.sentAfterComplete.toString());
+			assertFalse(emitter.overlapped, "two sends at once");
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static int indexOfSame(List<PartialBitGrid> grids, PartialBitGrid grid) {
+		for (int i = 0; i < grids.size(); i++) if (grids.get(i) == grid) return i;
+		throw new AssertionError("not reported: " + grid);
+	}
+
+	private void runTasks() {
+		for (Runnable task; (task = tasks.poll()) != null; ) task.run();
+	}
+
+	private JobProgress progress(int a, int b) {
+		return new JobProgress(jobId, PartialBitGrid.of(new PartialGrid(new int[][]{{a, b}})));
+	}
+
+	private JobCompletion success() {
+		return new JobCompletion(jobId, JobStatus.SUCCESS, 5L, BitGrid.of(new boolean[][]{{true, false}}), null, null);
+	}
+
+	private static class RecordingEmitter extends SseEmitter {
+		final List<JobStatusResponse> events = new CopyOnWriteArrayList<>();
+		final List<JobStatusResponse> sentAfterComplete = new CopyOnWriteArrayList<>();
+		final CountDownLatch done = new CountDownLatch(1);
+		final AtomicInteger sending = new AtomicInteger();
+		volatile boolean completed, overlapped;
+
+		@Override
+		public void send(SseEventBuilder builder) {
+			if (sending.incrementAndGet() > 1) overlapped = true;
+			JobStatusResponse event = builder.build().stream()
+					.map(DataWithMediaType::getData)
+					.filter(JobStatusResponse.class::isInstance)
+					.map(JobStatusResponse.class::cast)
+					.findFirst().orElseThrow();
+			(completed ? sentAfterComplete : events).add(event);
+			sending.decrementAndGet();
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+			done.countDown();
+		}
+	}
+}
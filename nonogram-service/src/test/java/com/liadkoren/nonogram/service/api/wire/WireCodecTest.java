@@ -0,0 +1,121 @@
+package com.liadkoren.nonogram.service.api.wire;
+
+import com.liadkoren.nonogram.core.model.PartialGrid;
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.service.api.dto.JobStatusResponse;
+import com.liadkoren.nonogram.service.api.dto.JobSubmittedResponse;
+import com.liadkoren.nonogram.service.api.dto.PuzzleJobRequest;
+import com.liadkoren.nonogram.service.jobs.model.BitGrid;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import com.liadkoren.nonogram.service.jobs.model.PartialBitGrid;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireCodecTest {
+
+	@Test
+	void roundTripsPuzzleJobRequest() throws IOException {
+		Puzzle puzzle = new Puzzle(
+				List.of(new int[]{1, 2}, new int[]{}, new int[]{300}),
+				List.of(new int[]{2}, new int[]{1, 1, 1}));
+
+		PuzzleJobRequest decoded = WireCodec.readPuzzleJobRequest(in(encode(new PuzzleJobRequest(puzzle, 1500))));
+
+		assertEquals(1500, decoded.budgetMs());
+		assertEquals(3, decoded.puzzle().rows().size());
+		assertArrayEquals(new int[]{1, 2}, decoded.puzzle().rows().get(0));
+		assertArrayEquals(new int[]{}, decoded.puzzle().rows().get(1));
+		assertArrayEquals(new int[]{300}, decoded.puzzle().rows().get(2));
+		assertArrayEquals(new int[]{1, 1, 1}, decoded.puzzle().cols().get(1));
+	}
+
+	@Test
+	void keepsNegativeValuesSoValidationCanRejectThem() throws IOException {
+		Puzzle puzzle = new Puzzle(List.of(new int[]{-1}), List.of(new int[]{1}));
+
+		PuzzleJobRequest decoded = WireCodec.readPuzzleJobRequest(in(encode(new PuzzleJobRequest(puzzle, -100))));
+
+		assertEquals(-100, decoded.budgetMs());
+		assertArrayEquals(new int[]{-1}, decoded.puzzle().rows().get(0));
+	}
+
+	@Test
+	void encodesSmallCluesInOneBytePerBlock() throws IOException {
+		// budget 0, 2 rows, 2 cols, then 4 lines of one block each: 3 + 4 * 2 bytes
+		Puzzle puzzle = new Puzzle(List.of(new int[]{1}, new int[]{1}), List.of(new int[]{1}, new int[]{1}));
+		assertEquals(11, encode(new PuzzleJobRequest(puzzle, 0)).length);
+	}
+
+	@Test
+	void roundTripsJobStatusResponse() throws IOException {
+		UUID id = UUID.randomUUID();
+		BitGrid grid = BitGrid.of(new boolean[][]{{true, false, true}, {false, true, false}});
+		JobStatusResponse full = new JobStatusResponse(id, JobStatus.SUCCESS, 42L, grid, null);
+		JobStatusResponse failed = new JobStatusResponse(id, JobStatus.FAIL, null, null, "UNSOLVABLE: contradiction");
+		JobStatusResponse timedOut = new JobStatusResponse(id, JobStatus.FAIL, null, null, "TIMEOUT",
+				PartialBitGrid.of(new PartialGrid(new int[][]{{1, 0, -1}, {0, 0, 0}})));
+
+		assertEquals(full, roundTrip(full));
+		assertEquals(failed, roundTrip(failed));
+		assertEquals(timedOut, roundTrip(timedOut));
+		assertEquals(2 * 100.0 / 6, roundTrip(timedOut).solvedPercent());
+	}
+
+	@Test
+	void roundTripsJobSubmittedResponseWithAndWithoutEstimate() throws IOException {
+		UUID id = UUID.randomUUID();
+		JobSubmittedResponse estimated = new JobSubmittedResponse(id, "QUEUED", Instant.ofEpochMilli(1_700_000_000_123L));
+		JobSubmittedResponse url = new JobSubmittedResponse(id, "QUEUED");
+
+		assertEquals(estimated, roundTrip(estimated));
+		assertEquals(url, roundTrip(url));
+	}
+
+	@Test
+	void rejectsTruncatedInput() throws IOException {
+		Puzzle puzzle = new Puzzle(List.of(new int[]{1}), List.of(new int[]{1}));
+		byte[] encoded = encode(new PuzzleJobRequest(puzzle, 0));
+		byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+
+		assertThrows(EOFException.class, () -> WireCodec.readPuzzleJobRequest(in(truncated)));
+	}
+
+	@Test
+	void rejectsOversizedCounts() {
+		// budget 0, then a row count of 2^21
+		byte[] hostile = {0, (byte) 0x80, (byte) 0x80, 0x01};
+		assertThrows(IOException.class, () -> WireCodec.readPuzzleJobRequest(in(hostile)));
+	}
+
+	private static byte[] encode(PuzzleJobRequest request) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		WireCodec.writePuzzleJobRequest(request, out);
+		return out.toByteArray();
+	}
+
+	private static JobStatusResponse roundTrip(JobStatusResponse response) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		WireCodec.writeJobStatusResponse(response, out);
+		return WireCodec.readJobStatusResponse(in(out.toByteArray()));
+	}
+
+	private static JobSubmittedResponse roundTrip(JobSubmittedResponse response) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		WireCodec.writeJobSubmittedResponse(response, out);
+		return WireCodec.readJobSubmittedResponse(in(out.toByteArray()));
+	}
+
+	private static ByteArrayInputStream in(byte[] bytes) {
+		return new ByteArrayInputStream(bytes);
+	}
+}
@@ -0,0 +1,111 @@
+package com.liadkoren.nonogram.service.api.wire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.service.api.dto.JobStatusResponse;
+import com.liadkoren.nonogram.service.api.dto.PuzzleJobRequest;
+import com.liadkoren.nonogram.service.jobs.model.BitGrid;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON and the binary wire format on what the server does per request:
+ * decoding a submitted puzzle and encoding a solved job's status, on random square puzzles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+public class WireFormatBenchmark {
+
+	@Param({"25", "100", "500"})
+	private int size;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private JobStatusResponse status;
+	private byte[] requestJson, requestBinary;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		boolean[][] grid = randomGrid(size, new Random(42));
+		PuzzleJobRequest request = new PuzzleJobRequest(new Puzzle(clues(grid, false), clues(grid, true)), 5000);
+		status = new JobStatusResponse(UUID.randomUUID(), JobStatus.SUCCESS, 1234L, BitGrid.of(grid), null);
+
+		requestJson = mapper.writeValueAsBytes(request);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		WireCodec.writePuzzleJobRequest(request, out);
+		requestBinary = out.toByteArray();
+	}
+
+	@Benchmark
+	public PuzzleJobRequest decodeRequestJson() throws IOException {
+		return mapper.readValue(requestJson, PuzzleJobRequest.class);
+	}
+
+	@Benchmark
+	public PuzzleJobRequest decodeRequestBinary() throws IOException {
+		return WireCodec.readPuzzleJobRequest(new ByteArrayInputStream(requestBinary));
+	}
+
+	@Benchmark
+	public byte[] encodeStatusJson() throws IOException {
+		return mapper.writeValueAsBytes(status);
+	}
+
+	@Benchmark
+	public byte[] encodeStatusBinary() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		WireCodec.writeJobStatusResponse(status, out);
+		return out.toByteArray();
+	}
+
+	private static boolean[][] randomGrid(int size, Random random) {
+		boolean[][] grid = new boolean[size][size];
+		for (boolean[] row : grid) {
+			for (int c = 0; c < size; c++) row[c] = random.nextBoolean();
+		}
+		return grid;
+	}
+
+	private static List<int[]> clues(boolean[][] grid, boolean columns) {
+		int n = grid.length;
+		List<int[]> clues = new ArrayList<>(n);
+		for (int line = 0; line < n; line++) {
+			List<Integer> blocks = new ArrayList<>();
+			int run = 0;
+			for (int i = 0; i < n; i++) {
+				if (columns ? grid[i][line] : grid[line][i]) run++;
+				else if (run > 0) { blocks.add(run); run = 0; }
+			}
+			if (run > 0) blocks.add(run);
+			clues.add(blocks.stream().mapToInt(Integer::intValue).toArray());
+		}
+		return clues;
+	}
+
+	/**
+	 * Main method to run the benchmarks from the IDE.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(WireFormatBenchmark.class.getSimpleName())
+				.build();
+
+		new Runner(opt).run();
+	}
+}
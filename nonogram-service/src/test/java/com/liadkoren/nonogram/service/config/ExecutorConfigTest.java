@@ -0,0 +1,68 @@
+package com.liadkoren.nonogram.service.config;
+
+import com.liadkoren.nonogram.service.solver.ParallelSolverFactory;
+import com.liadkoren.nonogram.service.solver.RoutingSolverFactory;
+import com.liadkoren.nonogram.service.solver.SimpleSolverFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutorConfigTest {
+
+	private static final int CPUS = 8;
+
+	// solver.parallelism: 0 with small puzzles single-threaded, made explicit for an 8-core host
+	private final ParallelSolverFactory parallel = new ParallelSolverFactory(ParallelSolverFactory.defaultParallelism(CPUS, true), Duration.ofSeconds(1));
+
+	@AfterEach
+	void shutdown() {
+		parallel.shutdown();
+	}
+
+	@Test
+	void defaultConfigSplitsTheCpusBetweenPoolAndWorkers() {
+		RoutingSolverFactory routing = new RoutingSolverFactory(new SimpleSolverFactory(), parallel, 20_000);
+
+		assertEquals(4, parallel.getParallelism());
+		assertEquals(5, ExecutorConfig.workers(0, CPUS, parallel, routing));
+	}
+
+	@Test
+	void mixedWorkloadNeverNeedsMoreThreadsThanCpus() {
+		for (int cpus = 1; cpus <= 64; cpus++) {
+			for (int pool : new int[]{ParallelSolverFactory.defaultParallelism(cpus, true), 1, cpus}) {
+				int workers = ExecutorConfig.adaptiveWorkers(cpus, pool, true);
+				// any split of the workers: small jobs take their worker thread, large ones share the pool
+				for (int large = 0; large <= workers; large++) {
+					int threads = (workers - large) + (large > 0 ? pool : 0);
+					assertTrue(threads <= cpus, cpus + " cpus, pool " + pool + ", " + workers + " workers, " + large + " large jobs: " + threads + " threads");
+				}
+			}
+		}
+	}
+
+	@Test
+	void singleThreadedPoolLeavesAWorkerPerCpu() {
+		// a pool of one thread isn't used, RoutingSolverFactory sends everything to the SimpleSolver
+		assertEquals(CPUS, ExecutorConfig.adaptiveWorkers(CPUS, 1, true));
+	}
+
+	@Test
+	void jobsThatAllUseThePoolShareTheCpusByItsParallelism() {
+		RoutingSolverFactory routing = new RoutingSolverFactory(new SimpleSolverFactory(), parallel, 0);
+
+		assertEquals(2, ExecutorConfig.workers(0, CPUS, parallel, routing));
+		assertEquals(4, ExecutorConfig.adaptiveWorkers(CPUS, 2, false));
+		assertEquals(1, ExecutorConfig.adaptiveWorkers(CPUS, CPUS, false));
+	}
+
+	@Test
+	void configuredWorkersWin() {
+		RoutingSolverFactory routing = new RoutingSolverFactory(new SimpleSolverFactory(), parallel, 20_000);
+
+		assertEquals(3, ExecutorConfig.workers(3, CPUS, parallel, routing));
+	}
+}
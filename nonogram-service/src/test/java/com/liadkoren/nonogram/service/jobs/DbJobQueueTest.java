@@ -0,0 +1,263 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// not transactional: the queue claims in its own transactions, like concurrent processes would
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DbJobQueueTest {
+
+	private static final Puzzle PUZZLE = new Puzzle(List.of(new int[]{1}), List.of(new int[]{1}));
+
+	@Autowired
+	JobRepository repo;
+	@Autowired
+	JdbcTemplate jdbc;
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	private final ExecutorService es = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void cleanup() {
+		es.shutdownNow();
+		repo.deleteAll();
+	}
+
+	private DbJobQueue queue(Duration leaseMargin) {
+		return queue(leaseMargin, 0);
+	}
+
+	private DbJobQueue queue(Duration leaseMargin, double agingPerSecond) {
+		DbJobQueue queue = new DbJobQueue(repo, jdbc, transactionManager, 1000, agingPerSecond, 8, Duration.ofMillis(10), leaseMargin, 2);
+		queue.recover();
+		return queue;
+	}
+
+	// saved and submitted, as JobService does
+	private UUID queued(DbJobQueue queue, long budgetMs) {
+		return queued(queue, budgetMs, 0);
+	}
+
+	private UUID queued(DbJobQueue queue, long budgetMs, double cost) {
+		UUID id = repo.save(JobEntity.forPuzzle(PUZZLE, budgetMs)).getId();
+		queue.submit(id, cost);
+		return id;
+	}
+
+	@Test
+	void take_claimsOldestQueuedJobWithLease() throws Exception {
+		DbJobQueue queue = queue(Duration.ofMinutes(1));
+		UUID first = queued(queue, 1000);
+		Thread.sleep(5);
+		queued(queue, 1000);
+
+		assertEquals(first, queue.take());
+
+		JobEntity claimed = repo.findById(first).orElseThrow();
+		assertEquals(JobStatus.RUNNING, claimed.getStatus());
+		assertEquals(1, claimed.getAttempts());
+		assertNotNull(claimed.getLeaseOwner());
+		assertNotNull(claimed.getLeaseExpiresAt());
+		assertEquals(1, queue.size());
+	}
+
+	@Test
+	void take_leasesEachJobForItsOwnBudget() throws Exception {
+		DbJobQueue queue = queue(Duration.ofMinutes(1));
+		UUID shortJob = queued(queue, 1000);
+		UUID longJob = queued(queue, 600_000);
+		Instant before = Instant.now();
+
+		Set<UUID> taken = Set.of(queue.take(), queue.take());
+
+		assertEquals(Set.of(shortJob, longJob), taken);
+		Instant shortLease = repo.findById(shortJob).orElseThrow().getLeaseExpiresAt();
+		Instant longLease = repo.findById(longJob).orElseThrow().getLeaseExpiresAt();
+		assertFalse(shortLease.isBefore(before.plusSeconds(61)), shortLease.toString());
+		assertTrue(shortLease.isBefore(before.plusSeconds(70)), shortLease.toString());
+		Duration apart = Duration.between(shortLease, longLease).minusMillis(600_000 - 1000); // claimed one after the other
+		assertTrue(!apart.isNegative() && apart.compareTo(Duration.ofSeconds(1)) < 0, apart.toString());
+	}
+
+	@Test
+	void take_claimsCheapestJobFirst() throws Exception {
+		DbJobQueue queue = queue(Duration.ofMinutes(1));
+		UUID expensive = queued(queue, 1000, 50);
+		UUID cheap = queued(queue, 1000, 10);
+		UUID middle = queued(queue, 1000, 30);
+
+		assertEquals(List.of(cheap, middle, expensive), List.of(queue.take(), queue.take(), queue.take()));
+	}
+
+	@Test
+	void take_claimsJobThatWaitedLongAheadOfCheaperNewerOne() throws Exception {
+		DbJobQueue queue = queue(Duration.ofMinutes(1), 1_000_000);
+		UUID waited = queued(queue, 1000, 5_000);
+		Thread.sleep(50); // makes up 50_000
+		UUID cheap = queued(queue, 1000, 0);
+
+		assertEquals(List.of(waited, cheap), List.of(queue.take(), queue.take()));
+	}
+
+	@Test
+	void take_skipsQueuedRowsUntilTheyAreSubmitted() throws Exception {
+		DbJobQueue queue = queue(Duration.ofMinutes(1));
+		UUID id = repo.save(JobEntity.forPuzzle(PUZZLE, 1000)).getId();
+		Future<UUID> taken = es.submit(queue::take);
+
+		Thread.sleep(100);
+		assertFalse(taken.isDone(), "the job is not in the queue yet");
+
+		queue.submit(id);
+		assertEquals(id, taken.get(2, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void recover_submitsQueuedJobsThatWereNeverSubmitted() throws Exception {
+		UUID id = repo.save(JobEntity.forPuzzle(PUZZLE, 1000)).getId();
+
+		assertEquals(id, queue(Duration.ofMinutes(1)).take());
+	}
+
+	@Test
+	void take_blocksUntilJobIsSubmitted() throws Exception {
+		DbJobQueue queue = queue(Duration.ofMinutes(1));
+		Future<UUID> taken = es.submit(queue::take);
+
+		Thread.sleep(100);
+		assertFalse(taken.isDone(), "take() should still be blocked");
+
+		UUID id = queued(queue, 1000);
+		assertEquals(id, taken.get(2, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void concurrentQueuesNeverTakeTheSameJob() throws Exception {
+		// two queues stand for two processes, each with three workers
+		List<DbJobQueue> queues = List.of(queue(Duration.ofMinutes(1)), queue(Duration.ofMinutes(1)));
+		Set<UUID> submitted = new HashSet<>();
+		for (int i = 0; i < 60; i++) submitted.add(queued(queues.get(i % 2), 1000));
+
+		ConcurrentLinkedQueue<UUID> taken = new ConcurrentLinkedQueue<>();
+		List<Future<?>> workers = new ArrayList<>();
+		for (int w = 0; w < 6; w++) {
+			DbJobQueue queue = queues.get(w % 2);
+			workers.add(es.submit(() -> {
+				while (!Thread.currentThread().isInterrupted()) taken.add(queue.take());
+				return null;
+			}));
+		}
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (taken.size() < submitted.size() && System.nanoTime() < deadline) Thread.sleep(20);
+		Thread.sleep(100); // a duplicate would show up as an extra take
+		workers.forEach(worker -> worker.cancel(true));
+
+		assertEquals(submitted.size(), taken.size());
+		assertEquals(submitted, new HashSet<>(taken));
+		assertEquals(0, repo.countByStatus(JobStatus.QUEUED));
+	}
+
+	@Test
+	void requeue_handsJobBackWithoutCountingTheAttempt() throws Exception {
+		DbJobQueue queue = queue(Duration.ofMinutes(1));
+		UUID id = queued(queue, 1000);
+
+		queue.requeue(queue.take());
+
+		JobEntity released = repo.findById(id).orElseThrow();
+		assertEquals(JobStatus.QUEUED, released.getStatus());
+		assertEquals(0, released.getAttempts());
+		assertNull(released.getLeaseOwner());
+		assertEquals(id, queue.take());
+	}
+
+	@Test
+	void claimStartsTheJobAndClaimingAgainStartsItOver() throws Exception {
+		DbJobQueue crashed = queue(Duration.ZERO);
+		UUID id = queued(crashed, 0);
+		assertEquals(id, crashed.take());
+
+		Instant firstStart = repo.findById(id).orElseThrow().getStartedAt();
+		assertNotNull(firstStart, "claimed jobs are running");
+		assertEquals(0, repo.markRunning(id, Instant.now()), "nothing left to start");
+
+		Thread.sleep(5);
+		assertEquals(id, queue(Duration.ZERO).take());
+		assertTrue(repo.findById(id).orElseThrow().getStartedAt().isAfter(firstStart), "requeued jobs start over");
+	}
+
+	@Test
+	void workerWhoseLeaseExpiredCannotFinishTheJobClaimedAgain() throws Exception {
+		DbJobQueue stalled = queue(Duration.ZERO);
+		UUID id = queued(stalled, 0);
+		assertEquals(id, stalled.take());
+
+		Thread.sleep(5);
+		assertEquals(id, queue(Duration.ZERO).take());
+		Instant now = Instant.now();
+
+		assertEquals(0, repo.saveProgress(id, 1, null), "the first attempt's progress");
+		assertEquals(0, repo.markRunFailed(id, 1, now, "late failure"));
+		assertEquals(0, repo.markSuccess(id, 1, now, null, 1L), "the first attempt's result");
+		assertEquals(1, repo.markSuccess(id, 2, now, null, 1L));
+		assertEquals(JobStatus.SUCCESS, repo.findById(id).orElseThrow().getStatus());
+	}
+
+	@Test
+	void expiredLeaseIsQueuedAgainThenFailed() throws Exception {
+		// a zero budget and margin: the lease is over as soon as the job is claimed
+		DbJobQueue crashed = queue(Duration.ZERO);
+		UUID id = queued(crashed, 0);
+		assertEquals(id, crashed.take());
+
+		Thread.sleep(5);
+		DbJobQueue restarted = queue(Duration.ZERO); // recovers at startup
+		assertEquals(JobStatus.QUEUED, repo.findById(id).orElseThrow().getStatus());
+		assertEquals(id, restarted.take());
+
+		Thread.sleep(5);
+		assertEquals(1, restarted.reapExpired());
+		JobEntity abandoned = repo.findById(id).orElseThrow();
+		assertEquals(JobStatus.FAIL, abandoned.getStatus(), "max attempts (2) reached");
+		assertTrue(abandoned.getErrorMessage().startsWith("ABANDONED"));
+	}
+
+	@Test
+	void recover_requeuesRunningJobWithoutLease() {
+		JobEntity orphan = JobEntity.forPuzzle(PUZZLE, 1000);
+		orphan.setStatus(JobStatus.RUNNING);
+		UUID id = repo.save(orphan).getId();
+
+		queue(Duration.ofMinutes(1));
+
+		assertEquals(JobStatus.QUEUED, repo.findById(id).orElseThrow().getStatus());
+	}
+
+	@Test
+	void submit_rejectsBeyondCapacity() {
+		DbJobQueue queue = new DbJobQueue(repo, jdbc, transactionManager, 1, 0, 8, Duration.ofMillis(10), Duration.ofMinutes(1), 2);
+		queued(queue, 1000);
+
+		UUID overflow = repo.save(JobEntity.forPuzzle(PUZZLE, 1000)).getId();
+		assertThrows(QueueFullException.class, () -> queue.submit(overflow));
+	}
+}
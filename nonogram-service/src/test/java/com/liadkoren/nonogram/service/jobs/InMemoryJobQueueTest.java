@@ -0,0 +1,189 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryJobQueueTest {
+
+	private final ExecutorService es = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void shutdown() {
+		es.shutdownNow();
+	}
+
+	@Test
+	void take_blocks_until_submit() throws Exception {
+		InMemoryJobQueue q = new InMemoryJobQueue();
+		UUID id = UUID.randomUUID();
+
+		CountDownLatch started = new CountDownLatch(1);
+		Future<UUID> fut = es.submit(() -> {
+			started.countDown();
+			return q.take(); // blocks
+		});
+
+		assertTrue(started.await(200, TimeUnit.MILLISECONDS));
+		// still blocked
+		Thread.sleep(100);
+		assertFalse(fut.isDone(), "take() should still be blocked");
+
+		q.submit(id);
+		assertEquals(id, fut.get(500, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void fifo_is_preserved() throws Exception {
+		InMemoryJobQueue q = new InMemoryJobQueue();
+		UUID a = UUID.randomUUID();
+		UUID b = UUID.randomUUID();
+		UUID c = UUID.randomUUID();
+
+		q.submit(a);
+		q.submit(b);
+		q.submit(c);
+
+		assertEquals(a, q.take());
+		assertEquals(b, q.take());
+		assertEquals(c, q.take());
+	}
+
+	@Test
+	void take_can_be_interrupted() throws Exception {
+		InMemoryJobQueue q = new InMemoryJobQueue();
+		CountDownLatch caught = new CountDownLatch(1);
+		AtomicReference<Throwable> error = new AtomicReference<>();
+
+		Thread t = new Thread(() -> {
+			try {
+				q.take(); // should block
+				fail("take() should not return normally when interrupted");
+			} catch (InterruptedException expected) {
+				caught.countDown();
+			} catch (Throwable th) {
+				error.set(th);
+				caught.countDown();
+			}
+		}, "jobqueue-interrupt-test");
+
+		t.start();
+		// let it block
+		Thread.sleep(100);
+		t.interrupt();
+
+		assertTrue(caught.await(500, TimeUnit.MILLISECONDS), "interrupted take() should exit quickly");
+		assertNull(error.get(), "no unexpected exceptions");
+		t.join(Duration.ofSeconds(1).toMillis());
+	}
+
+	@Test
+	void submit_null_throws_NPE() {
+		InMemoryJobQueue q = new InMemoryJobQueue();
+		assertThrows(NullPointerException.class, () -> q.submit(null));
+	}
+
+	@Test
+	void submit_throws_when_full() {
+		InMemoryJobQueue q = new InMemoryJobQueue(2, 0);
+		q.submit(UUID.randomUUID());
+		q.submit(UUID.randomUUID());
+
+		assertThrows(QueueFullException.class, () -> q.submit(UUID.randomUUID()));
+		assertEquals(2, q.size());
+	}
+
+	@Test
+	void submitAll_queues_all_or_none() throws Exception {
+		InMemoryJobQueue q = new InMemoryJobQueue(3, 0);
+		UUID a = UUID.randomUUID(), b = UUID.randomUUID();
+		q.submitAll(List.of(a, b), new double[]{20, 10});
+
+		assertThrows(QueueFullException.class,
+				() -> q.submitAll(List.of(UUID.randomUUID(), UUID.randomUUID()), new double[]{0, 0}));
+		assertEquals(2, q.size());
+		assertEquals(b, q.take());
+		assertEquals(a, q.take());
+	}
+
+	@Test
+	void cheapest_job_is_taken_first() throws Exception {
+		InMemoryJobQueue q = new InMemoryJobQueue(10, 0);
+		UUID big = UUID.randomUUID();
+		UUID small = UUID.randomUUID();
+		UUID medium = UUID.randomUUID();
+
+		q.submit(big, 5_000);
+		q.submit(small, 10);
+		q.submit(medium, 500);
+
+		assertEquals(small, q.take());
+		assertEquals(medium, q.take());
+		assertEquals(big, q.take());
+	}
+
+	@Test
+	void waiting_job_ages_ahead_of_newer_cheaper_ones() throws Exception {
+		// 100 cost units per second: after 200 ms the big job is ahead of a job costing 10 more
+		InMemoryJobQueue q = new InMemoryJobQueue(10, 100);
+		UUID big = UUID.randomUUID();
+		UUID small = UUID.randomUUID();
+
+		q.submit(big, 20);
+		Thread.sleep(200);
+		q.submit(small, 10);
+
+		assertEquals(big, q.take());
+		assertEquals(small, q.take());
+	}
+
+	@Test
+	void requeued_job_keeps_its_place() throws Exception {
+		InMemoryJobQueue q = new InMemoryJobQueue(10, 0);
+		UUID cheap = UUID.randomUUID(), expensive = UUID.randomUUID(), later = UUID.randomUUID();
+		q.submit(cheap, 10);
+		q.submit(expensive, 50);
+
+		assertEquals(cheap, q.take());
+		q.submit(later, 10); // same cost, submitted after it
+		q.requeue(cheap);
+
+		assertEquals(List.of(cheap, later, expensive), List.of(q.take(), q.take(), q.take()));
+	}
+
+	@Test
+	void requeue_ignores_capacity() throws Exception {
+		InMemoryJobQueue q = new InMemoryJobQueue(1, 0);
+		UUID taken = UUID.randomUUID(), waiting = UUID.randomUUID();
+		q.submit(taken);
+		assertEquals(taken, q.take());
+		q.submit(waiting);
+
+		q.requeue(taken); // handed back by a draining worker, must not be lost
+
+		assertEquals(2, q.size());
+		assertEquals(taken, q.take());
+	}
+
+	@Test
+	void stats_report_depth_and_wait_percentiles() throws Exception {
+		InMemoryJobQueue q = new InMemoryJobQueue(10, 0);
+		q.submit(UUID.randomUUID());
+		q.submit(UUID.randomUUID());
+		Thread.sleep(50);
+		q.take();
+
+		QueueStats stats = q.stats();
+		assertEquals(1, stats.depth());
+		assertEquals(10, stats.capacity());
+		assertTrue(stats.waitP50Ms() >= 50, "wait time should include the time spent queued");
+		assertTrue(stats.waitP99Ms() >= stats.waitP50Ms());
+	}
+}
@@ -0,0 +1,90 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.service.solver.PuzzleCostEstimator;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JobAdmissionTest {
+
+	private static final Puzzle PUZZLE = new Puzzle(
+			List.of(new int[]{1, 2}, new int[]{3}, new int[]{1}),
+			List.of(new int[]{2}, new int[]{2}, new int[]{2}, new int[]{1})
+	);
+	private static final double COST = PuzzleCostEstimator.estimate(PUZZLE);
+
+	private final JobRepository repo = mock(JobRepository.class);
+
+	private JobAdmission admission(double msPerCost, double rejectRatio) {
+		return new JobAdmission(repo, msPerCost, rejectRatio, 4, Duration.ofMinutes(5));
+	}
+
+	@Test
+	void admit_predictsSolveTimeFromCost() {
+		JobAdmission.Admission admitted = admission(1, 10).admit(PUZZLE, 1_000_000);
+
+		assertEquals(COST, admitted.cost());
+		assertEquals(COST, admitted.priority());
+		assertEquals(Math.round(COST), admitted.solveMs());
+	}
+
+	@Test
+	void admit_queuesJobThatWillLikelyTimeOutBehindOthers() {
+		long budgetMs = Math.round(COST / 2); // predicted at twice its budget
+		JobAdmission.Admission admitted = admission(1, 10).admit(PUZZLE, budgetMs);
+
+		assertEquals(4 * COST, admitted.priority());
+		assertEquals(budgetMs, admitted.solveMs(), "a job never runs past its budget");
+	}
+
+	@Test
+	void admit_rejectsJobFarBeyondItsBudgetUnlessDisabled() {
+		long budgetMs = Math.round(COST / 20);
+
+		assertThrows(HopelessJobException.class, () -> admission(1, 10).admit(PUZZLE, budgetMs));
+		assertDoesNotThrow(() -> admission(1, 0).admit(PUZZLE, budgetMs));
+	}
+
+	@Test
+	void fit_takesMedianRatioOnceThereAreEnoughSamples() {
+		List<SolveTimeSample> samples = new ArrayList<>();
+		for (int i = 0; i < JobAdmission.MIN_SAMPLES - 1; i++) samples.add(new SolveTimeSample(1000, 2));
+		assertTrue(Double.isNaN(JobAdmission.fit(samples)));
+
+		samples.add(new SolveTimeSample(1000, 0)); // under a millisecond, says nothing
+		assertTrue(Double.isNaN(JobAdmission.fit(samples)));
+
+		samples.add(new SolveTimeSample(1000, 5000)); // one deep search doesn't move the median
+		assertEquals(0.002, JobAdmission.fit(samples));
+	}
+
+	@Test
+	void calibrate_keepsDefaultWhenSamplesAreMissingOrUnavailable() {
+		JobAdmission admission = admission(0.5, 10);
+
+		when(repo.findSolveTimeSamples(any())).thenReturn(List.of(new SolveTimeSample(1000, 2)));
+		admission.calibrate();
+		assertEquals(0.5, admission.msPerCost());
+
+		doThrow(new DataAccessResourceFailureException("down")).when(repo).findSolveTimeSamples(any());
+		admission.calibrate();
+		assertEquals(0.5, admission.msPerCost());
+
+		List<SolveTimeSample> samples = new ArrayList<>();
+		for (int i = 0; i < JobAdmission.MIN_SAMPLES; i++) samples.add(new SolveTimeSample(100, 3));
+		doReturn(samples).when(repo).findSolveTimeSamples(any());
+		admission.calibrate();
+		assertEquals(0.03, admission.msPerCost(), 1e-12);
+	}
+}
@@ -0,0 +1,107 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.service.NonogramServiceApplication;
+import com.liadkoren.nonogram.service.jobs.model.JobEntity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jobs per second through {@link JobExecutor#processJob}: load, mark running, solve, mark done.
+ * The puzzle is tiny and served from the solver cache after the first job, so this measures the
+ * job's database round trips rather than the solver. Saving the job row and passing it through the
+ * queue are part of each operation; with the database queue, taking it claims (and starts) it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// Hibernate and H2 take a minute or two of JIT warm-up before the rate levels off; shorter warm-ups
+// measure the compiler, with scores that keep climbing and errors larger than the scores
+@Warmup(iterations = 25, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 3, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+public class JobExecutorBenchmark {
+
+	private static final Puzzle PUZZLE = new Puzzle(
+			List.of(new int[]{1, 2}, new int[]{3}, new int[]{1}),
+			List.of(new int[]{2}, new int[]{2}, new int[]{2}, new int[]{1})
+	);
+
+	@Param({"memory", "db"})
+	private String queueType;
+
+	private ConfigurableApplicationContext context;
+	private JobStore jobStore;
+	private JobRepository jobRepository;
+	private JobQueue jobQueue;
+	private JobExecutor jobExecutor;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		int dbPort;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			dbPort = socket.getLocalPort();
+		}
+		// the api role runs no JobListener, jobs are only processed by the benchmark threads
+		context = new SpringApplicationBuilder(NonogramServiceApplication.class)
+				.run("--nonogram.role=api",
+						"--nonogram.jobs.queue.type=" + queueType,
+						"--nonogram.jobs.queue.capacity=100000",
+						"--nonogram.h2.tcp-port=" + dbPort,
+						"--spring.datasource.url=jdbc:h2:mem:executor-bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+						"--spring.main.web-application-type=none",
+						"--spring.jpa.show-sql=false",
+						"--logging.level.root=warn");
+		jobStore = context.getBean(JobStore.class);
+		jobRepository = context.getBean(JobRepository.class);
+		jobQueue = context.getBean(JobQueue.class);
+		jobExecutor = context.getBean(JobExecutor.class);
+	}
+
+	// about a million finished jobs fill the heap with the in-memory database, and the rate collapses
+	@TearDown(Level.Iteration)
+	public void deleteJobs() {
+		jobRepository.deleteAllInBatch();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public UUID processJob() throws InterruptedException {
+		jobQueue.submit(jobStore.save(JobEntity.forPuzzle(PUZZLE, 1000)).getId());
+		UUID jobId = jobQueue.take();
+		jobExecutor.processJob(jobId);
+		return jobId;
+	}
+
+	@Benchmark
+	@Threads(4)
+	public UUID processJobConcurrently() throws InterruptedException {
+		return processJob();
+	}
+
+	/**
+	 * Main method to run the benchmarks from the IDE.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(JobExecutorBenchmark.class.getSimpleName())
+				.build();
+
+		new Runner(opt).run();
+	}
+}
@@ -6,16 +6,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.awaitility.Awaitility.await;
-import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -103,4 +101,61 @@ public class JobListenerTest {
 
 		verify(jobExecutor, never()).processJob(any(UUID.class));
 	}
+
+	@Test
+	public void shouldRunOneLoopPerWorkerThread() throws Exception {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+		JobListener listener = new JobListener(executor, jobQueue, jobExecutor, Duration.ofSeconds(2));
+
+		BlockingQueue<UUID> jobs = new LinkedBlockingQueue<>(List.of(UUID.randomUUID(), UUID.randomUUID()));
+		when(jobQueue.take()).thenAnswer(invocation -> jobs.take());
+
+		// both jobs must be running at the same time to get past the barrier
+		CyclicBarrier bothRunning = new CyclicBarrier(2);
+		doAnswer(invocation -> {
+			bothRunning.await(2, TimeUnit.SECONDS);
+			return null;
+		}).when(jobExecutor).processJob(any(UUID.class));
+
+		listener.start();
+		await()
+				.atMost(2, TimeUnit.SECONDS)
+				.until(() -> listener.workerStats().stream().mapToLong(WorkerStats::jobsProcessed).sum() == 2);
+		listener.stop();
+		executor.shutdownNow();
+
+		assertEquals(2, listener.workerStats().size());
+		for (WorkerStats stats : listener.workerStats()) {
+			assertEquals(1, stats.jobsProcessed(), stats.worker() + " should have processed one job");
+		}
+	}
+
+	@Test
+	public void shouldDrainRunningJobOnStop() throws Exception {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+		JobListener listener = new JobListener(executor, jobQueue, jobExecutor, Duration.ofSeconds(2));
+
+		UUID jobId = UUID.randomUUID();
+		BlockingQueue<UUID> jobs = new LinkedBlockingQueue<>(List.of(jobId));
+		when(jobQueue.take()).thenAnswer(invocation -> jobs.take());
+
+		CountDownLatch jobStarted = new CountDownLatch(1);
+		AtomicBoolean jobInterrupted = new AtomicBoolean(false);
+		doAnswer(invocation -> {
+			jobStarted.countDown();
+			Thread.sleep(200);
+			jobInterrupted.set(Thread.currentThread().isInterrupted());
+			return null;
+		}).when(jobExecutor).processJob(jobId);
+
+		listener.start();
+		assertTrue(jobStarted.await(2, TimeUnit.SECONDS));
+
+		listener.stop(); // returns once the running job is done, the idle worker is woken up
+		executor.shutdownNow();
+
+		assertFalse(jobInterrupted.get(), "a running job should not be interrupted while draining");
+		assertEquals(1, listener.workerStats().stream().mapToLong(WorkerStats::jobsProcessed).sum());
+		assertTrue(listener.workerStats().stream().anyMatch(stats -> stats.busyTime().toMillis() >= 200));
+	}
 }
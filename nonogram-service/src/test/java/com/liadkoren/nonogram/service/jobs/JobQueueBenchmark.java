@@ -0,0 +1,94 @@
+package com.liadkoren.nonogram.service.jobs;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.service.NonogramServiceApplication;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Submit-and-take round trips through the in-memory and the database job queue, including saving
+ * the job row as JobService does. The service runs in the "api" role, so no JobListener competes
+ * for the jobs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// the database queue keeps getting faster for over a minute, while Hibernate and H2 are compiled
+@Warmup(iterations = 25, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 3, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+public class JobQueueBenchmark {
+
+	private static final Puzzle PUZZLE = new Puzzle(
+			List.of(new int[]{1, 2}, new int[]{3}, new int[]{1}),
+			List.of(new int[]{2}, new int[]{2}, new int[]{2}, new int[]{1})
+	);
+
+	@Param({"memory", "db"})
+	private String queueType;
+
+	private ConfigurableApplicationContext context;
+	private JobService jobService;
+	private JobQueue jobQueue;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		int dbPort;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			dbPort = socket.getLocalPort();
+		}
+		context = new SpringApplicationBuilder(NonogramServiceApplication.class)
+				.run("--nonogram.role=api",
+						"--nonogram.jobs.queue.type=" + queueType,
+						"--nonogram.jobs.queue.capacity=100000",
+						// taken jobs are never run here: expiring leases would put them back, measuring the reaper
+						"--nonogram.jobs.queue.lease-margin=1h",
+						"--nonogram.h2.tcp-port=" + dbPort,
+						"--spring.datasource.url=jdbc:h2:mem:queue-bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+						"--spring.main.web-application-type=none",
+						"--spring.jpa.show-sql=false",
+						"--logging.level.root=warn");
+		jobService = context.getBean(JobService.class);
+		jobQueue = context.getBean(JobQueue.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public UUID submitAndTake() throws InterruptedException {
+		jobService.submitPuzzleJob(PUZZLE, 1000);
+		return jobQueue.take();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public UUID submitAndTakeConcurrently() throws InterruptedException {
+		jobService.submitPuzzleJob(PUZZLE, 1000);
+		return jobQueue.take();
+	}
+
+	/**
+	 * Main method to run the benchmarks from the IDE.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(JobQueueBenchmark.class.getSimpleName())
+				.build();
+
+		new Runner(opt).run();
+	}
+}
@@ -1,5 +1,8 @@
 package com.liadkoren.nonogram.service.jobs;
 
+import com.liadkoren.nonogram.core.model.PartialGrid;
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.core.model.SolvedGrid;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobSourceType;
 import com.liadkoren.nonogram.service.jobs.model.JobEntity.JobStatus;
@@ -10,18 +13,21 @@ import org.springframework.context.annotation.Import;
 
 import java.net.URI;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import static java.util.Arrays.deepEquals;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
-@Import(JobStore.class) // JPA slice + your service
+@Import({JobStore.class, JobCompletionNotifier.class}) // JPA slice + your service
 class JobStoreTest {
 
 	@Autowired
 	JobStore store;
 	@Autowired
+	JobCompletionNotifier notifier;
+	@Autowired
 	jakarta.persistence.EntityManager em;
 
 	@Test
@@ -46,13 +52,26 @@ class JobStoreTest {
 		assertEquals(5_000, loaded.getBudgetMs());
 	}
 
+	@Test
+	void save_and_find_roundtrip_puzzle_job() {
+		Puzzle puzzle = new Puzzle(List.of(new int[]{2}, new int[]{}), List.of(new int[]{1}, new int[]{1}));
+		JobEntity saved = store.save(JobEntity.forPuzzle(puzzle, 5_000));
+		em.flush();
+		em.clear(); // read the clob back instead of the cached entity
+
+		JobEntity loaded = store.find(saved.getId()).orElseThrow();
+		assertEquals(puzzle, loaded.getPuzzle());
+		assertNotSame(puzzle, loaded.getPuzzle());
+	}
+
 	@Test
 	void markRunning_sets_status_and_startedAt() {
 		var j = JobEntity.forUrl(URI.create("http://x"), 5_000);
 		store.save(j);
 
-		JobEntity running = store.markRunning(j.getId());
+		assertTrue(store.markRunning(j.getId()));
 
+		JobEntity running = store.find(j.getId()).orElseThrow();
 		assertEquals(JobStatus.RUNNING, running.getStatus());
 		assertNotNull(running.getStartedAt());
 		assertTrue(running.getStartedAt().isBefore(Instant.now().plusSeconds(1)));
@@ -64,8 +83,9 @@ class JobStoreTest {
 		store.save(j);
 		store.markRunning(j.getId()); // typical flow
 
-		JobEntity done = store.markSuccess(j.getId(), new boolean[10][10], 123L);
+		assertTrue(store.markSuccess(j.getId(), 0, SolvedGrid.of(new boolean[10][10]), 123L));
 
+		JobEntity done = store.find(j.getId()).orElseThrow();
 		assertEquals(JobStatus.SUCCESS, done.getStatus());
 		assertNotNull(done.getCompletedAt());
 		assertNull(done.getErrorMessage());
@@ -77,12 +97,57 @@ class JobStoreTest {
 		store.save(j);
 		store.markRunning(j.getId());
 
-		JobEntity failed = store.markFailed(j.getId(), /*errorMessage*/ "timeout");
+		assertTrue(store.markFailed(j.getId(), /*errorMessage*/ "timeout"));
+		JobEntity failed = store.find(j.getId()).orElseThrow();
 		assertEquals(JobStatus.FAIL, failed.getStatus());
 		assertEquals("timeout", failed.getErrorMessage());
 		assertNotNull(failed.getCompletedAt());
 	}
 
+	@Test
+	void transitions_only_apply_from_the_expected_state() {
+		var j = JobEntity.forUrl(URI.create("http://x"), 5_000);
+		store.save(j);
+
+		assertFalse(store.markSuccess(j.getId(), 0, SolvedGrid.of(new boolean[1][1]), 1L), "a queued job has not run");
+		assertTrue(store.markRunning(j.getId()));
+		assertFalse(store.markRunning(j.getId()), "a second worker must not start it again");
+		assertTrue(store.markSuccess(j.getId(), 0, SolvedGrid.of(new boolean[1][1]), 1L));
+		assertFalse(store.markFailed(j.getId(), "late failure"), "a finished job stays finished");
+		assertFalse(store.markRunning(UUID.randomUUID()));
+
+		JobEntity done = store.find(j.getId()).orElseThrow();
+		assertEquals(JobStatus.SUCCESS, done.getStatus());
+		assertNull(done.getErrorMessage());
+	}
+
+	@Test
+	void start_marks_a_queued_job_running_once() {
+		var j = JobEntity.forUrl(URI.create("http://x"), 5_000);
+		store.save(j);
+
+		JobEntity started = store.start(j.getId()).orElseThrow();
+		assertEquals(JobStatus.RUNNING, started.getStatus());
+		assertNotNull(started.getStartedAt());
+		assertEquals(JobStatus.RUNNING, store.find(j.getId()).orElseThrow().getStatus());
+		assertTrue(store.start(j.getId()).isEmpty(), "a second worker must not start it again");
+		assertTrue(store.start(UUID.randomUUID()).isEmpty());
+	}
+
+	@Test
+	void start_only_loads_a_job_claimed_from_the_db_queue() {
+		var j = JobEntity.forUrl(URI.create("http://x"), 5_000);
+		j.setStatus(JobStatus.RUNNING); // as the claim leaves it
+		j.setStartedAt(Instant.now());
+		j.setLeaseOwner("worker-1");
+		j.setAttempts(1);
+		store.save(j);
+
+		JobEntity started = store.start(j.getId()).orElseThrow();
+		assertEquals(1, started.getAttempts());
+		assertEquals(j.getStartedAt(), started.getStartedAt());
+	}
+
 	@Test
 	void forUrl_requires_nonNull_url_and_nonNegative_budget() {
 		assertThrows(IllegalArgumentException.class, () -> JobEntity.forUrl(null, 100));
@@ -103,15 +168,13 @@ class JobStoreTest {
 				{false, false, true}
 		};
 
-		// your JobStore should set both summary and grid; if you split APIs, adjust call
-		JobEntity done = store.markSuccess(j.getId(), grid, 123L);
-		em.flush(); // force UPDATE
-
-		assertEquals(JobStatus.SUCCESS, done.getStatus());
-		assertNotNull(done.getCompletedAt());
+		store.markRunning(j.getId());
+		assertTrue(store.markSuccess(j.getId(), 0, SolvedGrid.of(grid), 123L));
 
-		// reload to ensure JSON roundtrip works
+		// reload to ensure the packed grid roundtrip works
 		var reloaded = store.find(j.getId()).orElseThrow();
+		assertEquals(JobStatus.SUCCESS, reloaded.getStatus());
+		assertNotNull(reloaded.getCompletedAt());
 		assertTrue(deepEquals(grid, reloaded.getResultGrid()), "result grid must persist identically");
 	}
 
@@ -125,5 +188,88 @@ class JobStoreTest {
 		assertNull(loaded.getResultGrid());
 	}
 
+	@Test
+	void saveAll_and_batchProgress_count_jobs_by_status() {
+		UUID batchId = UUID.randomUUID();
+		List<JobEntity> jobs = List.of(
+				JobEntity.forUrl(URI.create("http://x/1"), 5_000),
+				JobEntity.forUrl(URI.create("http://x/2"), 5_000),
+				JobEntity.forUrl(URI.create("http://x/3"), 5_000));
+		jobs.forEach(j -> j.setBatchId(batchId));
+		store.saveAll(jobs);
+		store.markRunning(jobs.get(0).getId());
+		store.markRunning(jobs.get(1).getId());
+		store.markSuccess(jobs.get(1).getId(), 0, SolvedGrid.of(new boolean[1][1]), 5L);
+		em.flush();
+
+		BatchProgress progress = store.batchProgress(batchId);
+		assertEquals(3, progress.total());
+		assertEquals(1, progress.queued());
+		assertEquals(1, progress.running());
+		assertEquals(1, progress.succeeded());
+		assertFalse(progress.isDone());
+		assertEquals(0, store.batchProgress(UUID.randomUUID()).total());
+	}
+
+	@Test
+	void deleteQueued_removes_only_jobs_still_queued() {
+		UUID batchId = UUID.randomUUID();
+		List<JobEntity> jobs = List.of(
+				JobEntity.forUrl(URI.create("http://x/1"), 5_000),
+				JobEntity.forUrl(URI.create("http://x/2"), 5_000));
+		jobs.forEach(j -> j.setBatchId(batchId));
+		store.saveAll(jobs);
+		store.markRunning(jobs.get(0).getId());
+		var single = store.save(JobEntity.forUrl(URI.create("http://x/3"), 5_000));
+
+		assertFalse(store.deleteQueued(jobs.get(0).getId()), "running jobs stay");
+		assertTrue(store.deleteQueued(single.getId()));
+		assertEquals(1, store.deleteQueuedInBatch(batchId));
+
+		assertTrue(store.find(single.getId()).isEmpty());
+		assertTrue(store.find(jobs.get(1).getId()).isEmpty());
+		assertEquals(JobStatus.RUNNING, store.find(jobs.get(0).getId()).orElseThrow().getStatus());
+	}
+
+	@Test
+	void finishing_a_job_notifies_its_waiters() {
+		var j = JobEntity.forUrl(URI.create("http://x"), 5_000);
+		store.save(j);
+		store.markRunning(j.getId());
+		var completion = notifier.await(j.getId());
+
+		store.markSuccess(j.getId(), 0, SolvedGrid.of(new boolean[][]{{true}}), 7L);
+		store.markFailed(j.getId(), "late failure"); // not applied, so not announced
+
+		JobCompletion done = completion.getNow(null);
+		assertNotNull(done);
+		assertEquals(JobStatus.SUCCESS, done.status());
+		assertEquals(7L, done.solutionTimeMs());
+		assertTrue(done.resultGrid().get(0, 0));
+		assertTrue(notifier.awaited().isEmpty());
+	}
+
+	@Test
+	void progress_is_kept_while_running_and_on_timeout() {
+		var j = JobEntity.forUrl(URI.create("http://x"), 5_000);
+		store.save(j);
+		List<JobProgress> seen = new java.util.ArrayList<>();
+		notifier.watch(j.getId(), seen::add);
+		PartialGrid early = new PartialGrid(new int[][]{{1, 0}, {0, 0}});
+		PartialGrid later = new PartialGrid(new int[][]{{1, -1}, {0, 0}});
 
+		assertFalse(store.saveProgress(j.getId(), 0, early), "not running yet");
+		store.markRunning(j.getId());
+		assertTrue(store.saveProgress(j.getId(), 0, early));
+		assertEquals(25.0, store.find(j.getId()).orElseThrow().getPartialGrid().solvedPercent());
+
+		assertTrue(store.markTimedOut(j.getId(), 0, later));
+		assertFalse(store.saveProgress(j.getId(), 0, early), "a finished job stays finished");
+
+		JobEntity timedOut = store.find(j.getId()).orElseThrow();
+		assertEquals(JobStatus.FAIL, timedOut.getStatus());
+		assertEquals("TIMEOUT", timedOut.getErrorMessage());
+		assertEquals(-1, timedOut.getPartialGrid().get(0, 1));
+		assertEquals(1, seen.size());
+	}
 }
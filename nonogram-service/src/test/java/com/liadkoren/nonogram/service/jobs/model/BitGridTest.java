@@ -0,0 +1,83 @@
+package com.liadkoren.nonogram.service.jobs.model;
+
+import com.liadkoren.nonogram.core.model.PartialGrid;
+import com.liadkoren.nonogram.core.model.SolvedGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitGridTest {
+
+	@Test
+	void roundTripsThroughArrayAndBytes() {
+		boolean[][] grid = randomGrid(7, 13, 42); // 91 cells: the last byte is partially used
+
+		BitGrid packed = BitGrid.of(grid);
+		BitGrid decoded = BitGrid.fromBytes(packed.toBytes());
+
+		assertTrue(Arrays.deepEquals(grid, packed.toArray()));
+		assertEquals(packed, decoded);
+		assertTrue(Arrays.deepEquals(grid, decoded.toArray()));
+		assertEquals(grid[3][5], decoded.get(3, 5));
+	}
+
+	@Test
+	void packsSolverSolutionWithoutUnpackingIt() {
+		boolean[][] grid = randomGrid(5, 70, 3); // solver rows span two longs
+
+		assertEquals(BitGrid.of(grid), BitGrid.of(SolvedGrid.of(grid)));
+	}
+
+	@Test
+	void packsOneBitPerCell() {
+		BitGrid packed = BitGrid.of(randomGrid(100, 100, 1));
+
+		assertEquals(8 + 1250, packed.toBytes().length);
+	}
+
+	@Test
+	void keepsDimensionsOfEmptyGrid() {
+		BitGrid decoded = BitGrid.fromBytes(BitGrid.of(new boolean[0][]).toBytes());
+
+		assertEquals(0, decoded.rows());
+		assertEquals(0, decoded.cols());
+	}
+
+	@Test
+	void rejectsBytesThatDoNotMatchTheDimensions() {
+		byte[] encoded = BitGrid.of(randomGrid(4, 4, 7)).toBytes();
+
+		assertThrows(IllegalArgumentException.class, () -> BitGrid.fromBytes(Arrays.copyOf(encoded, encoded.length - 1)));
+		assertThrows(IllegalArgumentException.class, () -> BitGrid.fromBytes(new byte[3]));
+	}
+
+	@Test
+	void partialGridRoundTripsThroughBytes() {
+		PartialBitGrid partial = PartialBitGrid.of(new PartialGrid(new int[][]{{1, -1, 0}, {0, 0, 1}}));
+		PartialBitGrid decoded = PartialBitGrid.fromBytes(partial.toBytes());
+
+		assertEquals(partial, decoded);
+		assertEquals(1, decoded.get(0, 0));
+		assertEquals(-1, decoded.get(0, 1));
+		assertEquals(0, decoded.get(1, 0));
+		assertEquals(3, decoded.knownCells());
+		assertEquals(50.0, decoded.solvedPercent());
+	}
+
+	@Test
+	void rejectsRaggedGrid() {
+		assertThrows(IllegalArgumentException.class, () -> BitGrid.of(new boolean[][]{{true, false}, {true}}));
+	}
+
+	private static boolean[][] randomGrid(int rows, int cols, long seed) {
+		Random random = new Random(seed);
+		boolean[][] grid = new boolean[rows][cols];
+		for (boolean[] row : grid) {
+			for (int c = 0; c < cols; c++) row[c] = random.nextBoolean();
+		}
+		return grid;
+	}
+}
@@ -0,0 +1,237 @@
+package com.liadkoren.nonogram.service.solver;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import com.liadkoren.nonogram.core.model.SolveResult;
+import com.liadkoren.nonogram.core.model.SolvedGrid;
+import com.liadkoren.nonogram.core.ports.CancellationToken;
+import com.liadkoren.nonogram.core.ports.ProgressListener;
+import com.liadkoren.nonogram.core.ports.Solver;
+import com.liadkoren.nonogram.core.ports.SolverFactory;
+import com.liadkoren.nonogram.solver.SimpleSolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingSolverFactoryTest {
+
+	private static final Duration BUDGET = Duration.ofSeconds(5);
+
+	// an asymmetric 3x4 puzzle, so every symmetric variant has different clues
+	private static final Puzzle PUZZLE = new Puzzle(
+			List.of(new int[]{1, 2}, new int[]{3}, new int[]{1}),
+			List.of(new int[]{2}, new int[]{2}, new int[]{2}, new int[]{1})
+	);
+	private static final boolean[][] SOLUTION = {
+			{true, false, true, true},
+			{true, true, true, false},
+			{false, true, false, false}
+	};
+
+	private final ExecutorService es = Executors.newCachedThreadPool();
+	private final AtomicInteger solves = new AtomicInteger();
+	private final SolverFactory counting = (puzzle, budget) -> () -> {
+		solves.incrementAndGet();
+		return new SimpleSolverFactory().create(puzzle, budget).solve();
+	};
+
+	@AfterEach
+	void shutdown() {
+		es.shutdownNow();
+	}
+
+	@Test
+	void solvesSamePuzzleOnce() {
+		CachingSolverFactory factory = new CachingSolverFactory(counting, 10);
+
+		SolveResult first = factory.create(PUZZLE, BUDGET).solve();
+		SolveResult second = factory.create(copyOf(PUZZLE), BUDGET).solve();
+
+		assertEquals(SolveResult.SolveStatus.SUCCESS, second.status());
+		assertGridEquals(SOLUTION, first.grid());
+		assertGridEquals(SOLUTION, second.grid());
+		assertEquals(1, solves.get());
+		assertEquals(1, factory.stats().hits());
+		assertEquals(1, factory.stats().misses());
+	}
+
+	@Test
+	void mapsCachedGridToEverySymmetricVariant() {
+		CachingSolverFactory factory = new CachingSolverFactory(counting, 10);
+		factory.create(PUZZLE, BUDGET).solve();
+
+		for (PuzzleFingerprint.Symmetry symmetry : PuzzleFingerprint.Symmetry.all()) {
+			Puzzle variant = symmetry.apply(PUZZLE);
+			SolveResult result = factory.create(variant, BUDGET).solve();
+
+			assertEquals(SolveResult.SolveStatus.SUCCESS, result.status(), symmetry.toString());
+			assertGridEquals(symmetry.apply(SolvedGrid.of(SOLUTION)).toArray(), result.grid());
+		}
+		assertEquals(1, solves.get(), "all variants share one cache entry");
+	}
+
+	@Test
+	void evictsLeastRecentlyUsed() {
+		CachingSolverFactory factory = new CachingSolverFactory(counting, 2);
+		Puzzle a = new Puzzle(List.of(new int[]{1}), List.of(new int[]{1}));
+		Puzzle b = new Puzzle(List.of(new int[]{2}), List.of(new int[]{1}, new int[]{1}));
+
+		factory.create(a, BUDGET).solve();
+		factory.create(b, BUDGET).solve();
+		factory.create(a, BUDGET).solve(); // a is now the most recently used
+		factory.create(PUZZLE, BUDGET).solve(); // evicts b
+
+		assertEquals(1, factory.stats().evictions());
+		factory.create(a, BUDGET).solve();
+		assertEquals(3, solves.get());
+		factory.create(b, BUDGET).solve();
+		assertEquals(4, solves.get());
+	}
+
+	@Test
+	void doesNotCacheTimeouts() {
+		SolverFactory timingOut = (puzzle, budget) -> () -> {
+			solves.incrementAndGet();
+			return SolveResult.timeout(budget);
+		};
+		CachingSolverFactory factory = new CachingSolverFactory(timingOut, 10);
+
+		factory.create(PUZZLE, BUDGET).solve();
+		factory.create(PUZZLE, BUDGET).solve();
+
+		assertEquals(2, solves.get());
+		assertEquals(0, factory.stats().size());
+	}
+
+	@Test
+	void concurrentIdenticalSolvesRunOnce() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CachingSolverFactory factory = new CachingSolverFactory(blockingUntil(release), 10);
+
+		Future<SolveResult> first = es.submit(() -> factory.create(PUZZLE, BUDGET).solve());
+		Future<SolveResult> second = es.submit(() -> factory.create(PuzzleFingerprint.Symmetry.all().get(7).apply(PUZZLE), BUDGET).solve());
+
+		Thread.sleep(200); // let both reach the cache
+		release.countDown();
+
+		assertGridEquals(SOLUTION, first.get(2, TimeUnit.SECONDS).grid());
+		assertGridEquals(PuzzleFingerprint.Symmetry.all().get(7).apply(SolvedGrid.of(SOLUTION)).toArray(), second.get(2, TimeUnit.SECONDS).grid());
+		assertEquals(1, solves.get());
+	}
+
+	@Test
+	void waitingForIdenticalSolveStopsAtOwnBudget() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CachingSolverFactory factory = new CachingSolverFactory(blockingUntil(release), 10);
+		try {
+			es.submit(() -> factory.create(PUZZLE, BUDGET).solve());
+			Thread.sleep(100); // the first solve is running
+
+			long start = System.nanoTime();
+			SolveResult waiter = factory.create(PUZZLE, Duration.ofMillis(200)).solve();
+
+			assertEquals(SolveResult.SolveStatus.TIMEOUT, waiter.status());
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "waited for the other solve");
+			assertEquals(1, solves.get());
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void waitingForIdenticalSolveCanBeCancelled() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CachingSolverFactory factory = new CachingSolverFactory(blockingUntil(release), 10);
+		try {
+			es.submit(() -> factory.create(PUZZLE, BUDGET).solve());
+			Thread.sleep(100);
+
+			CancellationToken cancellation = new CancellationToken();
+			Future<SolveResult> waiter = es.submit(() -> factory.create(PUZZLE, BUDGET, null, cancellation).solve());
+			Thread.sleep(100);
+			cancellation.cancel();
+
+			assertEquals(SolveResult.SolveStatus.CANCELLED, waiter.get(1, TimeUnit.SECONDS).status());
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void solvesAgainWithWhatIsLeftOfItsBudget() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		List<Duration> budgets = new CopyOnWriteArrayList<>();
+		SolverFactory timingOut = (puzzle, budget) -> () -> {
+			budgets.add(budget);
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return SolveResult.timeout(budget);
+		};
+		CachingSolverFactory factory = new CachingSolverFactory(timingOut, 10);
+
+		Future<SolveResult> first = es.submit(() -> factory.create(PUZZLE, Duration.ofMillis(100)).solve());
+		Thread.sleep(100);
+		Future<SolveResult> second = es.submit(() -> factory.create(PUZZLE, BUDGET).solve());
+		Thread.sleep(300);
+		release.countDown(); // the first one times out, the second one is left with less than its budget
+
+		assertEquals(SolveResult.SolveStatus.TIMEOUT, first.get(1, TimeUnit.SECONDS).status());
+		assertEquals(SolveResult.SolveStatus.TIMEOUT, second.get(1, TimeUnit.SECONDS).status());
+		assertEquals(2, budgets.size());
+		assertTrue(budgets.get(1).compareTo(BUDGET.minusMillis(250)) < 0, "second solve got " + budgets.get(1));
+	}
+
+	private SolverFactory blockingUntil(CountDownLatch release) {
+		return (puzzle, budget) -> () -> {
+			solves.incrementAndGet();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new SimpleSolverFactory().create(puzzle, budget).solve();
+		};
+	}
+
+	private static Puzzle copyOf(Puzzle puzzle) {
+		return new Puzzle(
+				puzzle.rows().stream().map(int[]::clone).toList(),
+				puzzle.cols().stream().map(int[]::clone).toList());
+	}
+
+	private static void assertGridEquals(boolean[][] expected, boolean[][] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int r = 0; r < expected.length; r++) assertArrayEquals(expected[r], actual[r], "row " + r);
+	}
+
+	@Test
+	void cancelledSolveIsNotCached() {
+		SolverFactory cancellable = new SolverFactory() {
+			@Override
+			public Solver create(Puzzle puzzle, Duration budget) {
+				return counting.create(puzzle, budget);
+			}
+
+			@Override
+			public Solver create(Puzzle puzzle, Duration budget, ProgressListener progress, CancellationToken cancellation) {
+				solves.incrementAndGet();
+				return new SimpleSolver(puzzle, budget).withCancellation(cancellation);
+			}
+		};
+		CachingSolverFactory factory = new CachingSolverFactory(cancellable, 10);
+		CancellationToken cancelled = new CancellationToken();
+		cancelled.cancel();
+
+		assertEquals(SolveResult.SolveStatus.CANCELLED, factory.create(PUZZLE, BUDGET, null, cancelled).solve().status());
+		assertEquals(SolveResult.SolveStatus.SUCCESS, factory.create(PUZZLE, BUDGET, null, new CancellationToken()).solve().status());
+		assertEquals(2, solves.get());
+	}
+}
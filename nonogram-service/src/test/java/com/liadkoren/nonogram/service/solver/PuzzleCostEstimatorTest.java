@@ -0,0 +1,52 @@
+package com.liadkoren.nonogram.service.solver;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleCostEstimatorTest {
+
+	@Test
+	void fullAndEmptyLinesAreKnownOnABlankGrid() {
+		// rows: full, empty; cols: each column has its top cell filled
+		Puzzle puzzle = new Puzzle(List.of(new int[]{3}, new int[]{}), List.of(new int[]{1}, new int[]{1}, new int[]{1}));
+
+		assertEquals(1.0, PuzzleCostEstimator.knownOnBlankGrid(puzzle));
+	}
+
+	@Test
+	void blocksLongerThanTheirSlackOverlap() {
+		// a block of 3 in 4 cells always covers the middle two; a block of 1 in 4 covers nothing
+		Puzzle puzzle = new Puzzle(List.of(new int[]{3}, new int[]{1}),
+				List.of(new int[]{1}, new int[]{1}, new int[]{1}, new int[]{1}));
+
+		assertEquals(2.0 / 8, PuzzleCostEstimator.knownOnBlankGrid(puzzle));
+		assertEquals(4.0 / 8, PuzzleCostEstimator.density(puzzle));
+	}
+
+	@Test
+	void ambiguousPuzzlesCostMoreThanDeterminedOnesOfTheSameSize() {
+		int n = 20;
+		List<int[]> full = new ArrayList<>(), sparse = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			full.add(new int[]{n});
+			sparse.add(new int[]{1, 1, 1, 1});
+		}
+
+		double determined = PuzzleCostEstimator.estimate(new Puzzle(full, full));
+		double ambiguous = PuzzleCostEstimator.estimate(new Puzzle(sparse, sparse));
+
+		assertTrue(ambiguous > 2 * determined, ambiguous + " vs " + determined);
+	}
+
+	@Test
+	void invalidCluesDoNotThrow() {
+		Puzzle puzzle = new Puzzle(List.of(new int[]{5}), List.of(new int[]{1}, new int[]{1}));
+
+		assertTrue(PuzzleCostEstimator.estimate(puzzle) > 0);
+	}
+}
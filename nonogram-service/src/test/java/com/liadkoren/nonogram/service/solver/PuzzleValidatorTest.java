@@ -0,0 +1,59 @@
+package com.liadkoren.nonogram.service.solver;
+
+import com.liadkoren.nonogram.core.model.Puzzle;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleValidatorTest {
+
+	private static String reason(Puzzle puzzle) {
+		return assertThrows(InvalidPuzzleException.class, () -> PuzzleValidator.validate(puzzle)).getMessage();
+	}
+
+	@Test
+	void consistentPuzzlePasses() {
+		// a 2x3 grid: #.# / .##
+		Puzzle puzzle = new Puzzle(List.of(new int[]{1, 1}, new int[]{2}),
+				List.of(new int[]{1}, new int[]{1}, new int[]{2}));
+
+		assertDoesNotThrow(() -> PuzzleValidator.validate(puzzle));
+	}
+
+	@Test
+	void puzzleWithoutLinesFails() {
+		assertEquals("puzzle has no columns", reason(new Puzzle(List.of(new int[]{}), List.of())));
+		assertEquals("puzzle has no rows", reason(new Puzzle(List.of(), List.of())));
+	}
+
+	@Test
+	void clueLongerThanItsLineFails() {
+		Puzzle puzzle = new Puzzle(List.of(new int[]{1, 1}, new int[]{}), List.of(new int[]{1}, new int[]{1}));
+
+		assertEquals("row 0: clue needs 3 cells, the row has 2", reason(puzzle));
+	}
+
+	@Test
+	void emptyBlockFails() {
+		Puzzle puzzle = new Puzzle(List.of(new int[]{1}), List.of(new int[]{1}, new int[]{0}));
+
+		assertEquals("column 1: block sizes must be positive", reason(puzzle));
+	}
+
+	@Test
+	void rowAndColumnCluesFillingDifferentCellCountsFail() {
+		Puzzle puzzle = new Puzzle(List.of(new int[]{2}, new int[]{1}), List.of(new int[]{1}, new int[]{1}));
+
+		assertEquals("row clues fill 3 cells, column clues fill 2", reason(puzzle));
+	}
+
+	@Test
+	void sumsNoGridCanHaveFail() {
+		// the first column needs both rows, but the second row is empty
+		Puzzle puzzle = new Puzzle(List.of(new int[]{2}, new int[]{}), List.of(new int[]{2}, new int[]{}));
+
+		assertEquals("the 1 fullest columns need 2 cells, the rows can fill at most 1 of them", reason(puzzle));
+	}
+}